@@ -0,0 +1,132 @@
+package com.rest.assignment.bulkhead;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time in which a burst of concurrent clients is served when every request runs
+ * on a pool of platform threads of the size of the Tomcat default, and when every request runs
+ * on a virtual thread of its own. The throughput in requests per second is the number of clients
+ * divided by the score.
+ * <p>
+ * A request blocks on the network for {@link #NETWORK_MILLIS}, like a request that reads a slow
+ * client or waits for another service, and then makes a database call that takes
+ * {@link #DATABASE_MILLIS} on one of the {@link #CONNECTIONS} connections of the pool. The
+ * virtual threads require Java 21, so run the benchmark with a Java 21 runtime.
+ * </p>
+ * <p>
+ * The requests and the database are simulated with sleeps and a semaphore, so the scores only
+ * compare the two execution models. They are not the throughput of the application, whose
+ * requests also run Tomcat, Spring MVC, the bulkheads, and the MongoDB driver. In particular,
+ * the simulated database call does not pin the carrier thread, while the synchronized I/O of
+ * the MongoDB driver 2.12 does, which is why the application keeps its database calls on the
+ * platform threads of the bulkheads.
+ * </p>
+ * @author Rohan Das
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModelBenchmark {
+
+    /**
+     * The default size of the thread pool of Tomcat.
+     */
+    private static final int PLATFORM_THREADS = 200;
+
+    /**
+     * The default size of the connection pool of the MongoDB driver.
+     */
+    private static final int CONNECTIONS = 100;
+
+    private static final long NETWORK_MILLIS = 10;
+
+    private static final long DATABASE_MILLIS = 2;
+
+    public enum Model {
+        PLATFORM_POOL,
+        VIRTUAL
+    }
+
+    @Param({"1000", "10000"})
+    private int clients;
+
+    @Param({"PLATFORM_POOL", "VIRTUAL"})
+    private Model model;
+
+    private Semaphore connections;
+
+    private ExecutorService pool;
+
+    private Executor executor;
+
+    @Setup
+    public void setUp() {
+        connections = new Semaphore(CONNECTIONS);
+        if (model == Model.PLATFORM_POOL) {
+            pool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            executor = pool;
+        }
+        else {
+            executor = VirtualThreads.threadPerTaskExecutor("benchmark");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void serveClients() throws InterruptedException {
+        CountDownLatch served = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> {
+                try {
+                    serve();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    served.countDown();
+                }
+            });
+        }
+        served.await();
+    }
+
+    private void serve() throws InterruptedException {
+        Thread.sleep(NETWORK_MILLIS);
+
+        connections.acquire();
+        try {
+            Thread.sleep(DATABASE_MILLIS);
+        }
+        finally {
+            connections.release();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rest.assignment.error;
+
+import com.rest.assignment.product.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving the localized messages of the field errors of an invalid product.
+ * @author Rohan Das
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestErrorHandlerBenchmark {
+
+    private RestErrorHandler handler;
+
+    private List<FieldError> fieldErrors;
+
+    @Setup
+    public void setUp() {
+        ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        handler = new RestErrorHandler(messageSource);
+
+        ProductDTO invalid = new ProductDTO();
+        invalid.setTitle("");
+        invalid.setPrice("");
+        invalid.setDescription(new String(new char[501]));
+
+        BindingResult result = new BeanPropertyBindingResult(invalid, "productDTO");
+        new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator()).validate(invalid, result);
+        fieldErrors = result.getFieldErrors();
+    }
+
+    @Benchmark
+    public ValidationErrorDTO processFieldErrors() {
+        return handler.processFieldErrors(fieldErrors);
+    }
+}
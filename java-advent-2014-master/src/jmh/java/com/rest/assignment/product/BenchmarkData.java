@@ -0,0 +1,51 @@
+package com.rest.assignment.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates the products that are used by the benchmarks.
+ * @author Rohan Das
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            products.add(new ProductBuilder()
+                    .id(String.format("%024x", index))
+                    .title("title " + index)
+                    .description("description of product " + index)
+                    .price(index + ".99")
+                    .type(index % 2 == 0 ? "book" : "toy")
+                    .build());
+        }
+        return products;
+    }
+
+    static ProductDTO validDTO() {
+        return new ProductDTOBuilder()
+                .title("title")
+                .description("description")
+                .price("10.50")
+                .type("book")
+                .build();
+    }
+
+    static ProductDTO invalidDTO() {
+        return new ProductDTOBuilder()
+                .title("")
+                .description(repeat('d', Product.MAX_LENGTH_DESCRIPTION + 1))
+                .price("")
+                .build();
+    }
+
+    static String repeat(char character, int length) {
+        char[] characters = new char[length];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+}
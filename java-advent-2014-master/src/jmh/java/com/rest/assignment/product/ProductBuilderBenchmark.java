@@ -0,0 +1,63 @@
+package com.rest.assignment.product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a product, including the precondition checks of its fields.
+ * @author Rohan Das
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductBuilderBenchmark {
+
+    private String title;
+
+    private String description;
+
+    private String maxLengthTitle;
+
+    private String maxLengthDescription;
+
+    @Setup
+    public void setUp() {
+        title = "title";
+        description = "description";
+        maxLengthTitle = BenchmarkData.repeat('t', Product.MAX_LENGTH_TITLE);
+        maxLengthDescription = BenchmarkData.repeat('d', Product.MAX_LENGTH_DESCRIPTION);
+    }
+
+    @Benchmark
+    public Product build() {
+        return Product.getBuilder()
+                .title(title)
+                .description(description)
+                .price("10.50")
+                .type("book")
+                .build();
+    }
+
+    @Benchmark
+    public Product buildWithMaxLengthFields() {
+        return Product.getBuilder()
+                .title(maxLengthTitle)
+                .description(maxLengthDescription)
+                .price("10.50")
+                .type("book")
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.rest.assignment.product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting products to data transfer objects, one at a time and as lists.
+ * @author Rohan Das
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductConversionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Product product;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(size);
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public ProductDTO convertToDTO() {
+        return ProductServiceImpl.convertToDTO(product);
+    }
+
+    @Benchmark
+    public List<ProductDTO> convertToDTOs() {
+        return ProductServiceImpl.convertToDTOs(products);
+    }
+}
@@ -0,0 +1,76 @@
+package com.rest.assignment.product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a product that is done for every create and update request,
+ * with Bean Validation and with the validator that is used by the controller.
+ * @author Rohan Das
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductValidationBenchmark {
+
+    private Validator validator;
+
+    private ProductDTOValidator productValidator;
+
+    private ProductDTO valid;
+
+    private ProductDTO invalid;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        productValidator = new ProductDTOValidator();
+        valid = BenchmarkData.validDTO();
+        invalid = BenchmarkData.invalidDTO();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDTO>> validateValidProduct() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDTO>> validateInvalidProduct() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public Errors validateValidProductWithProductValidator() {
+        return validateWithProductValidator(valid);
+    }
+
+    @Benchmark
+    public Errors validateInvalidProductWithProductValidator() {
+        return validateWithProductValidator(invalid);
+    }
+
+    private Errors validateWithProductValidator(ProductDTO product) {
+        Errors errors = new BeanPropertyBindingResult(product, "productDTO");
+        productValidator.validate(product, errors);
+        return errors;
+    }
+}
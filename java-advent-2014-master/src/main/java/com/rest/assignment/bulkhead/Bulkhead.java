@@ -0,0 +1,165 @@
+package com.rest.assignment.bulkhead;
+
+import com.rest.assignment.metrics.ServerTiming;
+import org.slf4j.MDC;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bulkhead runs the tasks of one kind of request on a bounded thread pool of its own, so
+ * that a flood of slow requests can only exhaust its own threads and queue, and not the threads
+ * of the servlet container that serve the other requests.
+ * <p>
+ * The tasks return their result as a {@link DeferredResult}, so the thread of the servlet
+ * container is released while the task waits and runs. A task that does not fit into the
+ * queue is rejected right away instead of being queued without bound.
+ * </p>
+ * @author Rohan Das
+ */
+public final class Bulkhead {
+
+    private final String name;
+
+    private final int threads;
+
+    private final int queueSize;
+
+    private final long timeoutMillis;
+
+    private final BulkheadPool pool;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Creates a new bulkhead that runs its tasks on a pool of platform threads.
+     * @param name          The name of the bulkhead, which is used as the prefix of its thread names.
+     * @param threads       The maximum number of tasks that run at the same time.
+     * @param queueSize     The maximum number of tasks that wait for a thread.
+     * @param timeoutMillis The time after which a request fails if its task has not finished.
+     */
+    public Bulkhead(String name, int threads, int queueSize, long timeoutMillis) {
+        this(name, threads, queueSize, timeoutMillis, false);
+    }
+
+    private Bulkhead(String name, int threads, int queueSize, long timeoutMillis, boolean virtual) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.queueSize = Math.max(0, queueSize);
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.pool = virtual ? new VirtualThreadPool(VirtualThreads.factory(name), this.threads, this.queueSize)
+                : new PlatformThreadPool(name, this.threads, this.queueSize);
+    }
+
+    /**
+     * Creates a new bulkhead that runs every task on a virtual thread of its own. The number
+     * of tasks that run at the same time is still limited, because the tasks share a resource
+     * such as the connection pool of the database, but a task that waits does not take a
+     * platform thread.
+     * <p>
+     * A task that blocks inside a synchronized method pins the carrier thread of its virtual thread
+     * on Java 21, so the tasks must not call blocking libraries that synchronize their I/O, such as
+     * the MongoDB driver 2.x. Otherwise at most as many tasks as there are CPUs can block at once.
+     * </p>
+     * @param name          The name of the bulkhead, which is used as the prefix of its thread names.
+     * @param maxConcurrent The maximum number of tasks that run at the same time.
+     * @param queueSize     The maximum number of tasks that wait for their turn.
+     * @param timeoutMillis The time after which a request fails if its task has not finished.
+     * @throws UnsupportedOperationException    If the JVM does not support virtual threads.
+     */
+    public static Bulkhead virtual(String name, int maxConcurrent, int queueSize, long timeoutMillis) {
+        return new Bulkhead(name, maxConcurrent, queueSize, timeoutMillis, true);
+    }
+
+    /**
+     * Submits a task of the current request. The task runs with the Server-Timing and
+     * the MDC of the current request, and the time it waits for a thread is added to
+     * the queue span of the request.
+     * @param task  The task, whose exception becomes the error result of the request.
+     * @return      The result of the task.
+     * @throws BulkheadFullException    If all threads are busy and the queue is full.
+     */
+    public <T> DeferredResult<T> submit(Callable<T> task) {
+        return submit(task, () -> { });
+    }
+
+    /**
+     * Submits a task of the current request, which is stopped when the request times out.
+     * This is needed by tasks that write to the response themselves, because the response is
+     * completed and recycled by the servlet container after the error result was sent.
+     * @param task      The task, whose exception becomes the error result of the request.
+     * @param onTimeout Stops the task. It is called by the thread of the servlet container before
+     *                  the error result is set, so it must not block: it only signals the task to
+     *                  stop writing to the response.
+     * @return          The result of the task.
+     * @throws BulkheadFullException    If all threads are busy and the queue is full.
+     */
+    public <T> DeferredResult<T> submit(Callable<T> task, Runnable onTimeout) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        result.onTimeout(() -> {
+            timedOut.increment();
+            onTimeout.run();
+            result.setErrorResult(new BulkheadTimeoutException(name, timeoutMillis));
+        });
+
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        long submitted = System.nanoTime();
+
+        try {
+            pool.execute(ServerTiming.propagate(() -> run(task, result, context, submitted)));
+        }
+        catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+
+        return result;
+    }
+
+    private static <T> void run(Callable<T> task, DeferredResult<T> result, Map<String, String> context,
+                                long submitted) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.add(ServerTiming.Span.QUEUE, System.nanoTime() - submitted);
+        }
+
+        //A request that timed out while its task was queued has already been answered.
+        if (result.isSetOrExpired()) {
+            return;
+        }
+
+        if (context != null) {
+            MDC.setContextMap(context);
+        }
+        try {
+            result.setResult(task.call());
+        }
+        catch (Exception ex) {
+            result.setErrorResult(ex);
+        }
+        finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Stops accepting tasks and interrupts the running tasks.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkheadStats stats() {
+        return new BulkheadStats(threads, queueSize, pool.getActive(), pool.getQueued(), pool.getCompleted(),
+                rejected.sum(), timedOut.sum());
+    }
+}
@@ -0,0 +1,15 @@
+package com.rest.assignment.bulkhead;
+
+/**
+ * This exception is thrown when a task is submitted to a bulkhead whose threads
+ * are busy and whose queue is full.
+ * @author Rohan Das
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkheadFullException(String bulkhead) {
+        super(String.format("The bulkhead %s is full", bulkhead));
+    }
+}
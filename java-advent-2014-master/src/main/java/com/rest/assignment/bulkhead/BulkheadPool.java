@@ -0,0 +1,33 @@
+package com.rest.assignment.bulkhead;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The threads that run the tasks of a bulkhead.
+ * @author Rohan Das
+ */
+interface BulkheadPool {
+
+    /**
+     * Runs the task, or queues it until a thread is free.
+     * @throws RejectedExecutionException   If all threads are busy and the queue is full.
+     */
+    void execute(Runnable task);
+
+    /**
+     * @return  The number of tasks that are running.
+     */
+    int getActive();
+
+    /**
+     * @return  The number of tasks that wait for a thread.
+     */
+    int getQueued();
+
+    long getCompleted();
+
+    /**
+     * Stops accepting tasks and interrupts the running tasks.
+     */
+    void shutdown();
+}
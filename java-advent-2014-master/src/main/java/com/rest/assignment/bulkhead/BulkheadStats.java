@@ -0,0 +1,72 @@
+package com.rest.assignment.bulkhead;
+
+/**
+ * This class contains a snapshot of the state and counters of a bulkhead.
+ * @author Rohan Das
+ */
+public final class BulkheadStats {
+
+    private final int threads;
+
+    private final int queueSize;
+
+    private final int active;
+
+    private final int queued;
+
+    private final long completed;
+
+    private final long rejected;
+
+    private final long timedOut;
+
+    BulkheadStats(int threads, int queueSize, int active, int queued, long completed, long rejected, long timedOut) {
+        this.threads = threads;
+        this.queueSize = queueSize;
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return  The number of threads that are running a task.
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return  The number of tasks that wait for a thread.
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return  The number of tasks that were rejected because the threads were busy and the queue was full.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return  The number of requests whose task did not finish before the timeout.
+     */
+    public long getTimedOut() {
+        return timedOut;
+    }
+}
@@ -0,0 +1,14 @@
+package com.rest.assignment.bulkhead;
+
+/**
+ * This exception is the result of a request whose task was not finished by a bulkhead in time.
+ * @author Rohan Das
+ */
+public class BulkheadTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkheadTimeoutException(String bulkhead, long timeoutMillis) {
+        super(String.format("The task of the bulkhead %s did not finish within %d ms", bulkhead, timeoutMillis));
+    }
+}
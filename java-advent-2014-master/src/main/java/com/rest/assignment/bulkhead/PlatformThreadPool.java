@@ -0,0 +1,63 @@
+package com.rest.assignment.bulkhead;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This pool runs the tasks of a bulkhead on a fixed number of platform threads, and queues
+ * the tasks that arrive while all threads are busy in a bounded queue.
+ * @author Rohan Das
+ */
+final class PlatformThreadPool implements BulkheadPool {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+
+    PlatformThreadPool(String name, int threads, int queueSize) {
+        BlockingQueue<Runnable> queue = queueSize == 0 ? new SynchronousQueue<>()
+                : new ArrayBlockingQueue<>(queueSize);
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                queue, threadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
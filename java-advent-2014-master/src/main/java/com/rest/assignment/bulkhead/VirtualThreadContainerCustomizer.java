@@ -0,0 +1,57 @@
+package com.rest.assignment.bulkhead;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.ConfigurableEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * If virtual threads are enabled, this component makes Tomcat run every request on a virtual
+ * thread of its own instead of a thread of its bounded worker pool. A request that reads a slow
+ * client then does not take one of the platform threads. The requests use the database on the
+ * platform threads of the bulkheads, because the synchronized I/O of the MongoDB driver 2.12
+ * would pin the carrier threads of virtual threads.
+ * @author Rohan Das
+ */
+@Component
+final class VirtualThreadContainerCustomizer implements EmbeddedServletContainerCustomizer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadContainerCustomizer.class);
+
+    private static final String THREAD_NAME_PREFIX = "http";
+
+    private final boolean enabled;
+
+    @Autowired
+    VirtualThreadContainerCustomizer(@Value("${virtual-threads.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void customize(ConfigurableEmbeddedServletContainer container) {
+        if (!enabled || !(container instanceof TomcatEmbeddedServletContainerFactory)) {
+            return;
+        }
+        if (!VirtualThreads.isAvailable()) {
+            LOGGER.warn("Virtual threads require Java 21 or newer, Tomcat runs the requests on its thread pool");
+            return;
+        }
+
+        ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(this::useVirtualThreads);
+    }
+
+    private void useVirtualThreads(Connector connector) {
+        ProtocolHandler handler = connector.getProtocolHandler();
+        if (handler instanceof AbstractProtocol) {
+            ((AbstractProtocol) handler).setExecutor(VirtualThreads.threadPerTaskExecutor(THREAD_NAME_PREFIX));
+            LOGGER.info("Tomcat runs the requests of {} on virtual threads", connector.getProtocol());
+        }
+    }
+}
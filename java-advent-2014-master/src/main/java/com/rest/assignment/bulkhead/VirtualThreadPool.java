@@ -0,0 +1,94 @@
+package com.rest.assignment.bulkhead;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This pool runs every task of a bulkhead on a new virtual thread. Virtual threads are
+ * cheap, so they are not pooled. Instead, the number of tasks that run at the same time is
+ * limited by a semaphore, and a queued task is a virtual thread that waits for a permit.
+ * @author Rohan Das
+ */
+final class VirtualThreadPool implements BulkheadPool {
+
+    private final ThreadFactory factory;
+
+    private final int maxConcurrent;
+
+    private final int maxAdmitted;
+
+    private final Semaphore running;
+
+    private final Semaphore admitted;
+
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder completed = new LongAdder();
+
+    private volatile boolean shutdown;
+
+    VirtualThreadPool(ThreadFactory factory, int maxConcurrent, int queueSize) {
+        this.factory = factory;
+        this.maxConcurrent = maxConcurrent;
+        this.maxAdmitted = maxConcurrent + queueSize;
+        this.running = new Semaphore(maxConcurrent);
+        this.admitted = new Semaphore(maxAdmitted);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown || !admitted.tryAcquire()) {
+            throw new RejectedExecutionException();
+        }
+
+        Thread thread = factory.newThread(() -> run(task));
+        //The thread is added before it starts, so it can always remove itself.
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void run(Runnable task) {
+        try {
+            running.acquire();
+            try {
+                task.run();
+            }
+            finally {
+                running.release();
+                completed.increment();
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            admitted.release();
+            threads.remove(Thread.currentThread());
+        }
+    }
+
+    @Override
+    public int getActive() {
+        return maxConcurrent - running.availablePermits();
+    }
+
+    @Override
+    public int getQueued() {
+        return Math.max(0, maxAdmitted - admitted.availablePermits() - getActive());
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        threads.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,70 @@
+package com.rest.assignment.bulkhead;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class creates virtual threads when the application runs on Java 21 or newer. The
+ * application is compiled for Java 8, so the virtual thread builder is looked up reflectively
+ * once, and {@link #isAvailable()} tells whether it was found. On Java 21 the application must
+ * be started with the options of the java9-plus profile of pom.xml, because Spring 4.0 and
+ * Tomcat 7 access the internals of the JDK reflectively.
+ * @author Rohan Das
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod("java.lang.Thread", "ofVirtual");
+
+    private static final Method NAME = findMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+
+    private static final Method FACTORY = findMethod("java.lang.Thread$Builder", "factory");
+
+    private VirtualThreads() {}
+
+    private static Method findMethod(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(name, parameterTypes);
+        }
+        catch (ClassNotFoundException | NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return  true if the Java runtime supports virtual threads.
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    /**
+     * @param prefix    The prefix of the thread names, which is followed by a counter.
+     * @return          A factory of unstarted virtual threads.
+     * @throws UnsupportedOperationException If the Java runtime does not support virtual threads.
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 1L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        }
+        catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads cannot be created", ex);
+        }
+    }
+
+    /**
+     * @param prefix    The prefix of the thread names, which is followed by a counter.
+     * @return          An executor that runs every task on a new virtual thread.
+     * @throws UnsupportedOperationException If the Java runtime does not support virtual threads.
+     */
+    public static Executor threadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        return task -> factory.newThread(task).start();
+    }
+}
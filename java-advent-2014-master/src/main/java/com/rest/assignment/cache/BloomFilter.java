@@ -0,0 +1,119 @@
+package com.rest.assignment.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a thread safe Bloom filter of strings. It answers whether a
+ * string might have been added to it: a negative answer is always correct, and
+ * a positive answer is wrong with a probability that is configured when the
+ * filter is created. Strings cannot be removed from the filter.
+ * @author Rohan Das
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    /**
+     * Creates a new filter that is sized for the given number of strings.
+     * @param expectedInsertions    The number of strings that are expected to be added.
+     * @param falsePositiveRate     The probability of a positive answer for a string that was
+     *                              not added, once the expected number of strings has been added.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, (bits + Long.SIZE - 1) / Long.SIZE);
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN2));
+    }
+
+    public void put(CharSequence value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+
+        for (int index = 1; index <= hashCount; index++) {
+            long bit = toBit(first + (long) index * second);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    /**
+     * @return  false if the value has certainly not been added, and true if it might have been added.
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+
+        for (int index = 1; index <= hashCount; index++) {
+            long bit = toBit(first + (long) index * second);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Estimates the current false positive rate from the share of bits that are set.
+     * Reading the bits is not atomic, so the estimate is approximate while strings are added.
+     */
+    public double estimateFalsePositiveRate() {
+        long setBits = 0;
+        for (int word = 0; word < words.length(); word++) {
+            setBits += Long.bitCount(words.get(word));
+        }
+        return Math.pow((double) setBits / bitSize, hashCount);
+    }
+
+    private long toBit(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the characters and mixes it with the
+     * MurmurHash3 finalizer, so that both halves of the hash are well distributed.
+     */
+    private static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
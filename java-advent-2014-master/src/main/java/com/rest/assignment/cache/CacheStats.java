@@ -0,0 +1,64 @@
+package com.rest.assignment.cache;
+
+/**
+ * This class contains a snapshot of the counters of a cache.
+ * @author Rohan Das
+ */
+public final class CacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final long expirations;
+
+    private final long size;
+
+    private final long maxSize;
+
+    CacheStats(long hits, long misses, long evictions, long expirations, long size, long maxSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return  The number of entries that were removed because the cache was full.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return  The number of entries that were removed because their time to live had passed.
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
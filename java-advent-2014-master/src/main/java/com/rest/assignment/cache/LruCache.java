@@ -0,0 +1,191 @@
+package com.rest.assignment.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is a bounded in-process cache that evicts the least recently used
+ * entries and expires entries after a fixed time to live. The entries are split
+ * into segments that are locked separately, so concurrent lookups of different
+ * keys rarely contend.
+ * @author Rohan Das
+ */
+public final class LruCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment<K, V>[] segments;
+
+    private final long maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Creates a new cache.
+     * @param maxSize   The maximum number of cached entries.
+     * @param ttl       The time after which an entry expires. Zero means that entries never expire.
+     * @param unit      The unit of the time to live.
+     */
+    public LruCache(long maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    LruCache(long maxSize, long ttl, TimeUnit unit, LongSupplier ticker) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = ticker;
+
+        int segmentCount = (int) Math.min(SEGMENT_COUNT, maxSize);
+        long segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+
+        this.segments = new Segment[segmentCount];
+        for (int index = 0; index < segmentCount; index++) {
+            segments[index] = new Segment<>(segmentCapacity, evictions);
+        }
+    }
+
+    /**
+     * @return  The cached value, or null if the key is not cached or the entry has expired.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry;
+
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && isExpired(entry)) {
+                segment.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value without counting a hit or a miss.
+     * @return  The cached value, or null if the key is not cached or the entry has expired.
+     */
+    public V peek(K key) {
+        Segment<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            return entry == null || isExpired(entry) ? null : entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry = new Entry<>(value, ticker.getAsLong());
+
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size(), maxSize);
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && ticker.getAsLong() - entry.createdAt >= ttlNanos;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * A segment keeps its entries in access order, so the eldest entry is the
+     * least recently used one.
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long capacity;
+
+        private final transient LongAdder evictions;
+
+        private Segment(long capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
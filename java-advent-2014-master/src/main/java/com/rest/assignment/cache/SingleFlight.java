@@ -0,0 +1,140 @@
+package com.rest.assignment.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * This class deduplicates concurrent loads of the same key. The first caller
+ * of a key runs the load, and the callers that arrive while it is in flight
+ * wait for it and receive the same value or exception. Nothing is kept after
+ * the load completes, so this class is not a cache.
+ * <p>
+ * The joins are counted per key for a bounded number of keys with the Space-Saving
+ * algorithm: when all tracked keys are taken, a newly joined key replaces the tracked
+ * key with the fewest joins and continues its count. The keys with the most joins are
+ * therefore tracked even if they appear after many other keys, and the count of a key
+ * exceeds its joins by at most the count that it continued.
+ * </p>
+ * @author Rohan Das
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The join counts of the tracked keys. Guarded by itself.
+     */
+    private final Map<K, long[]> joinsByKey = new HashMap<>();
+
+    private final int maxTrackedKeys;
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder joins = new LongAdder();
+
+    /**
+     * Creates a new single flight group.
+     * @param maxTrackedKeys    The maximum number of keys whose join counts are tracked
+     *                          separately. Zero means that joins are only counted in the total.
+     */
+    public SingleFlight(int maxTrackedKeys) {
+        if (maxTrackedKeys < 0) {
+            throw new IllegalArgumentException("Max tracked keys cannot be negative");
+        }
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Loads the value of a key, or waits for the load that is already in flight.
+     * @param key       The loaded key.
+     * @param loader    The load that is run if no load of the key is in flight.
+     * @return          The loaded value.
+     * @throws RuntimeException if the load throws it. Callers that joined the load
+     *                  receive the same exception object.
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+
+        if (running != null) {
+            countJoin(key);
+            return await(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        }
+        catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        }
+        finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private void countJoin(K key) {
+        joins.increment();
+        if (maxTrackedKeys == 0) {
+            return;
+        }
+
+        synchronized (joinsByKey) {
+            long[] counter = joinsByKey.get(key);
+            if (counter == null) {
+                counter = new long[1];
+                if (joinsByKey.size() >= maxTrackedKeys) {
+                    counter[0] = joinsByKey.remove(leastJoinedKey())[0];
+                }
+                joinsByKey.put(key, counter);
+            }
+            counter[0]++;
+        }
+    }
+
+    private K leastJoinedKey() {
+        K leastJoined = null;
+        long fewestJoins = Long.MAX_VALUE;
+        for (Map.Entry<K, long[]> entry : joinsByKey.entrySet()) {
+            if (entry.getValue()[0] < fewestJoins) {
+                leastJoined = entry.getKey();
+                fewestJoins = entry.getValue()[0];
+            }
+        }
+        return leastJoined;
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        }
+        catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+    public SingleFlightStats stats() {
+        Map<String, Long> snapshot = new HashMap<>();
+        synchronized (joinsByKey) {
+            joinsByKey.forEach((key, counter) -> snapshot.put(String.valueOf(key), counter[0]));
+        }
+
+        return new SingleFlightStats(loads.sum(), joins.sum(), inFlight.size(), snapshot);
+    }
+}
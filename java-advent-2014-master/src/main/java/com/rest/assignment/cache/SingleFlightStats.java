@@ -0,0 +1,52 @@
+package com.rest.assignment.cache;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class contains a snapshot of the counters of a single flight group.
+ * @author Rohan Das
+ */
+public final class SingleFlightStats {
+
+    private final long loads;
+
+    private final long joins;
+
+    private final long inFlight;
+
+    private final Map<String, Long> joinsByKey;
+
+    SingleFlightStats(long loads, long joins, long inFlight, Map<String, Long> joinsByKey) {
+        this.loads = loads;
+        this.joins = joins;
+        this.inFlight = inFlight;
+        this.joinsByKey = Collections.unmodifiableMap(joinsByKey);
+    }
+
+    /**
+     * @return  The number of loads that were run.
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * @return  The number of calls that waited for a load of another caller instead of running their own.
+     */
+    public long getJoins() {
+        return joins;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return  The number of joins per key. Only a bounded number of the most joined keys is tracked, and the
+     *          count of a key that replaced another key includes the joins of the replaced key.
+     */
+    public Map<String, Long> getJoinsByKey() {
+        return joinsByKey;
+    }
+}
@@ -1,5 +1,10 @@
 package com.rest.assignment.error;
 
+import com.rest.assignment.bulkhead.BulkheadFullException;
+import com.rest.assignment.bulkhead.BulkheadTimeoutException;
+import com.rest.assignment.cache.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
@@ -12,8 +17,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Rohan Das
@@ -21,13 +29,41 @@ import java.util.Locale;
 @ControllerAdvice
 public final class RestErrorHandler {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestErrorHandler.class);
+
+    static final int MESSAGE_CACHE_SIZE = 1000;
+
+    private static final String BULKHEAD_RETRY_AFTER_SECONDS = "1";
+
     private final MessageSource messageSource;
 
+    /**
+     * The resolved messages by locale, codes, and arguments of the field error. The
+     * messages are read once at startup, so the cached messages never expire.
+     */
+    private final LruCache<List<Object>, String> messages = new LruCache<>(MESSAGE_CACHE_SIZE, 0, TimeUnit.SECONDS);
+
     @Autowired
     public RestErrorHandler(MessageSource messageSource) {
         this.messageSource = messageSource;
     }
 
+    /**
+     * A full bulkhead sheds the load of one kind of request, so the client can retry soon.
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void processBulkheadFull(BulkheadFullException ex, HttpServletResponse response) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+        response.setHeader("Retry-After", BULKHEAD_RETRY_AFTER_SECONDS);
+    }
+
+    @ExceptionHandler(BulkheadTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void processBulkheadTimeout(BulkheadTimeoutException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ResponseBody
@@ -38,7 +74,7 @@ public final class RestErrorHandler {
         return processFieldErrors(fieldErrors);
     }
 
-    private ValidationErrorDTO processFieldErrors(List<FieldError> fieldErrors) {
+    ValidationErrorDTO processFieldErrors(List<FieldError> fieldErrors) {
         ValidationErrorDTO dto = new ValidationErrorDTO();
 
         for (FieldError fieldError: fieldErrors) {
@@ -51,6 +87,19 @@ public final class RestErrorHandler {
 
     private String resolveLocalizedErrorMessage(FieldError fieldError) {
         Locale currentLocale =  LocaleContextHolder.getLocale();
+        List<Object> key = Arrays.asList(currentLocale, toList(fieldError.getCodes()),
+                toList(fieldError.getArguments()), fieldError.getDefaultMessage());
+
+        String localizedErrorMessage = messages.get(key);
+        if (localizedErrorMessage == null) {
+            localizedErrorMessage = resolveLocalizedErrorMessage(fieldError, currentLocale);
+            messages.put(key, localizedErrorMessage);
+        }
+
+        return localizedErrorMessage;
+    }
+
+    private String resolveLocalizedErrorMessage(FieldError fieldError, Locale currentLocale) {
         String localizedErrorMessage = messageSource.getMessage(fieldError, currentLocale);
 
         //If the message was not found, return the most accurate field error code instead.
@@ -61,4 +110,8 @@ public final class RestErrorHandler {
 
         return localizedErrorMessage;
     }
+
+    private static List<Object> toList(Object[] values) {
+        return values == null ? null : Arrays.asList(values);
+    }
 }
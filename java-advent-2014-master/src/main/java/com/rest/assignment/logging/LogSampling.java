@@ -0,0 +1,119 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This component decides which requests write their log events below WARN. Each endpoint
+ * has a sample rate between 0 and 1, and a request is sampled with the rate of its endpoint.
+ * All log events of a request are either written or dropped, so the events of the sampled
+ * requests stay complete. The decision is stored in the MDC, where it is read by the
+ * {@link LogSamplingTurboFilter} that this component adds to the logger context.
+ * @author Rohan Das
+ */
+@Component
+final class LogSampling implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogSampling.class);
+
+    /**
+     * The MDC key of the endpoint of the current request.
+     */
+    static final String ENDPOINT_KEY = "endpoint";
+
+    /**
+     * The MDC key that is set to {@link #NOT_SAMPLED} when the current request was not sampled.
+     */
+    static final String SAMPLED_KEY = "sampled";
+
+    static final String NOT_SAMPLED = "false";
+
+    private final double defaultRate;
+
+    private final Map<String, Double> rates;
+
+    private final LogSamplingTurboFilter turboFilter = new LogSamplingTurboFilter();
+
+    /**
+     * @param defaultRate   The sample rate of the endpoints that have no rate of their own.
+     * @param rates         The sample rates of endpoints as a comma separated list of
+     *                      Controller.method=rate pairs, for example ProductController.findById=0.01.
+     */
+    @Autowired
+    LogSampling(@Value("${request-logging.default-sample-rate:1.0}") double defaultRate,
+                @Value("${request-logging.sample-rates:}") String rates) {
+        this.defaultRate = defaultRate;
+        this.rates = parseRates(rates);
+    }
+
+    static Map<String, Double> parseRates(String rates) {
+        Map<String, Double> parsed = new HashMap<>();
+
+        for (String pair: rates.split(",")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            int separator = trimmed.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid sample rate: " + trimmed);
+            }
+            parsed.put(trimmed.substring(0, separator).trim(),
+                    Double.parseDouble(trimmed.substring(separator + 1).trim()));
+        }
+
+        return Collections.unmodifiableMap(parsed);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            LOGGER.warn("Log sampling is disabled, because Logback is not the logging backend");
+            return;
+        }
+
+        turboFilter.setName("log-sampling");
+        turboFilter.start();
+        ((LoggerContext) loggerFactory).addTurboFilter(turboFilter);
+
+        LOGGER.info("Sampling request logs with default rate {} and endpoint rates {}", defaultRate, rates);
+    }
+
+    @Override
+    public void destroy() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext) {
+            ((LoggerContext) loggerFactory).getTurboFilterList().remove(turboFilter);
+        }
+        turboFilter.stop();
+    }
+
+    /**
+     * @return  The sample rate of the endpoint.
+     */
+    double rateOf(String endpoint) {
+        Double rate = rates.get(endpoint);
+        return rate == null ? defaultRate : rate;
+    }
+
+    /**
+     * @return  true if a request to an endpoint with the given sample rate is sampled.
+     */
+    static boolean sample(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
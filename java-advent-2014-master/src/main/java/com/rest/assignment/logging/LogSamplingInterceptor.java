@@ -0,0 +1,90 @@
+package com.rest.assignment.logging;
+
+import org.slf4j.MDC;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This interceptor puts the endpoint of the request into the MDC, and decides whether the
+ * log events of the request are sampled before the controller method is invoked.
+ * @author Rohan Das
+ */
+final class LogSamplingInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String SAMPLED_ATTRIBUTE = LogSamplingInterceptor.class.getName() + ".sampled";
+
+    private final LogSampling sampling;
+
+    private final ConcurrentMap<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    LogSamplingInterceptor(LogSampling sampling) {
+        this.sampling = sampling;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        Endpoint endpoint = endpoint((HandlerMethod) handler);
+
+        //An asynchronous request is dispatched again when its result is ready, and it keeps its first decision.
+        Boolean sampled = (Boolean) request.getAttribute(SAMPLED_ATTRIBUTE);
+        if (sampled == null) {
+            sampled = LogSampling.sample(endpoint.rate);
+            request.setAttribute(SAMPLED_ATTRIBUTE, sampled);
+        }
+
+        MDC.put(LogSampling.ENDPOINT_KEY, endpoint.name);
+        if (!sampled) {
+            MDC.put(LogSampling.SAMPLED_KEY, LogSampling.NOT_SAMPLED);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        clear();
+    }
+
+    private static void clear() {
+        MDC.remove(LogSampling.ENDPOINT_KEY);
+        MDC.remove(LogSampling.SAMPLED_KEY);
+    }
+
+    private Endpoint endpoint(HandlerMethod handler) {
+        Method method = handler.getMethod();
+        Endpoint endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            String name = handler.getBeanType().getSimpleName() + "." + method.getName();
+            endpoint = endpoints.computeIfAbsent(method, key -> new Endpoint(name, sampling.rateOf(name)));
+        }
+        return endpoint;
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+
+        private final double rate;
+
+        private Endpoint(String name, double rate) {
+            this.name = name;
+            this.rate = rate;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * This filter drops the log events below WARN of the requests that were not sampled.
+ * It runs before the logging event is created, so the message of a dropped event is
+ * never formatted and the arguments of the message are never converted to strings.
+ * @author Rohan Das
+ */
+public final class LogSamplingTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        return LogSampling.NOT_SAMPLED.equals(MDC.get(LogSampling.SAMPLED_KEY)) ? FilterReply.DENY
+                : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,26 @@
+package com.rest.assignment.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * This component registers the interceptor that samples the log events of the API requests.
+ * @author Rohan Das
+ */
+@Component
+final class LoggingWebConfig extends WebMvcConfigurerAdapter {
+
+    private final LogSampling sampling;
+
+    @Autowired
+    LoggingWebConfig(LogSampling sampling) {
+        this.sampling = sampling;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new LogSamplingInterceptor(sampling)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,204 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This appender passes the log events to its appenders through a bounded queue that is
+ * drained by a background thread. It is configured like
+ * {@link ch.qos.logback.classic.AsyncAppender}, but it never blocks the logging thread:
+ * an event is offered to the queue and dropped if the queue is full. The
+ * {@code AsyncAppender} of this Logback version always puts the events to its queue,
+ * so it cannot be used to check the capacity without racing the other logging threads.
+ * <p>
+ * The TRACE, DEBUG, and INFO events are also dropped when fewer than discardingThreshold
+ * slots are free, like in {@code AsyncAppender}. The number of dropped events is reported
+ * when the appender is stopped.
+ * </p>
+ * @author Rohan Das
+ */
+public final class NonBlockingAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+
+    private static final int UNDEFINED = -1;
+
+    private static final long MAX_FLUSH_TIME_MILLIS = 1000;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private BlockingQueue<ILoggingEvent> queue;
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private int discardingThreshold = UNDEFINED;
+
+    private boolean includeCallerData;
+
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No attached appenders found.");
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueSize);
+        if (discardingThreshold == UNDEFINED) {
+            discardingThreshold = queueSize / 5;
+        }
+
+        worker = new Thread(this::drain, "NonBlockingAsyncAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() <= Level.INFO_INT) {
+            dropped.increment();
+            return;
+        }
+
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (isStarted()) {
+            try {
+                appenders.appendLoopOnAppenders(queue.take());
+            }
+            catch (InterruptedException ex) {
+                break;
+            }
+        }
+
+        //The events that were queued before the appender was stopped are still written.
+        for (ILoggingEvent event = queue.poll(); event != null; event = queue.poll()) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join(MAX_FLUSH_TIME_MILLIS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            addError("Failed to join worker thread", ex);
+        }
+
+        long droppedEvents = dropped.sum();
+        if (droppedEvents > 0) {
+            addWarn("Dropped " + droppedEvents + " log events because the queue was full");
+        }
+    }
+
+    /**
+     * @return  The number of events that were dropped because the queue was full,
+     *          or because it was below the discarding threshold.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getNumberOfElementsInQueue() {
+        return queue.size();
+    }
+
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
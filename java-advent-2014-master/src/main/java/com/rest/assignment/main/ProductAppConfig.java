@@ -1,26 +1,44 @@
 package com.rest.assignment.main;
 
+import com.rest.assignment.mongo.IndexVerifier;
+import com.rest.assignment.mongo.RequiredIndexes;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.util.List;
 
 /**
- * This configuration class has three responsibilities:
+ * This configuration class has four responsibilities:
  * 
  *     It enables the auto configuration of the Spring application context.</li>
  *     
  *         It ensures that Spring looks for other components (controllers, services, and repositories) from the
- *         com.rest.assignment.product package.
+ *         com.rest.assignment package and its sub packages.
+ *     It creates or verifies the indexes that are required by the repositories when the application starts.
  *     It launches our application in the main() method.
  * 
  * @author Rohan Das
  */
 @Configuration
 @EnableAutoConfiguration
-@ComponentScan
+@ComponentScan(basePackages = "com.rest.assignment")
+@EnableMongoRepositories(basePackages = "com.rest.assignment")
 public class ProductAppConfig {
 
+    @Bean
+    IndexVerifier indexVerifier(MongoOperations mongoOperations,
+                                List<RequiredIndexes> requiredIndexes,
+                                @Value("${mongo.indexes.mode:CREATE}") IndexVerifier.Mode mode,
+                                @Value("${mongo.indexes.fail-fast:true}") boolean failFast) {
+        return new IndexVerifier(mongoOperations, requiredIndexes, mode, failFast);
+    }
+
     public static void main(String[] args) {
         SpringApplication.run(ProductAppConfig.class, args);
     }
@@ -0,0 +1,123 @@
+package com.rest.assignment.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This class records the latencies and errors of one operation. The count, errors, and
+ * total time are counted since the start of the application. The percentiles and the
+ * rate are calculated from the values that were recorded in the current and the
+ * previous window, so they follow changes in the latency of the operation.
+ * @author Rohan Das
+ */
+public final class LatencyTimer {
+
+    private static final long MIN_RATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long windowNanos;
+
+    private final LongSupplier ticker;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private volatile Window current;
+
+    private volatile Window previous;
+
+    /**
+     * Creates a new timer.
+     * @param window    The length of the window whose values are used for the percentiles and the rate.
+     * @param unit      The unit of the window.
+     */
+    public LatencyTimer(long window, TimeUnit unit) {
+        this(window, unit, System::nanoTime);
+    }
+
+    LatencyTimer(long window, TimeUnit unit, LongSupplier ticker) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+
+        this.windowNanos = unit.toNanos(window);
+        this.ticker = ticker;
+        this.current = new Window(ticker.getAsLong());
+    }
+
+    /**
+     * Records the latency of one call of the operation.
+     * @param nanos The latency in nanoseconds.
+     * @param error true if the call failed.
+     */
+    public void record(long nanos, boolean error) {
+        count.increment();
+        totalNanos.add(nanos);
+        if (error) {
+            errors.increment();
+        }
+
+        window(ticker.getAsLong()).histogram.record(nanos);
+    }
+
+    private Window window(long now) {
+        Window window = current;
+        if (now - window.start < windowNanos) {
+            return window;
+        }
+        return rotate(window, now);
+    }
+
+    private synchronized Window rotate(Window expired, long now) {
+        if (current != expired) {
+            return current;
+        }
+
+        long start = now - (now - expired.start) % windowNanos;
+
+        //If no values were recorded during the last full window, the expired window is too old to be reported.
+        previous = start - expired.start == windowNanos ? expired : null;
+        current = new Window(start);
+
+        return current;
+    }
+
+    public LatencyTimerSnapshot snapshot() {
+        long now = ticker.getAsLong();
+        Window window = window(now);
+        Window last = previous;
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.add(window.histogram);
+        long since = window.start;
+        if (last != null && last.start < window.start) {
+            histogram.add(last.histogram);
+            since = last.start;
+        }
+
+        long windowCount = histogram.getTotalCount();
+        double ratePerSecond = windowCount * (double) TimeUnit.SECONDS.toNanos(1)
+                / Math.max(now - since, MIN_RATE_INTERVAL_NANOS);
+
+        return new LatencyTimerSnapshot(count.sum(), errors.sum(), totalNanos.sum(), windowCount, ratePerSecond,
+                histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(90.0),
+                histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMax());
+    }
+
+    private static final class Window {
+
+        private final long start;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.rest.assignment.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class contains a snapshot of the counters and latency percentiles of a timer.
+ * The latencies are returned in milliseconds.
+ * @author Rohan Das
+ */
+public final class LatencyTimerSnapshot {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long count;
+
+    private final long errors;
+
+    private final long totalNanos;
+
+    private final long windowCount;
+
+    private final double rate;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+
+    private final long p999;
+
+    private final long max;
+
+    LatencyTimerSnapshot(long count, long errors, long totalNanos, long windowCount, double rate,
+                         long p50, long p90, long p99, long p999, long max) {
+        this.count = count;
+        this.errors = errors;
+        this.totalNanos = totalNanos;
+        this.windowCount = windowCount;
+        this.rate = rate;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    /**
+     * @return  The number of calls since the application was started.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return  The number of failed calls since the application was started.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return  The total time of all calls since the application was started.
+     */
+    public double getTotal() {
+        return toMillis(totalNanos);
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : toMillis(totalNanos) / count;
+    }
+
+    /**
+     * @return  The number of calls in the window that the percentiles are calculated from.
+     */
+    public long getWindowCount() {
+        return windowCount;
+    }
+
+    /**
+     * @return  The number of calls per second in the window.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public double getP50() {
+        return toMillis(p50);
+    }
+
+    public double getP90() {
+        return toMillis(p90);
+    }
+
+    public double getP99() {
+        return toMillis(p99);
+    }
+
+    public double getP999() {
+        return toMillis(p999);
+    }
+
+    /**
+     * @return  The highest latency in the window.
+     */
+    public double getMax() {
+        return toMillis(max);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,38 @@
+package com.rest.assignment.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This controller exposes the latency percentiles, error counts, and rates of the API
+ * requests and of the repository operations, as JSON and in the Prometheus text format.
+ * @author Rohan Das
+ */
+@RestController
+@RequestMapping("/api/metrics")
+final class MetricsController {
+
+    private final MetricsRegistry registry;
+
+    @Autowired
+    MetricsController(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @RequestMapping(method = RequestMethod.GET)
+    Map<String, Map<String, LatencyTimerSnapshot>> metrics() {
+        Map<String, Map<String, LatencyTimerSnapshot>> metrics = new LinkedHashMap<>();
+        registry.snapshot().forEach((group, timers) -> metrics.put(group.getJsonName(), timers));
+        return metrics;
+    }
+
+    @RequestMapping(value = "/prometheus", method = RequestMethod.GET, produces = PrometheusFormat.CONTENT_TYPE)
+    String prometheus() {
+        return PrometheusFormat.write(registry.snapshot());
+    }
+}
@@ -0,0 +1,57 @@
+package com.rest.assignment.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This component keeps the latency timers of the application by group and name.
+ * @author Rohan Das
+ */
+@Component
+final class MetricsRegistry {
+
+    static final long DEFAULT_WINDOW_SECONDS = 60;
+
+    private final long windowSeconds;
+
+    private final Map<TimerGroup, ConcurrentMap<String, LatencyTimer>> timers = new EnumMap<>(TimerGroup.class);
+
+    @Autowired
+    MetricsRegistry(@Value("${metrics.window-seconds:" + DEFAULT_WINDOW_SECONDS + "}") long windowSeconds) {
+        this.windowSeconds = Math.max(1, windowSeconds);
+
+        for (TimerGroup group: TimerGroup.values()) {
+            timers.put(group, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @return  The timer of the given group and name. The timer is created if it does not exist yet.
+     */
+    LatencyTimer timer(TimerGroup group, String name) {
+        return timers.get(group).computeIfAbsent(name, key -> new LatencyTimer(windowSeconds, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @return  The snapshots of all timers by group and name, sorted by name.
+     */
+    Map<TimerGroup, Map<String, LatencyTimerSnapshot>> snapshot() {
+        Map<TimerGroup, Map<String, LatencyTimerSnapshot>> snapshot = new EnumMap<>(TimerGroup.class);
+
+        timers.forEach((group, groupTimers) -> {
+            Map<String, LatencyTimerSnapshot> groupSnapshot = new TreeMap<>();
+            groupTimers.forEach((name, timer) -> groupSnapshot.put(name, timer.snapshot()));
+            snapshot.put(group, groupSnapshot);
+        });
+
+        return snapshot;
+    }
+}
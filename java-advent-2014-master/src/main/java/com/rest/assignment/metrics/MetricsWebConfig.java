@@ -0,0 +1,28 @@
+package com.rest.assignment.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * This component registers the interceptors that record the latency of the API requests
+ * and time the controller methods for the Server-Timing header.
+ * @author Rohan Das
+ */
+@Component
+final class MetricsWebConfig extends WebMvcConfigurerAdapter {
+
+    private final MetricsRegistry registry;
+
+    @Autowired
+    MetricsWebConfig(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new RequestMetricsInterceptor(registry)).addPathPatterns("/api/**");
+        interceptors.addInterceptor(new ServerTimingInterceptor());
+    }
+}
@@ -0,0 +1,67 @@
+package com.rest.assignment.metrics;
+
+import java.util.Map;
+
+/**
+ * This class writes the snapshots of the timers in the Prometheus text format. Each
+ * group of timers is written as a summary with the 0.5, 0.9, 0.99, and 0.999 quantiles
+ * in seconds, and a counter of the errors.
+ * @author Rohan Das
+ */
+final class PrometheusFormat {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private PrometheusFormat() {
+    }
+
+    static String write(Map<TimerGroup, Map<String, LatencyTimerSnapshot>> snapshot) {
+        StringBuilder out = new StringBuilder();
+
+        snapshot.forEach((group, timers) -> {
+            String name = group.getMetricName();
+            out.append("# HELP ").append(name).append(' ').append(group.getHelp()).append('\n');
+            out.append("# TYPE ").append(name).append(" summary\n");
+
+            timers.forEach((timerName, timer) -> {
+                String label = group.getLabelName() + "=\"" + escape(timerName) + "\"";
+                appendQuantile(out, name, label, "0.5", timer.getP50());
+                appendQuantile(out, name, label, "0.9", timer.getP90());
+                appendQuantile(out, name, label, "0.99", timer.getP99());
+                appendQuantile(out, name, label, "0.999", timer.getP999());
+                appendSample(out, name + "_sum", label, timer.getTotal() / MILLIS_PER_SECOND);
+                appendSample(out, name + "_count", label, timer.getCount());
+            });
+
+            String errors = name.replaceFirst("_seconds$", "") + "_errors_total";
+            out.append("# HELP ").append(errors).append(" The number of failed calls.\n");
+            out.append("# TYPE ").append(errors).append(" counter\n");
+
+            timers.forEach((timerName, timer) -> {
+                String label = group.getLabelName() + "=\"" + escape(timerName) + "\"";
+                appendSample(out, errors, label, timer.getErrors());
+            });
+        });
+
+        return out.toString();
+    }
+
+    private static void appendQuantile(StringBuilder out, String name, String label, String quantile,
+                                       double millis) {
+        appendSample(out, name, label + ",quantile=\"" + quantile + "\"", millis / MILLIS_PER_SECOND);
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
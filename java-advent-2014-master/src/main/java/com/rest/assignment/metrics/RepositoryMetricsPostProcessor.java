@@ -0,0 +1,100 @@
+package com.rest.assignment.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This post processor records the latency of every method call of the Spring Data
+ * repositories. The timers are named after the repository bean and the method. The
+ * latency is also added to the Server-Timing of the current request.
+ * @author Rohan Das
+ */
+@Component
+final class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final MetricsRegistry registry;
+
+    @Autowired
+    RepositoryMetricsPostProcessor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository)) {
+            return bean;
+        }
+
+        RepositoryMetricsInterceptor interceptor = new RepositoryMetricsInterceptor(registry, beanName);
+
+        //The repositories are proxies already, so the interceptor is added to the proxy instead of wrapping it.
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static final class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+        private final MetricsRegistry registry;
+
+        private final String repositoryName;
+
+        private final ConcurrentMap<Method, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+        private RepositoryMetricsInterceptor(MetricsRegistry registry, String repositoryName) {
+            this.registry = registry;
+            this.repositoryName = repositoryName;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            LatencyTimer timer = timer(invocation.getMethod());
+
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                Object result = invocation.proceed();
+                error = false;
+                return result;
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed, error);
+
+                ServerTiming timing = ServerTiming.current();
+                if (timing != null) {
+                    timing.add(ServerTiming.Span.DB, elapsed);
+                }
+            }
+        }
+
+        private LatencyTimer timer(Method method) {
+            LatencyTimer timer = timers.get(method);
+            if (timer == null) {
+                String name = repositoryName + "." + method.getName();
+                timer = timers.computeIfAbsent(method, key -> registry.timer(TimerGroup.REPOSITORY, name));
+            }
+            return timer;
+        }
+    }
+}
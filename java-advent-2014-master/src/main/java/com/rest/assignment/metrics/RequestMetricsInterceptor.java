@@ -0,0 +1,64 @@
+package com.rest.assignment.metrics;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This interceptor records the latency of every request that is handled by a controller
+ * method. A request is counted as an error if it throws an exception that is not handled,
+ * or if its response has a 5xx status.
+ * @author Rohan Das
+ */
+final class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private static final int MIN_SERVER_ERROR_STATUS = 500;
+
+    private final MetricsRegistry registry;
+
+    private final ConcurrentMap<Method, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+    RequestMetricsInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //An asynchronous request is dispatched again when its result is ready, and it is timed from its first dispatch.
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || start == null) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - (Long) start;
+        boolean error = ex != null || response.getStatus() >= MIN_SERVER_ERROR_STATUS;
+
+        timer((HandlerMethod) handler).record(elapsed, error);
+    }
+
+    private LatencyTimer timer(HandlerMethod handler) {
+        Method method = handler.getMethod();
+        LatencyTimer timer = timers.get(method);
+        if (timer == null) {
+            String name = handler.getBeanType().getSimpleName() + "." + method.getName();
+            timer = timers.computeIfAbsent(method, key -> registry.timer(TimerGroup.REQUESTS, name));
+        }
+        return timer;
+    }
+}
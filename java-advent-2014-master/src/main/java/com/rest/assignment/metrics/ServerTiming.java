@@ -0,0 +1,159 @@
+package com.rest.assignment.metrics;
+
+/**
+ * This class collects the time that one request spends in each layer of the application.
+ * The timing of the current request is bound to the thread that handles it, so code
+ * that runs on other threads is not included.
+ * <p>
+ * The spans nest: the handler contains the service and the serialization of the
+ * response, and the service contains the repository calls and the conversion to DTOs.
+ * The controller span is the time of the handler that is not spent in the other spans.
+ * An asynchronous handler also contains the time its task waited in the queue of a thread pool.
+ * </p>
+ * @author Rohan Das
+ */
+public final class ServerTiming {
+
+    /**
+     * The layers that are timed.
+     */
+    public enum Span {
+
+        HANDLER("handler"),
+        QUEUE("queue"),
+        SERVICE("service"),
+        DB("db"),
+        CONVERT("convert"),
+        SERIALIZE("serialize");
+
+        private final String metricName;
+
+        Span(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start;
+
+    private final long[] nanos = new long[Span.values().length];
+
+    private final int[] counts = new int[Span.values().length];
+
+    private long handlerStart;
+
+    private boolean handlerRunning;
+
+    ServerTiming(long start) {
+        this.start = start;
+    }
+
+    /**
+     * @return  The timing of the request that is handled by the current thread, or null if
+     *          the current thread is not handling a timed request.
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return  A task that runs the given task with the timing of the current request bound to
+     *          its thread, so that work that is handed off to another thread is timed too. If the
+     *          current thread is not handling a timed request, the given task is returned.
+     */
+    public static Runnable propagate(Runnable task) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+
+        return () -> {
+            CURRENT.set(timing);
+            try {
+                task.run();
+            }
+            finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds the time of one call to a span.
+     * @param span  The timed span.
+     * @param nanos The time of the call in nanoseconds.
+     */
+    public void add(Span span, long nanos) {
+        this.nanos[span.ordinal()] += nanos;
+        this.counts[span.ordinal()]++;
+    }
+
+    /**
+     * Starts the handler span. An asynchronous request is dispatched again when its result is
+     * ready, and its handler span keeps running from the first dispatch.
+     */
+    void startHandler(long now) {
+        if (!handlerRunning) {
+            handlerStart = now;
+            handlerRunning = true;
+        }
+    }
+
+    void endHandler(long now) {
+        if (handlerRunning) {
+            handlerRunning = false;
+            add(Span.HANDLER, now - handlerStart);
+        }
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getNanos(Span span) {
+        return nanos[span.ordinal()];
+    }
+
+    /**
+     * @param now   The current time in nanoseconds.
+     * @return      The value of the Server-Timing header, which contains the total time of
+     *              the request until now and the time of every span that was timed.
+     */
+    String toHeaderValue(long now) {
+        StringBuilder header = new StringBuilder(160);
+        appendMetric(header, "total", now - start);
+
+        if (counts[Span.HANDLER.ordinal()] > 0) {
+            long controller = getNanos(Span.HANDLER) - getNanos(Span.QUEUE) - getNanos(Span.SERVICE)
+                    - getNanos(Span.SERIALIZE);
+            appendMetric(header, "controller", Math.max(0, controller));
+        }
+
+        for (Span span: Span.values()) {
+            if (counts[span.ordinal()] > 0) {
+                appendMetric(header, span.metricName, nanos[span.ordinal()]);
+            }
+        }
+
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+
+        header.append(name);
+        //The duration is written in milliseconds with a precision of one microsecond.
+        header.append(";dur=").append(Math.round(nanos / 1000.0) / 1000.0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rest.assignment.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This filter times every request and returns the time that was spent in each layer of the
+ * application in the Server-Timing response header. Requests that take longer than the
+ * slow request threshold are logged together with the same breakdown.
+ * <p>
+ * The filter also runs when an asynchronous request is dispatched again, and keeps timing it
+ * with the timing and the response wrapper of its first dispatch, so the header is added when
+ * the result of the request is written.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    static final String HEADER = "Server-Timing";
+
+    static final long DEFAULT_SLOW_REQUEST_THRESHOLD_MILLIS = 1000;
+
+    private static final String TIMING_ATTRIBUTE = ServerTimingFilter.class.getName() + ".timing";
+
+    private static final String WRAPPER_ATTRIBUTE = ServerTimingFilter.class.getName() + ".wrapper";
+
+    private final boolean headerEnabled;
+
+    private final long slowRequestThresholdNanos;
+
+    /**
+     * @param headerEnabled                 true if the Server-Timing header is added to the responses.
+     * @param slowRequestThresholdMillis    The time after which a request is logged as slow.
+     *                                      A negative value disables the logging.
+     */
+    @Autowired
+    ServerTimingFilter(@Value("${server-timing.header-enabled:true}") boolean headerEnabled,
+                       @Value("${server-timing.slow-request-threshold-millis:"
+                               + DEFAULT_SLOW_REQUEST_THRESHOLD_MILLIS + "}") long slowRequestThresholdMillis) {
+        this.headerEnabled = headerEnabled;
+        this.slowRequestThresholdNanos = slowRequestThresholdMillis < 0 ? -1
+                : TimeUnit.MILLISECONDS.toNanos(slowRequestThresholdMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!headerEnabled && slowRequestThresholdNanos < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = (ServerTiming) request.getAttribute(TIMING_ATTRIBUTE);
+        ServerTimingResponseWrapper wrapper = (ServerTimingResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (timing == null) {
+            ServerTiming started = new ServerTiming(System.nanoTime());
+            timing = started;
+            request.setAttribute(TIMING_ATTRIBUTE, started);
+            if (headerEnabled) {
+                wrapper = new ServerTimingResponseWrapper(response, response.getBufferSize(),
+                        () -> response.setHeader(HEADER, started.toHeaderValue(System.nanoTime())));
+                request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+            }
+        }
+
+        ServerTiming.bind(timing);
+        try {
+            chain.doFilter(request, wrapper != null ? wrapper : response);
+            //The response of an asynchronous request is written when it is dispatched again.
+            if (wrapper != null && !request.isAsyncStarted()) {
+                wrapper.finish();
+            }
+        }
+        finally {
+            ServerTiming.unbind();
+        }
+
+        if (!request.isAsyncStarted()) {
+            logIfSlow(request, timing, System.nanoTime());
+        }
+    }
+
+    private void logIfSlow(HttpServletRequest request, ServerTiming timing, long now) {
+        long elapsed = now - timing.getStart();
+        if (slowRequestThresholdNanos >= 0 && elapsed > slowRequestThresholdNanos) {
+            LOGGER.warn("Slow request {} {} took {} ms: {}", request.getMethod(), request.getRequestURI(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), timing.toHeaderValue(now));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.rest.assignment.metrics;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This interceptor times the controller method of a request for the Server-Timing header.
+ * The body of the response is written before {@link #postHandle} is called, so the handler
+ * span includes the serialization of the response. When the handler starts asynchronous
+ * processing, neither method is called until the request is dispatched again with the result,
+ * so the span includes the asynchronous processing.
+ * @author Rohan Das
+ */
+final class ServerTimingInterceptor extends HandlerInterceptorAdapter {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null && handler instanceof HandlerMethod) {
+            timing.startHandler(System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        endHandler();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        endHandler();
+    }
+
+    private static void endHandler() {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.endHandler(System.nanoTime());
+        }
+    }
+}
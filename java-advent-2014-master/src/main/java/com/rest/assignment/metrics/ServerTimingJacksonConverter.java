@@ -0,0 +1,40 @@
+package com.rest.assignment.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * This converter replaces the JSON converter of Spring Boot, and times the serialization
+ * of the response bodies for the Server-Timing header.
+ * @author Rohan Das
+ */
+@Component
+final class ServerTimingJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    @Autowired
+    ServerTimingJacksonConverter(ObjectMapper objectMapper) {
+        setObjectMapper(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, outputMessage);
+        }
+        finally {
+            timing.add(ServerTiming.Span.SERIALIZE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.rest.assignment.metrics;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * This response wrapper holds back the start of the response body, so that the
+ * Server-Timing header can still be added after the body has been serialized. The
+ * header is added when {@link #flushBuffer()} is called, when the held back bytes no
+ * longer fit into the buffer, or when the request completes, whichever happens first.
+ * After that, the body is written to the response directly.
+ * <p>
+ * Flushing the output stream does not release the held back bytes, because the JSON
+ * converter flushes the stream before the serialization has been timed. Responses that
+ * are streamed must call {@link #flushBuffer()} to send the written bytes.
+ * </p>
+ * @author Rohan Das
+ */
+final class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final HttpServletResponse response;
+
+    private final Runnable beforeCommit;
+
+    private final int bufferSize;
+
+    private boolean headerWritten;
+
+    private HoldBackOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    /**
+     * @param response      The wrapped response.
+     * @param bufferSize    The maximum number of bytes that are held back.
+     * @param beforeCommit  Adds the Server-Timing header to the response. It is run once,
+     *                      before the first byte of the body is written to the response.
+     */
+    ServerTimingResponseWrapper(HttpServletResponse response, int bufferSize, Runnable beforeCommit) {
+        super(response);
+        this.response = response;
+        this.bufferSize = bufferSize;
+        this.beforeCommit = beforeCommit;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    private HoldBackOutputStream stream() {
+        if (outputStream == null) {
+            outputStream = new HoldBackOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.release();
+        }
+        writeHeader();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        discardHeldBack();
+        writeHeader();
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        discardHeldBack();
+        writeHeader();
+        super.sendError(status, message);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discardHeldBack();
+        writeHeader();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void reset() {
+        discardHeldBack();
+        super.reset();
+    }
+
+    @Override
+    public void resetBuffer() {
+        discardHeldBack();
+        super.resetBuffer();
+    }
+
+    /**
+     * Adds the Server-Timing header if it has not been added yet, and writes the held back bytes.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        writeHeader();
+        if (outputStream != null) {
+            outputStream.release();
+        }
+    }
+
+    private void writeHeader() {
+        if (!headerWritten) {
+            headerWritten = true;
+            if (!response.isCommitted()) {
+                beforeCommit.run();
+            }
+        }
+    }
+
+    private void discardHeldBack() {
+        if (outputStream != null) {
+            outputStream.count = 0;
+        }
+    }
+
+    private final class HoldBackOutputStream extends ServletOutputStream {
+
+        private final byte[] buffer = new byte[bufferSize];
+
+        private int count;
+
+        private boolean released;
+
+        private ServletOutputStream target;
+
+        @Override
+        public void write(int value) throws IOException {
+            if (!released && count < buffer.length) {
+                buffer[count++] = (byte) value;
+                return;
+            }
+            release();
+            target.write(value);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!released && count + length <= buffer.length) {
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+                return;
+            }
+            release();
+            target.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (released) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            release();
+            target.close();
+        }
+
+        private void release() throws IOException {
+            if (released) {
+                return;
+            }
+
+            writeHeader();
+            released = true;
+            target = response.getOutputStream();
+            if (count > 0) {
+                target.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.rest.assignment.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+/**
+ * This post processor times the calls of the {@link Service} beans for the Server-Timing
+ * header. The services are proxied through their interfaces, and services that do not
+ * implement an interface are not timed.
+ * @author Rohan Das
+ */
+@Component
+final class ServiceTimingPostProcessor implements BeanPostProcessor {
+
+    private static final MethodInterceptor SERVICE_TIMING = ServiceTimingPostProcessor::time;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> beanClass = bean.getClass();
+        if (AnnotationUtils.findAnnotation(beanClass, Service.class) == null
+                || ClassUtils.getAllInterfacesForClass(beanClass).length == 0) {
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(SERVICE_TIMING);
+        return proxyFactory.getProxy(beanClass.getClassLoader());
+    }
+
+    private static Object time(MethodInvocation invocation) throws Throwable {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        }
+        finally {
+            timing.add(ServerTiming.Span.SERVICE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.rest.assignment.metrics;
+
+/**
+ * The groups of timers that are kept by the metrics registry. Each group is exported
+ * as one Prometheus summary, whose timers are told apart by a label.
+ * @author Rohan Das
+ */
+enum TimerGroup {
+
+    REQUESTS("requests", "http_server_requests_seconds", "handler",
+            "The latency of the HTTP requests by controller method."),
+    REPOSITORY("repository", "repository_operations_seconds", "operation",
+            "The latency of the repository operations by repository method.");
+
+    private final String jsonName;
+
+    private final String metricName;
+
+    private final String labelName;
+
+    private final String help;
+
+    TimerGroup(String jsonName, String metricName, String labelName, String help) {
+        this.jsonName = jsonName;
+        this.metricName = metricName;
+        this.labelName = labelName;
+        this.help = help;
+    }
+
+    String getJsonName() {
+        return jsonName;
+    }
+
+    String getMetricName() {
+        return metricName;
+    }
+
+    String getLabelName() {
+        return labelName;
+    }
+
+    String getHelp() {
+        return help;
+    }
+}
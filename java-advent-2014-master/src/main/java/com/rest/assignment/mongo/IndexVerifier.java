@@ -0,0 +1,245 @@
+package com.rest.assignment.mongo;
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class creates or verifies the required indexes when the application
+ * starts, so that a fresh environment never silently runs collection scans.
+ * @author Rohan Das
+ */
+public final class IndexVerifier implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexVerifier.class);
+
+    private static final String NAME = "name";
+
+    private static final String KEY = "key";
+
+    private static final String WEIGHTS = "weights";
+
+    private static final String TEXT = "text";
+
+    private static final String TEXT_KEY = "_fts";
+
+    private static final String EXPIRE_AFTER_SECONDS = "expireAfterSeconds";
+
+    private static final String SPARSE = "sparse";
+
+    private static final String PARTIAL_FILTER_EXPRESSION = "partialFilterExpression";
+
+    /**
+     * Specifies what is done with a required index that does not exist.
+     */
+    public enum Mode {
+        /**
+         * Missing indexes are created.
+         */
+        CREATE,
+        /**
+         * Missing indexes are only reported.
+         */
+        VERIFY
+    }
+
+    private final MongoOperations mongoOperations;
+
+    private final List<RequiredIndexes> requiredIndexes;
+
+    private final Mode mode;
+
+    private final boolean failFast;
+
+    /**
+     * @param mongoOperations   The operations that are used to read and create indexes.
+     * @param requiredIndexes   The components that declare the required indexes.
+     * @param mode              Specifies whether missing indexes are created.
+     * @param failFast          If true, the application fails to start when an index is missing or
+     *                          does not match. Otherwise a warning is logged.
+     */
+    public IndexVerifier(MongoOperations mongoOperations, List<RequiredIndexes> requiredIndexes, Mode mode,
+                         boolean failFast) {
+        this.mongoOperations = mongoOperations;
+        this.requiredIndexes = requiredIndexes;
+        this.mode = mode;
+        this.failFast = failFast;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<RequiredIndex> missing = verify();
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        if (failFast) {
+            throw new IllegalStateException(String.format("Required indexes are missing or do not match: %s", missing));
+        }
+        LOGGER.warn("Required indexes are missing or do not match, queries that need them will scan whole "
+                + "collections: {}", missing);
+    }
+
+    /**
+     * Creates (if enabled) and checks all required indexes.
+     * @return  The required indexes that do not exist, or whose existing index does not match them.
+     */
+    List<RequiredIndex> verify() {
+        List<RequiredIndex> missing = new ArrayList<>();
+
+        for (RequiredIndexes declaration : requiredIndexes) {
+            for (RequiredIndex index : declaration.getRequiredIndexes()) {
+                if (!ensure(index)) {
+                    missing.add(index);
+                }
+            }
+        }
+
+        return missing;
+    }
+
+    private boolean ensure(RequiredIndex index) {
+        DBCollection collection = mongoOperations.getCollection(mongoOperations.getCollectionName(index.getEntityType()));
+
+        DBObject existing = find(collection, index);
+        if (existing != null) {
+            return matches(index, existing);
+        }
+
+        if (mode == Mode.VERIFY) {
+            return false;
+        }
+
+        LOGGER.info("Creating required index: {}", index);
+        try {
+            collection.createIndex(index.getKeys(), index.getOptions());
+        }
+        catch (RuntimeException ex) {
+            LOGGER.error("Creating required index: {} failed", index, ex);
+            return false;
+        }
+
+        existing = find(collection, index);
+        return existing != null && matches(index, existing);
+    }
+
+    /**
+     * The existing index is the index with the same name or the same keys. An index that
+     * differs from the required index is not replaced, because MongoDB does not create an
+     * index whose name or keys are taken by an index with other options.
+     */
+    private static DBObject find(DBCollection collection, RequiredIndex index) {
+        for (DBObject existing : collection.getIndexInfo()) {
+            if (index.getName().equals(existing.get(NAME)) || sameKeys(index, existing)) {
+                return existing;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(RequiredIndex index, DBObject existing) {
+        String difference = difference(index, existing);
+        if (difference == null) {
+            LOGGER.info("Found required index: {}", index);
+            return true;
+        }
+
+        LOGGER.error("Required index: {} does not match the existing index: {}, because {}. Drop the existing index "
+                + "so that the required index can be created.", index, existing, difference);
+        return false;
+    }
+
+    /**
+     * A TTL index must remove the documents after the required time, and an index that is
+     * not a TTL index must not remove documents at all. A sparse or partial index does not
+     * contain every document, so it cannot be used by every query that needs the index.
+     * @return  The difference, or null if the existing index matches the required index.
+     */
+    private static String difference(RequiredIndex index, DBObject existing) {
+        if (!sameKeys(index, existing)) {
+            return "the keys are different";
+        }
+
+        Object expireAfterSeconds = existing.get(EXPIRE_AFTER_SECONDS);
+        if (!sameExpiration(index.getExpireAfterSeconds(), expireAfterSeconds)) {
+            return "the documents expire after " + expireAfterSeconds + " seconds";
+        }
+
+        if (isTrue(existing.get(SPARSE)) || existing.get(PARTIAL_FILTER_EXPRESSION) != null) {
+            return "the existing index does not contain every document";
+        }
+
+        return null;
+    }
+
+    /**
+     * The expiration is compared as a number, because indexes created from the shell store it as a double.
+     */
+    private static boolean sameExpiration(Long required, Object existing) {
+        if (required == null) {
+            return existing == null;
+        }
+        return existing instanceof Number && ((Number) existing).longValue() == required;
+    }
+
+    private static boolean isTrue(Object option) {
+        return Boolean.TRUE.equals(option) || option instanceof Number && ((Number) option).intValue() != 0;
+    }
+
+    /**
+     * Text indexes are stored with internal keys by MongoDB, so their fields are compared with
+     * the fields of the weights. Fongo reports the fields as keys instead. The order of the
+     * fields of a text index does not matter.
+     */
+    private static boolean sameKeys(RequiredIndex index, DBObject existing) {
+        DBObject keys = (DBObject) existing.get(KEY);
+        if (!index.isText() || keys == null) {
+            return sameKeys(index.getKeys(), keys);
+        }
+
+        if (!TEXT.equals(keys.get(TEXT_KEY))) {
+            return keys.toMap().equals(index.getKeys().toMap());
+        }
+        DBObject weights = (DBObject) existing.get(WEIGHTS);
+        return weights != null && weights.keySet().equals(index.getKeys().keySet());
+    }
+
+    /**
+     * Keys are compared in order. Directions are compared as numbers, because
+     * indexes created from the shell store them as doubles.
+     */
+    private static boolean sameKeys(DBObject required, DBObject existing) {
+        if (existing == null) {
+            return false;
+        }
+
+        List<String> requiredFields = new ArrayList<>(required.keySet());
+        List<String> existingFields = new ArrayList<>(existing.keySet());
+        if (!requiredFields.equals(existingFields)) {
+            return false;
+        }
+
+        for (String field : requiredFields) {
+            Object requiredDirection = required.get(field);
+            Object existingDirection = existing.get(field);
+
+            if (requiredDirection instanceof Number && existingDirection instanceof Number) {
+                if (((Number) requiredDirection).doubleValue() != ((Number) existingDirection).doubleValue()) {
+                    return false;
+                }
+            }
+            else if (!requiredDirection.equals(existingDirection)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package com.rest.assignment.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * This class describes an index that the application needs in order to avoid
+ * collection scans.
+ * @author Rohan Das
+ */
+public final class RequiredIndex {
+
+    private static final String TEXT = "text";
+
+    private final Class<?> entityType;
+
+    private final String name;
+
+    private final DBObject keys;
+
+    private final Long expireAfterSeconds;
+
+    private RequiredIndex(Class<?> entityType, String name, DBObject keys) {
+        this(entityType, name, keys, null);
+    }
+
+    private RequiredIndex(Class<?> entityType, String name, DBObject keys, Long expireAfterSeconds) {
+        this.entityType = entityType;
+        this.name = name;
+        this.keys = keys;
+        this.expireAfterSeconds = expireAfterSeconds;
+    }
+
+    /**
+     * Describes an index over the given fields. Every field is indexed in ascending order.
+     * @param entityType    The document class whose collection is indexed.
+     * @param name          The name of the index.
+     * @param fields        The indexed fields.
+     * @return              The described index.
+     */
+    public static RequiredIndex ascending(Class<?> entityType, String name, String... fields) {
+        return new RequiredIndex(entityType, name, keys(1, fields));
+    }
+
+    /**
+     * Describes a text index over the given fields.
+     * @param entityType    The document class whose collection is indexed.
+     * @param name          The name of the index.
+     * @param fields        The indexed fields.
+     * @return              The described index.
+     */
+    public static RequiredIndex text(Class<?> entityType, String name, String... fields) {
+        return new RequiredIndex(entityType, name, keys(TEXT, fields));
+    }
+
+    /**
+     * Describes a TTL index, which makes MongoDB remove the documents whose date is
+     * older than the given time.
+     * @param entityType            The document class whose collection is indexed.
+     * @param name                  The name of the index.
+     * @param field                 The indexed date field.
+     * @param expireAfterSeconds    The age after which a document is removed.
+     * @return                      The described index.
+     */
+    public static RequiredIndex ttl(Class<?> entityType, String name, String field, long expireAfterSeconds) {
+        return new RequiredIndex(entityType, name, keys(1, field), expireAfterSeconds);
+    }
+
+    private static DBObject keys(Object direction, String... fields) {
+        BasicDBObject keys = new BasicDBObject();
+        for (String field : fields) {
+            keys.append(field, direction);
+        }
+        return keys;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DBObject getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return  The age after which a document is removed, or null if the index is not a TTL index.
+     */
+    public Long getExpireAfterSeconds() {
+        return expireAfterSeconds;
+    }
+
+    /**
+     * @return  True if the fields are indexed for text search.
+     */
+    public boolean isText() {
+        return keys.toMap().containsValue(TEXT);
+    }
+
+    /**
+     * @return  The options with which the index is created.
+     */
+    public DBObject getOptions() {
+        BasicDBObject options = new BasicDBObject("name", name);
+        if (expireAfterSeconds != null) {
+            options.append("expireAfterSeconds", expireAfterSeconds);
+        }
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequiredIndex[entityType=%s, name=%s, keys=%s, expireAfterSeconds=%s]",
+                this.entityType.getSimpleName(), this.name, this.keys, this.expireAfterSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.rest.assignment.mongo;
+
+import java.util.List;
+
+/**
+ * This interface is implemented by the components that declare the indexes
+ * which their queries depend on.
+ * @author Rohan Das
+ */
+public interface RequiredIndexes {
+
+    /**
+     * @return  The indexes that must exist before the application serves requests.
+     */
+    List<RequiredIndex> getRequiredIndexes();
+}
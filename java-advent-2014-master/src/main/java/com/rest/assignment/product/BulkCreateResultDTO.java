@@ -0,0 +1,43 @@
+package com.rest.assignment.product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This data transfer object contains the results of a bulk create request
+ * in the order of the products in the request.
+ * @author Rohan Das
+ */
+public final class BulkCreateResultDTO {
+
+    private final List<BulkItemResultDTO> items;
+
+    private final int created;
+
+    private final int failed;
+
+    BulkCreateResultDTO(List<BulkItemResultDTO> items) {
+        this.items = Collections.unmodifiableList(items);
+
+        int createdCount = 0;
+        for (BulkItemResultDTO item : items) {
+            if (item.getError() == null) {
+                createdCount++;
+            }
+        }
+        this.created = createdCount;
+        this.failed = items.size() - createdCount;
+    }
+
+    public List<BulkItemResultDTO> getItems() {
+        return items;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+}
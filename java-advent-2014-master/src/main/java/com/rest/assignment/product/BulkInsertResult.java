@@ -0,0 +1,29 @@
+package com.rest.assignment.product;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class contains the outcome of an unordered bulk insert. Both maps are
+ * keyed by the position of the product in the inserted list.
+ * @author Rohan Das
+ */
+final class BulkInsertResult {
+
+    private final Map<Integer, Product> inserted;
+
+    private final Map<Integer, String> failed;
+
+    BulkInsertResult(Map<Integer, Product> inserted, Map<Integer, String> failed) {
+        this.inserted = Collections.unmodifiableMap(inserted);
+        this.failed = Collections.unmodifiableMap(failed);
+    }
+
+    Map<Integer, Product> getInserted() {
+        return inserted;
+    }
+
+    Map<Integer, String> getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rest.assignment.product;
+
+/**
+ * This data transfer object contains the result of creating a single product
+ * of a bulk create request.
+ * @author Rohan Das
+ */
+public final class BulkItemResultDTO {
+
+    private final int index;
+
+    private final ProductDTO product;
+
+    private final String error;
+
+    private BulkItemResultDTO(int index, ProductDTO product, String error) {
+        this.index = index;
+        this.product = product;
+        this.error = error;
+    }
+
+    static BulkItemResultDTO created(int index, ProductDTO product) {
+        return new BulkItemResultDTO(index, product, null);
+    }
+
+    static BulkItemResultDTO failed(int index, String error) {
+        return new BulkItemResultDTO(index, null, error);
+    }
+
+    /**
+     * @return  The position of the product in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return  The information of the created product, or null if the product was not created.
+     */
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    /**
+     * @return  The reason why the product was not created, or null if it was created.
+     */
+    public String getError() {
+        return error;
+    }
+}
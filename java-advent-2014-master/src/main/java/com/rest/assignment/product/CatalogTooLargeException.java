@@ -0,0 +1,16 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client requests all products, but the catalog
+ * has more products than can be returned in a single response.
+ * @author Rohan Das
+ */
+public class CatalogTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CatalogTooLargeException(int max) {
+        super(String.format("The catalog has more than %d products, read it in pages with the limit parameter "
+                + "or with the export", max));
+    }
+}
@@ -0,0 +1,15 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client asks for the changes since a time whose
+ * deletions are no longer recorded, so the client must download the whole catalog again.
+ * @author Rohan Das
+ */
+public class ChangesTokenExpiredException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChangesTokenExpiredException(String token, long retentionHours) {
+        super(String.format("The changes token <%s> is older than the retention of %d hours", token, retentionHours));
+    }
+}
@@ -0,0 +1,14 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client sends a malformed continuation token.
+ * @author Rohan Das
+ */
+public class InvalidPageTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidPageTokenException(String token) {
+        super(String.format("Invalid page token: <%s>", token));
+    }
+}
@@ -0,0 +1,167 @@
+package com.rest.assignment.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * This class encodes and decodes the opaque continuation tokens that are
+ * returned to the clients of paginated product listings.
+ * @author Rohan Das
+ */
+final class PageToken {
+
+    private static final char KEY_SEPARATOR = ':';
+
+    private PageToken() {}
+
+    static String encode(String lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String encode(long lastPrice, String lastId) {
+        return encode(Long.toString(lastPrice) + KEY_SEPARATOR + lastId);
+    }
+
+    /**
+     * Encodes a token that follows every change made at or before the given time.
+     */
+    static String encodeChanges(long lastModified) {
+        return encode(Long.toString(lastModified));
+    }
+
+    static String encodeChanges(long lastModified, String lastId) {
+        return encode(Long.toString(lastModified) + KEY_SEPARATOR + lastId);
+    }
+
+    /**
+     * Decodes a token of the changes of the catalog.
+     * @param token The token returned by a previous request, or null.
+     * @return      The time and id of the last change that was returned, or null if the
+     *              token is null or empty. The id is null if all changes made at or before
+     *              the time were returned.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the token is malformed.
+     */
+    static ChangeKey decodeChangeKey(String token) {
+        String key = decode(token);
+        if (key == null) {
+            return null;
+        }
+
+        int separator = key.indexOf(KEY_SEPARATOR);
+        if (separator == 0 || separator == key.length() - 1) {
+            throw new InvalidPageTokenException(token);
+        }
+
+        try {
+            if (separator < 0) {
+                return new ChangeKey(Long.parseLong(key), null);
+            }
+            return new ChangeKey(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1));
+        }
+        catch (NumberFormatException ex) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+
+    /**
+     * Decodes a continuation token of a listing that is ordered by price.
+     * @param token The token returned by a previous page, or null.
+     * @return      The price and id of the last product of the previous page, or null
+     *              if the token is null or empty.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the token is malformed.
+     */
+    static PriceKey decodePriceKey(String token) {
+        String key = decode(token);
+        if (key == null) {
+            return null;
+        }
+
+        int separator = key.indexOf(KEY_SEPARATOR);
+        if (separator <= 0 || separator == key.length() - 1) {
+            throw new InvalidPageTokenException(token);
+        }
+
+        try {
+            return new PriceKey(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1));
+        }
+        catch (NumberFormatException ex) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+
+    /**
+     * Decodes a continuation token.
+     * @param token The token returned by a previous page, or null.
+     * @return      The id of the last product of the previous page, or null
+     *              if the token is null or empty.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the token is malformed.
+     */
+    static String decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String lastId = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (lastId.isEmpty()) {
+                throw new InvalidPageTokenException(token);
+            }
+            return lastId;
+        }
+        catch (IllegalArgumentException ex) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+
+    /**
+     * The position of the last product of a page that is ordered by price and id.
+     */
+    static final class PriceKey {
+
+        private final long price;
+
+        private final String id;
+
+        PriceKey(long price, String id) {
+            this.price = price;
+            this.id = id;
+        }
+
+        long getPrice() {
+            return price;
+        }
+
+        String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * The position of the last change that was returned to a client.
+     */
+    static final class ChangeKey {
+
+        private final long lastModified;
+
+        private final String id;
+
+        ChangeKey(long lastModified, String id) {
+            this.lastModified = lastModified;
+            this.id = id;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return  The id of the last returned change, or null if every change made at
+         *          the time of this key was returned.
+         */
+        String getId() {
+            return id;
+        }
+    }
+}
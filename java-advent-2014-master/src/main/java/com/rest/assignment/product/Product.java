@@ -5,6 +5,10 @@ import static com.rest.assignment.util.PreCondition.notEmpty;
 import static com.rest.assignment.util.PreCondition.notNull;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * @author Rohan Das
@@ -14,6 +18,11 @@ final class Product {
 	static final int MAX_LENGTH_DESCRIPTION = 500;
 	static final int MAX_LENGTH_TITLE = 100;
 
+	/**
+	 * The number of decimal places of a price that are stored in its minor units (e.g. cents).
+	 */
+	static final int PRICE_SCALE = 2;
+
 	@Id
 	private String id;
 
@@ -22,16 +31,33 @@ final class Product {
 	private String title;
 	
 	private String price;
+
+	private Long priceMinorUnits;
 	
 	private String type;
 
+	/**
+	 * The time in milliseconds at which the product was created or last changed. The
+	 * changes of the catalog are read in the order of this field.
+	 */
+	private Long lastModified;
+
+	/**
+	 * The version of the product, which is increased by every change. Products that were
+	 * stored before products had versions have no version, which is the same as version zero.
+	 */
+	@Version
+	private Long version;
+
 	public Product() {
 	}
 
 	private Product(Builder builder) {
+		this.id = builder.id;
 		this.description = builder.description;
 		this.title = builder.title;
 		this.price = builder.price;
+		this.priceMinorUnits = toMinorUnits(builder.price);
 		this.type = builder.type;
 	}
 
@@ -57,6 +83,16 @@ final class Product {
 
 	public void setPrice(String price) {
 		this.price = price;
+		this.priceMinorUnits = toMinorUnits(price);
+	}
+
+	/**
+	 * Returns the price in minor units. This is the field that is used to
+	 * filter and sort products by price.
+	 * @return	The price in minor units, or null if the price is not a number.
+	 */
+	public Long getPriceMinorUnits() {
+		return priceMinorUnits;
 	}
 
 	public String getType() {
@@ -67,24 +103,47 @@ final class Product {
 		this.type = type;
 	}
 
+	public Long getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Long lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public void update(String title, String description, String price, String type) {
 		checkTitleAndDescription(title, description, price);
 
 		this.title = title;
 		this.description = description;
 		this.price = price;
+		this.priceMinorUnits = toMinorUnits(price);
 		this.type = type;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("Product[id=%s, description=%s, title=%s, price=%s, type=%s]", 
-				this.id, this.description, this.title, this.price, this.type);
+		return "Product[id=" + this.id
+				+ ", description=" + this.description
+				+ ", title=" + this.title
+				+ ", price=" + this.price
+				+ ", type=" + this.type
+				+ ", version=" + this.version + "]";
 	}
 
 	
 	static class Builder {
 
+		private String id;
+
 		private String description;
 
 		private String title;
@@ -96,6 +155,14 @@ final class Product {
 		private Builder() {
 		}
 
+		/**
+		 * Sets the id of a product that already exists. New products get their id when they are saved.
+		 */
+		Builder id(String id) {
+			this.id = id;
+			return this;
+		}
+
 		Builder description(String description) {
 			this.description = description;
 			return this;
@@ -128,14 +195,67 @@ final class Product {
 	private void checkTitleAndDescription(String title, String description, String price) {
 		notNull(title, "Title cannot be null");
 		notNull(price, "Price cannot be null");
-		notEmpty(title, "Title cannot be empty");
-		isTrue(title.length() <= MAX_LENGTH_TITLE, "Title cannot be longer than %d characters", MAX_LENGTH_TITLE);
+		checkTitle(title);
 
 		if (description != null) {
-			isTrue(description.length() <= MAX_LENGTH_DESCRIPTION, "Description cannot be longer than %d characters",
-					MAX_LENGTH_DESCRIPTION);
+			checkDescription(description);
 		}
 	}
 
+	/**
+	 * Checks the fields of a partial update. Only the fields that are not null
+	 * are changed by the update, so only they are checked.
+	 */
+	static void checkPatch(String title, String description, String price) {
+		if (title != null) {
+			checkTitle(title);
+		}
+		if (description != null) {
+			checkDescription(description);
+		}
+		if (price != null) {
+			notEmpty(price, "Price cannot be empty");
+		}
+	}
+
+	/**
+	 * Converts a decimal price to minor units. Digits beyond the minor units
+	 * are rounded half up.
+	 * @param price	The price, e.g. "10.50".
+	 * @return		The price in minor units, e.g. 1050, or null if the price is
+	 * 				null, not a number or too large.
+	 */
+	static Long toMinorUnits(String price) {
+		if (price == null) {
+			return null;
+		}
+
+		try {
+			return toMinorUnits(new BigDecimal(price.trim()));
+		}
+		catch (NumberFormatException | ArithmeticException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * @throws ArithmeticException if the price does not fit in a long.
+	 */
+	static long toMinorUnits(BigDecimal price) {
+		return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP)
+				.unscaledValue()
+				.longValueExact();
+	}
+
+	private static void checkTitle(String title) {
+		notEmpty(title, "Title cannot be empty");
+		isTrue(title.length() <= MAX_LENGTH_TITLE, "Title cannot be longer than %d characters", MAX_LENGTH_TITLE);
+	}
+
+	private static void checkDescription(String description) {
+		isTrue(description.length() <= MAX_LENGTH_DESCRIPTION, "Description cannot be longer than %d characters",
+				MAX_LENGTH_DESCRIPTION);
+	}
+
 	
 }
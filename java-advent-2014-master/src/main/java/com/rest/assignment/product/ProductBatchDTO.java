@@ -0,0 +1,35 @@
+package com.rest.assignment.product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This data transfer object contains the products that were found by a batch
+ * lookup and the ids for which no product was found.
+ * @author Rohan Das
+ */
+public final class ProductBatchDTO {
+
+    private final List<ProductDTO> products;
+
+    private final List<String> missing;
+
+    ProductBatchDTO(List<ProductDTO> products, List<String> missing) {
+        this.products = Collections.unmodifiableList(products);
+        this.missing = Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * @return  The found products in the order in which their ids were requested.
+     */
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return  The requested ids for which no product was found, in the order in which they were requested.
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,31 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.bulkhead.BulkheadStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * This controller exposes the counters of the product bulkheads, so that their
+ * thread and queue sizes can be tuned.
+ * @author Rohan Das
+ */
+@RestController
+@RequestMapping("/api/bulkhead/product")
+final class ProductBulkheadController {
+
+    private final ProductBulkheads bulkheads;
+
+    @Autowired
+    ProductBulkheadController(ProductBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @RequestMapping(method = RequestMethod.GET)
+    Map<String, BulkheadStats> stats() {
+        return bulkheads.stats();
+    }
+}
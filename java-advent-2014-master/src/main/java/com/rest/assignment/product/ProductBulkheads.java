@@ -0,0 +1,121 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.bulkhead.Bulkhead;
+import com.rest.assignment.bulkhead.BulkheadStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This component contains the bulkheads that run the product requests. Reads, writes, and
+ * bulk operations have bulkheads of their own, so that many slow exports or imports cannot
+ * take the threads that serve the lookups of single products.
+ * <p>
+ * The bulkheads always run on platform threads, even if Tomcat runs the requests on virtual
+ * threads. The tasks use the MongoDB driver 2.12, which does the I/O of a connection in
+ * synchronized methods. On Java 21 a virtual thread that blocks inside them pins its carrier
+ * thread, so the database calls of virtual threads would be limited by the number of CPUs
+ * instead of by the connection pool.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductBulkheads implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductBulkheads.class);
+
+    static final int DEFAULT_READ_THREADS = 20;
+
+    static final int DEFAULT_READ_QUEUE_SIZE = 200;
+
+    static final long DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+
+    static final int DEFAULT_WRITE_THREADS = 10;
+
+    static final int DEFAULT_WRITE_QUEUE_SIZE = 100;
+
+    static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 10000;
+
+    static final int DEFAULT_BULK_THREADS = 2;
+
+    static final int DEFAULT_BULK_QUEUE_SIZE = 2;
+
+    static final long DEFAULT_BULK_TIMEOUT_MILLIS = 600000;
+
+    private final Bulkhead read;
+
+    private final Bulkhead write;
+
+    private final Bulkhead bulk;
+
+    @Autowired
+    ProductBulkheads(@Value("${virtual-threads.enabled:false}") boolean virtualThreads,
+                     @Value("${product.bulkhead.read.threads:" + DEFAULT_READ_THREADS + "}") int readThreads,
+                     @Value("${product.bulkhead.read.queue-size:" + DEFAULT_READ_QUEUE_SIZE + "}") int readQueueSize,
+                     @Value("${product.bulkhead.read.timeout-millis:" + DEFAULT_READ_TIMEOUT_MILLIS + "}")
+                     long readTimeoutMillis,
+                     @Value("${product.bulkhead.write.threads:" + DEFAULT_WRITE_THREADS + "}") int writeThreads,
+                     @Value("${product.bulkhead.write.queue-size:" + DEFAULT_WRITE_QUEUE_SIZE + "}") int writeQueueSize,
+                     @Value("${product.bulkhead.write.timeout-millis:" + DEFAULT_WRITE_TIMEOUT_MILLIS + "}")
+                     long writeTimeoutMillis,
+                     @Value("${product.bulkhead.bulk.threads:" + DEFAULT_BULK_THREADS + "}") int bulkThreads,
+                     @Value("${product.bulkhead.bulk.queue-size:" + DEFAULT_BULK_QUEUE_SIZE + "}") int bulkQueueSize,
+                     @Value("${product.bulkhead.bulk.timeout-millis:" + DEFAULT_BULK_TIMEOUT_MILLIS + "}")
+                     long bulkTimeoutMillis) {
+        if (virtualThreads) {
+            LOGGER.info("The product requests use the database on platform threads, because the MongoDB driver "
+                    + "would pin the carriers of virtual threads");
+        }
+        this.read = new Bulkhead("product-read", readThreads, readQueueSize, readTimeoutMillis);
+        this.write = new Bulkhead("product-write", writeThreads, writeQueueSize, writeTimeoutMillis);
+        this.bulk = new Bulkhead("product-bulk", bulkThreads, bulkQueueSize, bulkTimeoutMillis);
+    }
+
+    ProductBulkheads(Bulkhead read, Bulkhead write, Bulkhead bulk) {
+        this.read = read;
+        this.write = write;
+        this.bulk = bulk;
+    }
+
+    @Override
+    public void destroy() {
+        read.shutdown();
+        write.shutdown();
+        bulk.shutdown();
+    }
+
+    /**
+     * @return  The bulkhead of the queries that return single products and pages.
+     */
+    Bulkhead read() {
+        return read;
+    }
+
+    /**
+     * @return  The bulkhead of the requests that create, update, or delete single products.
+     */
+    Bulkhead write() {
+        return write;
+    }
+
+    /**
+     * @return  The bulkhead of the requests that read or write all products, or many products at once.
+     */
+    Bulkhead bulk() {
+        return bulk;
+    }
+
+    Map<String, BulkheadStats> stats() {
+        Map<String, BulkheadStats> stats = new LinkedHashMap<>();
+        stats.put(read.getName(), read.stats());
+        stats.put(write.getName(), write.stats());
+        stats.put(bulk.getName(), bulk.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,134 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.cache.CacheStats;
+import com.rest.assignment.cache.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This component caches products by id in front of the repository. The
+ * service keeps it up to date when products are created, updated, and deleted.
+ * <p>
+ * A product that was read from the repository may be changed or deleted before it is
+ * cached. Every put and invalidation therefore increases a generation of the id, and a
+ * read product is only cached if the generation of its id is the one that was current
+ * before it was read. The generations are kept per stripe of ids, so a write of another
+ * id of the same stripe only makes a read product uncached.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductCache {
+
+    private static final int STRIPE_COUNT = 1024;
+
+    private final LruCache<String, Product> cache;
+
+    private final long[] generations = new long[STRIPE_COUNT];
+
+    private final Object[] locks = new Object[STRIPE_COUNT];
+
+    @Autowired
+    ProductCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                 @Value("${product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new LruCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+        for (int index = 0; index < STRIPE_COUNT; index++) {
+            locks[index] = new Object();
+        }
+    }
+
+    /**
+     * @return  The cached product, or null if the product is not cached.
+     */
+    Product get(String id) {
+        return cache.get(id);
+    }
+
+    /**
+     * Caches a product that was written, so it replaces the cached product and any product
+     * that is being read.
+     */
+    void put(Product product) {
+        if (product.getId() != null) {
+            int stripe = stripeOf(product.getId());
+            synchronized (locks[stripe]) {
+                generations[stripe]++;
+                cache.put(product.getId(), product);
+            }
+        }
+    }
+
+    /**
+     * Caches a product that was updated, unless a newer version of it is cached. Two updates of a
+     * product can finish in the other order than they were written, and the product of the slower
+     * one must not replace the product of the newer one. A product that is being read is not cached
+     * in either case.
+     * @return  True if the product was cached.
+     */
+    boolean putIfNewer(Product product) {
+        int stripe = stripeOf(product.getId());
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            Product cached = cache.peek(product.getId());
+            if (cached != null && versionOf(cached) > versionOf(product)) {
+                return false;
+            }
+            cache.put(product.getId(), product);
+            return true;
+        }
+    }
+
+    /**
+     * Products that were stored before products had versions are at version zero.
+     */
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+
+    void invalidate(String id) {
+        int stripe = stripeOf(id);
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * @return  The generation of the id, which must be read before the product is read from the repository.
+     */
+    long generation(String id) {
+        int stripe = stripeOf(id);
+        synchronized (locks[stripe]) {
+            return generations[stripe];
+        }
+    }
+
+    /**
+     * Caches a product that was read from the repository, unless it was written or deleted after it was read.
+     * @param generation    The generation of the id before the product was read.
+     * @return              True if the product was cached.
+     */
+    boolean putIfUnchanged(Product product, long generation) {
+        int stripe = stripeOf(product.getId());
+        synchronized (locks[stripe]) {
+            if (generations[stripe] != generation) {
+                return false;
+            }
+            cache.put(product.getId(), product);
+            return true;
+        }
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static int stripeOf(String id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % STRIPE_COUNT;
+    }
+}
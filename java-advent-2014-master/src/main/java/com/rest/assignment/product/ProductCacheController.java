@@ -0,0 +1,58 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.cache.CacheStats;
+import com.rest.assignment.cache.SingleFlightStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * This controller exposes the counters of the product cache, so that its
+ * size and time to live can be tuned, and the counters of the coalesced product lookups,
+ * of the product id filter, and of the write-behind queue of product updates.
+ * @author Rohan Das
+ */
+@RestController
+@RequestMapping("/api/cache/product")
+final class ProductCacheController {
+
+    private final ProductCache cache;
+
+    private final ProductLookupCoalescer coalescer;
+
+    private final ProductIdFilter idFilter;
+
+    private final ProductWriteBehind writeBehind;
+
+    @Autowired
+    ProductCacheController(ProductCache cache, ProductLookupCoalescer coalescer, ProductIdFilter idFilter,
+                           ProductWriteBehind writeBehind) {
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.idFilter = idFilter;
+        this.writeBehind = writeBehind;
+    }
+
+    @RequestMapping(method = RequestMethod.GET)
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    @RequestMapping(value = "/coalescing", method = RequestMethod.GET)
+    Map<String, SingleFlightStats> coalescingStats() {
+        return coalescer.stats();
+    }
+
+    @RequestMapping(value = "/id-filter", method = RequestMethod.GET)
+    ProductIdFilterStats idFilterStats() {
+        return idFilter.stats();
+    }
+
+    @RequestMapping(value = "/write-behind", method = RequestMethod.GET)
+    ProductWriteBehindStats writeBehindStats() {
+        return writeBehind.stats();
+    }
+}
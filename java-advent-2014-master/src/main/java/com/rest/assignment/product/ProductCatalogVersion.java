@@ -0,0 +1,74 @@
+package com.rest.assignment.product;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This component keeps the version of the product catalog, which is increased by every
+ * write of products, and creates the entity tags of the responses that contain several
+ * products from it. A conditional request whose tag is still current is answered without
+ * reading the products. The tags of single products are their stored versions instead.
+ * <p>
+ * The versions are kept in memory and start from zero when the application is started, so
+ * every tag contains the start time of the application. They are only correct as long as all
+ * products are written by this instance: if several instances share the database, a write
+ * handled by another instance does not change the tags of this instance.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductCatalogVersion {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Records that products were created, updated, or deleted. This must be called after the products
+     * were written, so a tag that was read before the write is not returned with the new products.
+     */
+    void productsChanged() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return  The tag of all responses that contain several products. This must be read
+     *          before the products are read, so the tag is never newer than the products.
+     */
+    String getCatalogTag() {
+        return toTag(version.get());
+    }
+
+    private String toTag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * Checks whether the client already has the current version of the response. As If-None-Match
+     * uses the weak comparison, weak tags sent by the client match too.
+     * @param ifNoneMatch   The value of the If-None-Match header, or null if the header was not sent.
+     * @param tag           The current tag of the response.
+     * @return              True if the response has not been modified.
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith(WEAK_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_PREFIX.length());
+            }
+            if (trimmed.equals(tag) || trimmed.equals(ANY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
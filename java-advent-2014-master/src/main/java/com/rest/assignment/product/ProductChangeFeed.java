@@ -0,0 +1,166 @@
+package com.rest.assignment.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * This component records the time of every change of a product, and returns the changes of
+ * the catalog since a token, so that a client that keeps a copy of the catalog only reads the
+ * products that were created, changed, or deleted since its previous request.
+ * <p>
+ * The time of a change is taken before the change is written, so a change can become visible
+ * after a later change has already been returned. Changes are therefore returned only after the
+ * settle lag has passed. The deletions are recorded as tombstones that expire after the retention,
+ * and a token that is older than the retention is rejected, because its deletions may be lost.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductChangeFeed implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    static final long DEFAULT_SETTLE_LAG_MILLIS = 5000;
+
+    static final long DEFAULT_RETENTION_HOURS = 168;
+
+    private final ProductRepository repository;
+
+    private final long settleLagMillis;
+
+    private final long retentionHours;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    ProductChangeFeed(ProductRepository repository,
+                      @Value("${product.changes.settle-lag-millis:" + DEFAULT_SETTLE_LAG_MILLIS + "}")
+                      long settleLagMillis,
+                      @Value("${product.changes.retention-hours:" + DEFAULT_RETENTION_HOURS + "}") long retentionHours) {
+        this(repository, settleLagMillis, retentionHours, System::currentTimeMillis);
+    }
+
+    ProductChangeFeed(ProductRepository repository, long settleLagMillis, long retentionHours, LongSupplier clock) {
+        this.repository = repository;
+        this.settleLagMillis = Math.max(0, settleLagMillis);
+        this.retentionHours = Math.max(1, retentionHours);
+        this.clock = clock;
+    }
+
+    /**
+     * Products that were created before the time of the changes was recorded are returned
+     * by the first request of every client, but not as changes.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        int initialized = repository.setMissingLastModified(0);
+        if (initialized > 0) {
+            LOGGER.info("Initialized the time of the last change of {} products", initialized);
+        }
+    }
+
+    /**
+     * @return  The time of a change that is made now.
+     */
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Records the deletion of a product. It is recorded before the product is removed, so a
+     * product is never removed without a record of its deletion.
+     * @param id    The id of the deleted product.
+     * @return      false if the deletion of the product had already been recorded.
+     */
+    boolean recordDeletion(String id) {
+        return repository.insertTombstone(new ProductTombstone(id, now()));
+    }
+
+    /**
+     * Removes the recorded deletion of a product that was not deleted. It must only be called
+     * by the request that recorded it, because a repeated deletion finds no product either.
+     */
+    void cancelDeletion(String id) {
+        repository.removeTombstone(id);
+    }
+
+    /**
+     * Finds a page of the changes since the given token.
+     * @param token     The token returned by the previous request, or null if all products are requested.
+     * @param pageSize  The maximum number of created, changed, and deleted products on the page.
+     * @return          The changes and the token of the next request.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the token is malformed.
+     * @throws com.rest.assignment.product.ChangesTokenExpiredException if the token is older than the retention.
+     */
+    ProductChangesDTO findChanges(String token, int pageSize) {
+        PageToken.ChangeKey after = PageToken.decodeChangeKey(token);
+
+        long now = now();
+        if (after != null && after.getLastModified() < now - TimeUnit.HOURS.toMillis(retentionHours)) {
+            throw new ChangesTokenExpiredException(token, retentionHours);
+        }
+        long until = now - settleLagMillis;
+
+        //One extra change of both kinds tells whether another page exists without a second query.
+        List<Product> products = repository.findChanges(after, until, pageSize + 1);
+        List<ProductTombstone> tombstones = after == null ? Collections.emptyList()
+                : repository.findTombstones(after, until, pageSize + 1);
+
+        List<Product> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        int productIndex = 0;
+        int tombstoneIndex = 0;
+        long lastModified = 0;
+        String lastId = null;
+
+        while (changed.size() + deleted.size() < pageSize
+                && (productIndex < products.size() || tombstoneIndex < tombstones.size())) {
+            if (tombstoneIndex == tombstones.size() || (productIndex < products.size()
+                    && compare(products.get(productIndex), tombstones.get(tombstoneIndex)) < 0)) {
+                Product product = products.get(productIndex++);
+                changed.add(product);
+                lastModified = product.getLastModified();
+                lastId = product.getId();
+            }
+            else {
+                ProductTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deleted.add(tombstone.getId());
+                lastModified = tombstone.getLastModified();
+                lastId = tombstone.getId();
+            }
+        }
+
+        boolean hasMore = productIndex < products.size() || tombstoneIndex < tombstones.size();
+        String next;
+        if (hasMore) {
+            next = PageToken.encodeChanges(lastModified, lastId);
+        }
+        else if (after != null && after.getLastModified() > until) {
+            //The settle lag has not passed since the previous request.
+            next = token;
+        }
+        else {
+            next = PageToken.encodeChanges(until);
+        }
+
+        return new ProductChangesDTO(ProductServiceImpl.convertToDTOs(changed), deleted, next, hasMore);
+    }
+
+    /**
+     * Changes are ordered by time and id. Object ids are ordered like their hexadecimal strings.
+     */
+    private static int compare(Product product, ProductTombstone tombstone) {
+        int byTime = Long.compare(product.getLastModified(), tombstone.getLastModified());
+        return byTime != 0 ? byTime : product.getId().compareTo(tombstone.getId());
+    }
+}
@@ -0,0 +1,57 @@
+package com.rest.assignment.product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This data transfer object contains a page of the products that were created, changed,
+ * or deleted since the token of the request, and the token that is used to request the
+ * next page or the next changes.
+ * @author Rohan Das
+ */
+public final class ProductChangesDTO {
+
+    private final List<ProductDTO> products;
+
+    private final List<String> deleted;
+
+    private final String next;
+
+    private final boolean hasMore;
+
+    ProductChangesDTO(List<ProductDTO> products, List<String> deleted, String next, boolean hasMore) {
+        this.products = Collections.unmodifiableList(products);
+        this.deleted = Collections.unmodifiableList(deleted);
+        this.next = next;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return  The current information of the products that were created or changed.
+     */
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return  The ids of the products that were deleted.
+     */
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return  The token of the next request. It is never null, because it is also used to
+     *          poll the changes that are made later.
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * @return  true if more changes can be requested right away with the next token.
+     */
+    public boolean getHasMore() {
+        return hasMore;
+    }
+}
@@ -1,23 +1,42 @@
 package com.rest.assignment.product;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * This controller provides the public API that is used to manage the information
- * of products.
+ * of products. The requests are processed asynchronously by the product bulkheads,
+ * so the threads of the servlet container are not blocked by the database.
+ * <p>
+ * The responses of lists of products have entity tags, and a conditional request whose
+ * tag is still current is answered with 304 before its bulkhead is used. The tag of a single
+ * product is its version, and an update with an If-Match header is only applied if the
+ * product still has the version of the tag.
+ * </p>
  * @author Rohan Das
  */
 @RestController
@@ -26,72 +45,344 @@ final class ProductController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductController.class);
 
+    private static final String DEFAULT_EXPORT_BATCH_SIZE = "500";
+
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    private static final String ETAG = "ETag";
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final String IF_MATCH = "If-Match";
+
+    private static final String ANY_TAG = "*";
+
+    /**
+     * The version of an If-Match tag that is not the tag of a product version. No product has
+     * this version, so the update fails like an update of a product that has been modified.
+     */
+    private static final long UNKNOWN_VERSION = -1;
+
+    /**
+     * The queue of the write-behind is flushed several times per second, so clients can retry soon.
+     */
+    private static final String WRITE_BEHIND_RETRY_AFTER_SECONDS = "1";
+
+    private static final ProductDTOValidator PRODUCT_VALIDATOR = new ProductDTOValidator();
+
     private final ProductService service;
 
+    private final ProductBulkheads bulkheads;
+
+    private final ProductCatalogVersion catalogVersion;
+
+    private final ObjectWriter exportWriter;
+
     @Autowired
-    ProductController(ProductService service) {
+    ProductController(ProductService service, ProductBulkheads bulkheads, ProductCatalogVersion catalogVersion,
+                      ObjectMapper objectMapper) {
         this.service = service;
+        this.bulkheads = bulkheads;
+        this.catalogVersion = catalogVersion;
+        this.exportWriter = ProductExportWriter.productWriter(objectMapper);
+    }
+
+    /**
+     * Validates the created and updated products with a validator that checks the
+     * constraints of {@link ProductDTO} directly, instead of the reflective Bean Validation.
+     */
+    @InitBinder("productDTO")
+    void initProductBinder(WebDataBinder binder) {
+        binder.setValidator(PRODUCT_VALIDATOR);
     }
 
     @RequestMapping(method = RequestMethod.POST)
     @ResponseStatus(HttpStatus.CREATED)
-    ProductDTO create(@RequestBody @Valid ProductDTO product) {
+    DeferredResult<ProductDTO> create(@RequestBody @Valid ProductDTO product) {
         LOGGER.info("Creating a new product with information: {}", product);
 
-        ProductDTO created = service.create(product);
-        LOGGER.info("Created a new product with information: {}", created);
+        return bulkheads.write().submit(() -> {
+            ProductDTO created = service.create(product);
+            LOGGER.info("Created a new product with information: {}", created);
+
+            return created;
+        });
+    }
+
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST)
+    DeferredResult<BulkCreateResultDTO> createAll(@RequestBody List<ProductDTO> products) {
+        LOGGER.info("Creating {} new products", products.size());
+
+        return bulkheads.bulk().submit(() -> {
+            BulkCreateResultDTO created = service.createAll(products);
+            LOGGER.info("Created {} new products, {} products failed", created.getCreated(), created.getFailed());
 
-        return created;
+            return created;
+        });
     }
 
     @RequestMapping(value = "/deleteproduct/{id}", method = RequestMethod.DELETE)
-    ProductDTO delete(@PathVariable("id") String id) {
+    DeferredResult<ProductDTO> delete(@PathVariable("id") String id) {
         LOGGER.info("Deleting a product with id: {}", id);
 
-        ProductDTO deleted = service.delete(id);
-        LOGGER.info("Deleted product with information: {}", deleted);
+        return bulkheads.write().submit(() -> {
+            ProductDTO deleted = service.delete(id);
+            LOGGER.info("Deleted product with information: {}", deleted);
 
-        return deleted;
+            return deleted;
+        });
     }
 
+    /**
+     * @deprecated  The response holds the whole catalog, so it fails when the catalog has more than
+     *              {@link ProductServiceImpl#MAX_FIND_ALL_SIZE} products. Read the catalog in pages
+     *              with the limit parameter, or with the export.
+     */
+    @Deprecated
     @RequestMapping(method = RequestMethod.GET)
-    List<ProductDTO> findAll() {
+    DeferredResult<ResponseEntity<List<ProductDTO>>> findAll(
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response) {
         LOGGER.info("Finding all products");
 
-        List<ProductDTO> products = service.findAll();
-        LOGGER.info("Found {} products", products.size());
+        String tag = catalogVersion.getCatalogTag();
+        if (isNotModified(ifNoneMatch, tag, response)) {
+            return null;
+        }
 
-        return products;
+        return bulkheads.bulk().submit(() -> {
+            List<ProductDTO> products = service.findAll();
+            LOGGER.info("Found {} products", products.size());
+
+            return withTag(products, tag);
+        });
     }
 
+    /**
+     * The products are written to the response by the thread of the bulkhead. The response status
+     * marks the request as handled when it is dispatched again, so no view is resolved for it. If the
+     * request times out, the writer is cancelled before the response is completed by the container,
+     * without waiting for a write to a slow client.
+     */
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    @ResponseStatus(HttpStatus.OK)
+    DeferredResult<Void> export(
+            @RequestParam(value = "batchSize", defaultValue = DEFAULT_EXPORT_BATCH_SIZE) int batchSize,
+            HttpServletResponse response) {
+        LOGGER.info("Exporting all products in batches of {}", batchSize);
+
+        ProductExportWriter writer = new ProductExportWriter(exportWriter, response, batchSize);
+        return bulkheads.bulk().submit(() -> {
+            response.setContentType(ProductExportWriter.CONTENT_TYPE);
+
+            service.exportAll(batchSize, writer);
+            writer.finish();
+
+            LOGGER.info("Exported {} products", writer.getWritten());
+            return null;
+        }, writer::cancel);
+    }
+
+    @RequestMapping(method = RequestMethod.GET, params = "limit")
+    DeferredResult<ResponseEntity<ProductPageDTO>> findPage(
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "next", required = false) String next,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response) {
+        LOGGER.info("Finding a page of at most {} products after token: {}", limit, next);
+
+        String tag = catalogVersion.getCatalogTag();
+        if (isNotModified(ifNoneMatch, tag, response)) {
+            return null;
+        }
+
+        return bulkheads.read().submit(() -> {
+            ProductPageDTO page = service.findPage(next, limit);
+            LOGGER.info("Found {} products", page.getProducts().size());
+
+            return withTag(page, tag);
+        });
+    }
+
+    /**
+     * Returns the products that were created, changed, or deleted since the token of the previous
+     * request, so a client that keeps a copy of the catalog does not need to download all products.
+     * The first request without a token returns all products.
+     */
+    @RequestMapping(value = "/changes", method = RequestMethod.GET)
+    DeferredResult<ProductChangesDTO> findChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        LOGGER.info("Finding at most {} changes of products after token: {}", limit, since);
+
+        return bulkheads.read().submit(() -> {
+            ProductChangesDTO changes = service.findChanges(since, limit);
+            LOGGER.info("Found {} changed products and {} deleted products", changes.getProducts().size(),
+                    changes.getDeleted().size());
+
+            return changes;
+        });
+    }
+
+    @RequestMapping(method = RequestMethod.GET, params = "ids")
+    DeferredResult<ProductBatchDTO> findByIds(@RequestParam("ids") List<String> ids) {
+        LOGGER.info("Finding {} products by id", ids.size());
+
+        return bulkheads.read().submit(() -> {
+            ProductBatchDTO found = service.findByIds(ids);
+            LOGGER.info("Found {} products, {} ids are missing", found.getProducts().size(),
+                    found.getMissing().size());
+
+            return found;
+        });
+    }
+
+    /**
+     * The tag of a product is its version, so the product must be found before the tag is known.
+     * A product that has not been modified is not serialized, and cached products are not read
+     * from the database.
+     */
     @RequestMapping(value = "{id}", method = RequestMethod.GET)
-    ProductDTO findById(@PathVariable("id") String id) {
+    DeferredResult<ResponseEntity<ProductDTO>> findById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LOGGER.info("Finding product with id: {}", id);
 
-        ProductDTO product = service.findById(id);
-        LOGGER.info("Found product with information: {}", product);
+        return bulkheads.read().submit(() -> {
+            ProductDTO product = service.findById(id);
+            LOGGER.info("Found product with information: {}", product);
 
-        return product;
+            String tag = toTag(product.getVersion());
+            if (ProductCatalogVersion.matches(ifNoneMatch, tag)) {
+                LOGGER.info("The product with tag: {} has not been modified", tag);
+                return withTag(null, tag, HttpStatus.NOT_MODIFIED);
+            }
+            return withTag(product, tag);
+        });
     }
 
     @RequestMapping(value = "{id}", method = RequestMethod.PUT)
-    ProductDTO update(@RequestBody @Valid ProductDTO product) {
-        LOGGER.info("Updating product with information: {}", product);
+    DeferredResult<ResponseEntity<ProductDTO>> update(
+            @RequestBody @Valid ProductDTO product,
+            @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        LOGGER.info("Updating product with information: {} and If-Match: {}", product, ifMatch);
 
-        ProductDTO updated = service.update(product);
-        LOGGER.info("Updated product with information: {}", updated);
+        return bulkheads.write().submit(() -> {
+            ProductDTO updated = service.update(product, toVersion(ifMatch));
+            LOGGER.info("Updated product with information: {}", updated);
 
-        return updated;
+            return withTag(updated, toTag(updated.getVersion()));
+        });
     }
     
-    @RequestMapping(value = "{type}", method = RequestMethod.GET)
-    ProductDTO findByType(@PathVariable("type") String type) {
-        LOGGER.info("Finding product with type: {}", type);
+    @RequestMapping(value = "{id}", method = RequestMethod.PATCH)
+    DeferredResult<ResponseEntity<ProductDTO>> patch(
+            @PathVariable("id") String id,
+            @RequestBody @Valid ProductPatchDTO patch,
+            @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        LOGGER.info("Patching product with id: {} with information: {} and If-Match: {}", id, patch, ifMatch);
+
+        return bulkheads.write().submit(() -> {
+            ProductDTO patched = service.patch(id, patch, toVersion(ifMatch));
+            LOGGER.info("Patched product with information: {}", patched);
+
+            return withTag(patched, toTag(patched.getVersion()));
+        });
+    }
+
+    @RequestMapping(value = "/type/{type}", method = RequestMethod.GET)
+    DeferredResult<ResponseEntity<ProductPageDTO>> findByType(
+            @PathVariable("type") String type,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "next", required = false) String next,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response) {
+        LOGGER.info("Finding a page of at most {} products with type: {} after token: {}", limit, type, next);
+
+        String tag = catalogVersion.getCatalogTag();
+        if (isNotModified(ifNoneMatch, tag, response)) {
+            return null;
+        }
+
+        return bulkheads.read().submit(() -> {
+            ProductPageDTO page = service.findByType(type, next, limit);
+            LOGGER.info("Found {} products", page.getProducts().size());
+
+            return withTag(page, tag);
+        });
+    }
 
-        ProductDTO product = service.findByType(type);
-        LOGGER.info("Found product with information: {}", product);
+    @RequestMapping(value = "/price", method = RequestMethod.GET)
+    DeferredResult<ProductPageDTO> findByPrice(
+            @RequestParam(value = "min", required = false) BigDecimal min,
+            @RequestParam(value = "max", required = false) BigDecimal max,
+            @RequestParam(value = "order", defaultValue = "ASC") Sort.Direction order,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "next", required = false) String next) {
+        LOGGER.info("Finding a page of at most {} products with price between {} and {} in {} order after token: {}",
+                limit, min, max, order, next);
 
-        return product;
+        return bulkheads.read().submit(() -> {
+            ProductPageDTO page = service.findByPrice(min, max, order, next, limit);
+            LOGGER.info("Found {} products", page.getProducts().size());
+
+            return page;
+        });
+    }
+
+    /**
+     * Answers the request with 304 if the client already has the response with the given tag.
+     * The other responses get the tag with {@link #withTag(Object, String)} when they have succeeded,
+     * so errors are not cached.
+     * @return  True if the request was answered, and no response body must be written.
+     */
+    private static boolean isNotModified(String ifNoneMatch, String tag, HttpServletResponse response) {
+        if (!ProductCatalogVersion.matches(ifNoneMatch, tag)) {
+            return false;
+        }
+
+        LOGGER.info("The response with tag: {} has not been modified", tag);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(ETAG, tag);
+        return true;
+    }
+
+    private static <T> ResponseEntity<T> withTag(T body, String tag) {
+        return withTag(body, tag, HttpStatus.OK);
+    }
+
+    private static <T> ResponseEntity<T> withTag(T body, String tag, HttpStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(tag);
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    /**
+     * @param version   The version of a product, where a product without a version is at version zero.
+     */
+    private static String toTag(Long version) {
+        return "\"" + (version != null ? version : ProductServiceImpl.INITIAL_VERSION) + "\"";
+    }
+
+    /**
+     * If-Match uses the strong comparison, so only a single strong tag of a product version can match.
+     * @return  The version of the If-Match header, or null if the header was not sent or matches every version.
+     */
+    private static Long toVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals(ANY_TAG)) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            }
+            catch (NumberFormatException ex) {
+                LOGGER.info("The If-Match tag: {} is not the tag of a product version", tag);
+            }
+        }
+        return UNKNOWN_VERSION;
     }
 
     @ExceptionHandler
@@ -99,4 +390,55 @@ final class ProductController {
     public void handleProductNotFound(ProductNotFoundException ex) {
         LOGGER.error("Handling error with message: {}", ex.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public void handleProductModified(ProductModifiedException ex, HttpServletResponse response) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+        response.setHeader(ETAG, toTag(ex.getCurrentVersion()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void handleProductVersionConflict(ProductVersionConflictException ex, HttpServletResponse response) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+        response.setHeader(ETAG, toTag(ex.getCurrentVersion()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void handleInvalidPageToken(InvalidPageTokenException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GONE)
+    public void handleChangesTokenExpired(ChangesTokenExpiredException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void handleTooManyIds(TooManyIdsException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE)
+    public void handleTooManyProducts(TooManyProductsException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void handleCatalogTooLarge(CatalogTooLargeException ex) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void handleWriteBehindQueueFull(WriteBehindQueueFullException ex, HttpServletResponse response) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+        response.setHeader("Retry-After", WRITE_BEHIND_RETRY_AFTER_SECONDS);
+    }
 }
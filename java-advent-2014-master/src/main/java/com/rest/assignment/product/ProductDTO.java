@@ -23,9 +23,21 @@ public final class ProductDTO {
     
     @NotEmpty
     private String price;
+
+    /**
+     * The price in minor units. It is derived from the price by the server,
+     * so the value sent by clients is ignored.
+     */
+    private Long priceMinorUnits;
     
     private String type;
 
+    /**
+     * The version of the product. If a client sends the version with an update,
+     * the product is only updated if it still has this version.
+     */
+    private Long version;
+
     public ProductDTO() {
 
     }
@@ -62,6 +74,14 @@ public final class ProductDTO {
 		this.price = price;
 	}
 
+	public Long getPriceMinorUnits() {
+		return priceMinorUnits;
+	}
+
+	public void setPriceMinorUnits(Long priceMinorUnits) {
+		this.priceMinorUnits = priceMinorUnits;
+	}
+
 	public String getType() {
 		return type;
 	}
@@ -70,15 +90,21 @@ public final class ProductDTO {
 		this.type = type;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
     public String toString() {
-        return String.format(
-                "ProductDTO[id=%s, description=%s, title=%s, price=%s, type=%s]",
-                this.id,
-                this.description,
-                this.title,
-                this.price,
-                this.type
-        );
+        return "ProductDTO[id=" + this.id
+                + ", description=" + this.description
+                + ", title=" + this.title
+                + ", price=" + this.price
+                + ", type=" + this.type
+                + ", version=" + this.version + "]";
     }
 }
@@ -0,0 +1,81 @@
+package com.rest.assignment.product;
+
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.Validator;
+
+/**
+ * This validator checks the same constraints as the Bean Validation annotations of
+ * {@link ProductDTO}, without reading the constraint metadata by reflection on every call.
+ * The field errors have the same codes, arguments, and default messages as the errors
+ * that are created by Spring from Hibernate Validator, so they are resolved to the same
+ * messages by {@link com.rest.assignment.error.RestErrorHandler}.
+ * @author Rohan Das
+ */
+final class ProductDTOValidator implements Validator {
+
+    private static final String NOT_EMPTY = "NotEmpty";
+
+    private static final String SIZE = "Size";
+
+    private static final String NOT_EMPTY_MESSAGE = "may not be empty";
+
+    private static final MessageCodesResolver MESSAGE_CODES_RESOLVER = new DefaultMessageCodesResolver();
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return ProductDTO.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        ProductDTO product = (ProductDTO) target;
+
+        checkMaxLength(errors, "description", product.getDescription(), Product.MAX_LENGTH_DESCRIPTION);
+
+        checkNotEmpty(errors, "title", product.getTitle());
+        checkMaxLength(errors, "title", product.getTitle(), Product.MAX_LENGTH_TITLE);
+
+        checkNotEmpty(errors, "price", product.getPrice());
+    }
+
+    private static void checkNotEmpty(Errors errors, String field, String value) {
+        if (value == null || value.isEmpty()) {
+            reject(errors, field, value, NOT_EMPTY, new Object[] {fieldArgument(errors, field)}, NOT_EMPTY_MESSAGE);
+        }
+    }
+
+    /**
+     * The arguments of a size error are the field and the max and min attributes of the
+     * constraint, in the alphabetical order that is used by Spring.
+     */
+    private static void checkMaxLength(Errors errors, String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            reject(errors, field, value, SIZE, new Object[] {fieldArgument(errors, field), maxLength, 0},
+                    String.format("size must be between 0 and %d", maxLength));
+        }
+    }
+
+    private static DefaultMessageSourceResolvable fieldArgument(Errors errors, String field) {
+        String[] codes = {errors.getObjectName() + Errors.NESTED_PATH_SEPARATOR + field, field};
+        return new DefaultMessageSourceResolvable(codes, field);
+    }
+
+    private static void reject(Errors errors, String field, String value, String code, Object[] arguments,
+                               String defaultMessage) {
+        if (!(errors instanceof BindingResult)) {
+            errors.rejectValue(field, code, arguments, defaultMessage);
+            return;
+        }
+
+        //The field type is known, so the codes are resolved without looking it up from the bean.
+        String objectName = errors.getObjectName();
+        String[] codes = MESSAGE_CODES_RESOLVER.resolveMessageCodes(code, objectName, field, String.class);
+        ((BindingResult) errors).addError(new FieldError(objectName, field, value, false, codes, arguments,
+                defaultMessage));
+    }
+}
@@ -0,0 +1,84 @@
+package com.rest.assignment.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.UncheckedIOException;
+
+/**
+ * An event that tells the subscribers of the product events that a product was created,
+ * updated, or deleted. The product is serialized by the first subscriber that writes the
+ * event, so the request that changed the product does not pay for it.
+ * @author Rohan Das
+ */
+final class ProductEvent {
+
+    enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final String id;
+
+    private final long sequence;
+
+    private final Kind kind;
+
+    private final ProductDTO product;
+
+    private final ObjectWriter productWriter;
+
+    private volatile String data;
+
+    /**
+     * @param epoch     The start time of the stream, which tells apart the sequences of different runs.
+     * @param sequence  The position of the event in the stream.
+     * @param productWriter The writer that serializes the product with the object mapper of the application.
+     */
+    ProductEvent(String epoch, long sequence, Kind kind, ProductDTO product, ObjectWriter productWriter) {
+        this.id = epoch + ProductEventStream.ID_SEPARATOR + sequence;
+        this.sequence = sequence;
+        this.kind = kind;
+        this.product = product;
+        this.productWriter = productWriter;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    String getProductType() {
+        return product.getType();
+    }
+
+    /**
+     * @return  The information of the product as JSON.
+     */
+    String getData() {
+        String serialized = data;
+        if (serialized == null) {
+            try {
+                serialized = productWriter.writeValueAsString(product);
+            }
+            catch (JsonProcessingException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            data = serialized;
+        }
+        return serialized;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductEvent[id=" + this.id + ", kind=" + this.kind + ", product=" + this.product.getId() + "]";
+    }
+}
@@ -0,0 +1,67 @@
+package com.rest.assignment.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This controller streams the creations, updates, and deletions of products as Server-Sent Events,
+ * so that other services do not need to poll the products.
+ * @author Rohan Das
+ */
+@RestController
+@RequestMapping("/api/product/events")
+final class ProductEventController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductEventController.class);
+
+    /**
+     * A subscriber leaves when its client disconnects, so the client can try again soon.
+     */
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ProductEventStream stream;
+
+    @Autowired
+    ProductEventController(ProductEventStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * The response is written by the writer thread of the subscriber after this method returns.
+     * @param type          Streams only the events of the products of this type.
+     * @param lastEventId   The id of the last event that the subscriber received before it reconnected.
+     */
+    @RequestMapping(method = RequestMethod.GET)
+    void subscribe(@RequestParam(value = "type", required = false) String type,
+                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                   HttpServletRequest request,
+                   HttpServletResponse response) {
+        LOGGER.info("Subscribing to the events of products with type: {} after event: {}", type, lastEventId);
+
+        stream.subscribe(request, response, type, lastEventId);
+    }
+
+    @RequestMapping(value = "/stats", method = RequestMethod.GET)
+    ProductEventStats stats() {
+        return stream.stats();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void handleTooManySubscribers(TooManySubscribersException ex, HttpServletResponse response) {
+        LOGGER.error("Handling error with message: {}", ex.getMessage());
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+    }
+}
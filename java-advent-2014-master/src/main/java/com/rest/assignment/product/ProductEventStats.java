@@ -0,0 +1,42 @@
+package com.rest.assignment.product;
+
+/**
+ * This class contains a snapshot of the counters of the product event stream.
+ * @author Rohan Das
+ */
+public final class ProductEventStats {
+
+    private final int subscribers;
+
+    private final int maxSubscribers;
+
+    private final long published;
+
+    private final long disconnected;
+
+    ProductEventStats(int subscribers, int maxSubscribers, long published, long disconnected) {
+        this.subscribers = subscribers;
+        this.maxSubscribers = maxSubscribers;
+        this.published = published;
+        this.disconnected = disconnected;
+    }
+
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * @return  The number of subscribers that were disconnected because they did not keep up with the events.
+     */
+    public long getDisconnected() {
+        return disconnected;
+    }
+}
@@ -0,0 +1,233 @@
+package com.rest.assignment.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This component streams the creations, updates, and deletions of products to the subscribers
+ * of the product events as Server-Sent Events.
+ * <p>
+ * Publishing an event never blocks: the event is added to a bounded queue of every subscriber,
+ * and a subscriber whose queue is full is disconnected. The latest events are kept, so that a
+ * subscriber that reconnects with the id of the last event it received gets the events it missed.
+ * If they are no longer kept, or the application was restarted in the meantime, the subscriber
+ * gets a reset event and must read the changes of the products instead.
+ * </p>
+ * <p>
+ * Every instance of the application streams only the changes that it makes.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductEventStream implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductEventStream.class);
+
+    static final char ID_SEPARATOR = '-';
+
+    static final String CONTENT_TYPE = "text/event-stream;charset=UTF-8";
+
+    static final int DEFAULT_REPLAY_SIZE = 1000;
+
+    static final int DEFAULT_BUFFER_SIZE = 256;
+
+    static final int DEFAULT_MAX_SUBSCRIBERS = 100;
+
+    static final long DEFAULT_HEARTBEAT_MILLIS = 15000;
+
+    private final int replaySize;
+
+    private final int bufferSize;
+
+    private final int maxSubscribers;
+
+    private final long heartbeatMillis;
+
+    private final Executor writers;
+
+    private final ObjectWriter productWriter;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final Object lock = new Object();
+
+    /**
+     * The latest events. Guarded by the lock.
+     */
+    private final ArrayDeque<ProductEvent> replay = new ArrayDeque<>();
+
+    /**
+     * The sequence of the latest event. Guarded by the lock.
+     */
+    private long sequence;
+
+    private final Set<ProductEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder disconnected = new LongAdder();
+
+    @Autowired
+    ProductEventStream(@Value("${product.events.replay-size:" + DEFAULT_REPLAY_SIZE + "}") int replaySize,
+                       @Value("${product.events.buffer-size:" + DEFAULT_BUFFER_SIZE + "}") int bufferSize,
+                       @Value("${product.events.max-subscribers:" + DEFAULT_MAX_SUBSCRIBERS + "}") int maxSubscribers,
+                       @Value("${product.events.heartbeat-millis:" + DEFAULT_HEARTBEAT_MILLIS + "}")
+                       long heartbeatMillis,
+                       ObjectMapper objectMapper) {
+        this(replaySize, bufferSize, maxSubscribers, heartbeatMillis, writerThreads(), objectMapper);
+    }
+
+    ProductEventStream(int replaySize, int bufferSize, int maxSubscribers, long heartbeatMillis, Executor writers,
+                       ObjectMapper objectMapper) {
+        this.replaySize = Math.max(0, replaySize);
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        this.heartbeatMillis = Math.max(1, heartbeatMillis);
+        this.writers = writers;
+        this.productWriter = objectMapper.writerWithType(ProductDTO.class);
+    }
+
+    /**
+     * Every subscriber has a writer thread of its own, because the responses are written with blocking I/O.
+     * The number of threads is limited by the maximum number of subscribers.
+     */
+    private static ExecutorService writerThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "product-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(ProductEventSubscriber::close);
+        if (writers instanceof ExecutorService) {
+            ((ExecutorService) writers).shutdownNow();
+        }
+    }
+
+    /**
+     * Publishes an event to every subscriber without waiting for the subscribers.
+     * @param kind      The change of the product.
+     * @param product   The information of the product after the change, or before it was deleted.
+     */
+    void publish(ProductEvent.Kind kind, ProductDTO product) {
+        synchronized (lock) {
+            ProductEvent event = new ProductEvent(epoch, ++sequence, kind, product, productWriter);
+
+            if (replaySize > 0) {
+                if (replay.size() == replaySize) {
+                    replay.removeFirst();
+                }
+                replay.addLast(event);
+            }
+
+            for (ProductEventSubscriber subscriber : subscribers) {
+                if (!subscriber.offer(event)) {
+                    subscriber.close();
+                    disconnected.increment();
+                    LOGGER.warn("Disconnecting a subscriber of product events that has {} unwritten events", bufferSize);
+                }
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Starts streaming the events to the response of the request.
+     * @param type          The type of the products whose events are streamed, or null if all events are streamed.
+     * @param lastEventId   The id of the last event that the subscriber received, or null.
+     * @throws com.rest.assignment.product.TooManySubscribersException if the maximum number of subscribers
+     *         are subscribed.
+     */
+    void subscribe(HttpServletRequest request, HttpServletResponse response, String type, String lastEventId) {
+        ProductEventSubscriber subscriber;
+        synchronized (lock) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new TooManySubscribersException(maxSubscribers);
+            }
+
+            response.setContentType(CONTENT_TYPE);
+            response.setHeader("Cache-Control", "no-cache");
+            AsyncContext context = request.startAsync(request, response);
+            //The heartbeats notice closed connections, so the response never times out.
+            context.setTimeout(0);
+
+            Long after = toSequence(lastEventId);
+            boolean reset = lastEventId != null && !isReplayable(after);
+            List<ProductEvent> missed = new ArrayList<>();
+            if (after != null && !reset) {
+                for (ProductEvent event : replay) {
+                    if (event.getSequence() > after && (type == null || type.equals(event.getProductType()))) {
+                        missed.add(event);
+                    }
+                }
+            }
+
+            subscriber = new ProductEventSubscriber(context, type, missed, reset, bufferSize, heartbeatMillis,
+                    subscribers::remove);
+            subscribers.add(subscriber);
+        }
+
+        writers.execute(subscriber);
+    }
+
+    /**
+     * @return  The sequence of the event, or null if it is malformed or was published before
+     *          the application was started.
+     */
+    private Long toSequence(String eventId) {
+        if (eventId == null) {
+            return null;
+        }
+
+        int separator = eventId.lastIndexOf(ID_SEPARATOR);
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        }
+        catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that every event after the given sequence is kept. Guarded by the lock.
+     */
+    private boolean isReplayable(Long after) {
+        if (after == null || after > sequence) {
+            return false;
+        }
+        long oldest = replay.isEmpty() ? sequence + 1 : replay.peekFirst().getSequence();
+        return after + 1 >= oldest;
+    }
+
+    ProductEventStats stats() {
+        return new ProductEventStats(subscribers.size(), maxSubscribers, published.sum(), disconnected.sum());
+    }
+}
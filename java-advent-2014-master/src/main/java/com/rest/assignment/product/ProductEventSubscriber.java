@@ -0,0 +1,185 @@
+package com.rest.assignment.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A subscriber of the product events. The events are queued by the threads that change the
+ * products, and written to the response of the subscriber by a thread of its own, so a slow
+ * subscriber only slows down itself. A subscriber whose queue is full is closed instead of
+ * blocking the thread that publishes the event. Closing a subscriber completes its response,
+ * so a writer that is blocked on a slow connection does not keep the subscriber subscribed.
+ * @author Rohan Das
+ */
+final class ProductEventSubscriber implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductEventSubscriber.class);
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final String RESET_EVENT = "event: reset\n"
+            + "data: The events since the last event id are not available, read the changes of the products\n\n";
+
+    private final AsyncContext context;
+
+    private final String type;
+
+    private final List<ProductEvent> missed;
+
+    private final boolean reset;
+
+    private final long heartbeatMillis;
+
+    private final BlockingQueue<ProductEvent> queue;
+
+    private final Consumer<ProductEventSubscriber> onClose;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param context           The asynchronous context of the request of the subscriber.
+     * @param type              The type of the products whose events are written, or null if all events are written.
+     * @param missed            The events since the last event id of the subscriber.
+     * @param reset             true if events since the last event id of the subscriber are missing.
+     * @param bufferSize        The maximum number of events that wait to be written.
+     * @param heartbeatMillis   The time without events after which a comment is written, so that
+     *                          closed connections are noticed.
+     * @param onClose           Removes the subscriber from the stream.
+     */
+    ProductEventSubscriber(AsyncContext context, String type, List<ProductEvent> missed, boolean reset, int bufferSize,
+                           long heartbeatMillis, Consumer<ProductEventSubscriber> onClose) {
+        this.context = context;
+        this.type = type;
+        this.missed = missed;
+        this.reset = reset;
+        this.heartbeatMillis = heartbeatMillis;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.onClose = onClose;
+
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    /**
+     * @return  true if the event is not written to this subscriber or it was queued, and
+     *          false if the queue is full.
+     */
+    boolean offer(ProductEvent event) {
+        if (closed.get() || !accepts(event)) {
+            return true;
+        }
+        return queue.offer(event);
+    }
+
+    private boolean accepts(ProductEvent event) {
+        return type == null || type.equals(event.getProductType());
+    }
+
+    /**
+     * Removes the subscriber from the stream and completes its response. The writer stops
+     * after its current write, which fails if the container has already closed the connection.
+     */
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            onClose.accept(this);
+            complete();
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void run() {
+        try {
+            ServletResponse response = context.getResponse();
+            ServletOutputStream output = response.getOutputStream();
+
+            if (reset) {
+                output.write(RESET_EVENT.getBytes(StandardCharsets.UTF_8));
+            }
+            for (ProductEvent event : missed) {
+                write(output, event);
+            }
+            response.flushBuffer();
+
+            while (!closed.get()) {
+                ProductEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (closed.get()) {
+                    break;
+                }
+
+                if (event == null) {
+                    output.write(HEARTBEAT);
+                }
+                while (event != null) {
+                    write(output, event);
+                    event = queue.poll();
+                }
+                response.flushBuffer();
+            }
+        }
+        catch (IOException ex) {
+            LOGGER.debug("The subscriber of product events disconnected", ex);
+        }
+        catch (IllegalStateException ex) {
+            //The response was completed when the subscriber was closed.
+            LOGGER.debug("The response of a closed subscriber of product events was completed", ex);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            close();
+        }
+    }
+
+    private static void write(ServletOutputStream output, ProductEvent event) throws IOException {
+        String message = "id: " + event.getId() + "\n"
+                + "event: " + event.getKind().name().toLowerCase() + "\n"
+                + "data: " + event.getData() + "\n\n";
+        output.write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void complete() {
+        try {
+            context.complete();
+        }
+        catch (IllegalStateException ex) {
+            //The request has already been completed by the container.
+        }
+    }
+}
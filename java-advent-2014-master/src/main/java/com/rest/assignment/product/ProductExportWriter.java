@@ -0,0 +1,116 @@
+package com.rest.assignment.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * This class writes products to the response as newline-delimited JSON. Every
+ * product is written as soon as it is received and the response is flushed
+ * after every batch, so the catalog is never held in memory.
+ * <p>
+ * The writer is used by the thread of a bulkhead, but it can be cancelled by the thread of
+ * the servlet container when the request times out. Cancelling only sets a flag, so the
+ * thread of the container is never blocked by a write to a slow client. A cancelled writer
+ * fails before its next write or flush, so the export stops and at most the write that was
+ * in progress reaches the response after it was completed.
+ * </p>
+ * @author Rohan Das
+ */
+final class ProductExportWriter implements Consumer<ProductDTO> {
+
+    static final String CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+
+    private final ObjectWriter productWriter;
+
+    private final HttpServletResponse response;
+
+    private final int flushInterval;
+
+    private JsonGenerator generator;
+
+    private long written;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a writer that opens the output stream of the response when the first product is written.
+     * @param productWriter The writer that is created by {@link #productWriter(ObjectMapper)}.
+     * @param flushInterval The number of products that are written between flushes. It is capped like
+     *                      the batch size of the export, so a large value cannot keep the products in
+     *                      the buffer of the response.
+     */
+    ProductExportWriter(ObjectWriter productWriter, HttpServletResponse response, int flushInterval) {
+        this.productWriter = productWriter;
+        this.response = response;
+        this.flushInterval = Math.max(1, Math.min(flushInterval, ProductServiceImpl.MAX_EXPORT_BATCH_SIZE));
+    }
+
+    /**
+     * Creates the writer of the exported products from the object mapper of the application,
+     * so the products are serialized like in the other responses. The writer does not flush
+     * after every product, because the response is flushed after every batch.
+     */
+    static ObjectWriter productWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerWithType(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void accept(ProductDTO product) {
+        try {
+            JsonGenerator generator = open();
+            productWriter.writeValue(generator, product);
+            generator.writeRaw('\n');
+
+            written++;
+            if (written % flushInterval == 0) {
+                flush();
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    long getWritten() {
+        return written;
+    }
+
+    void finish() throws IOException {
+        flush();
+        generator.close();
+    }
+
+    /**
+     * Makes every later write and flush fail. It can be called by any thread and does not
+     * wait for a write that is in progress.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    private JsonGenerator open() throws IOException {
+        if (cancelled) {
+            throw new CancellationException("The export was cancelled after " + written + " products");
+        }
+        if (generator == null) {
+            generator = productWriter.getFactory().createGenerator(response.getOutputStream());
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+        return generator;
+    }
+
+    private void flush() throws IOException {
+        open().flush();
+        response.flushBuffer();
+    }
+}
@@ -0,0 +1,237 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.cache.BloomFilter;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This component keeps a Bloom filter of the ids of all products, so that lookups
+ * of ids that certainly do not exist are answered without a database query.
+ * <p>
+ * The filter is rebuilt periodically from a scan of the product ids. Ids created
+ * by this application instance are added to it right away, but ids cannot be
+ * removed, so deleted ids are answered by the database until the next rebuild.
+ * Products can also be created by other instances, so the filter trusts a negative
+ * answer for an object id only if the id was created before the filter was built.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductIdFilter implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductIdFilter.class);
+
+    static final long DEFAULT_EXPECTED_INSERTIONS = 1000000;
+
+    static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    static final long DEFAULT_REBUILD_INTERVAL_SECONDS = 600;
+
+    static final int DEFAULT_BATCH_SIZE = 5000;
+
+    /**
+     * The margin that is allowed between the clocks of the instances that create object ids.
+     */
+    static final long CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ProductRepository repository;
+
+    private final boolean enabled;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    private final long rebuildIntervalSeconds;
+
+    private final int batchSize;
+
+    private final LongSupplier clock;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile Snapshot current;
+
+    private volatile BloomFilter building;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    ProductIdFilter(ProductRepository repository,
+                    @Value("${product.id-filter.enabled:true}") boolean enabled,
+                    @Value("${product.id-filter.expected-insertions:" + DEFAULT_EXPECTED_INSERTIONS + "}")
+                    long expectedInsertions,
+                    @Value("${product.id-filter.false-positive-rate:" + DEFAULT_FALSE_POSITIVE_RATE + "}")
+                    double falsePositiveRate,
+                    @Value("${product.id-filter.rebuild-interval-seconds:" + DEFAULT_REBUILD_INTERVAL_SECONDS + "}")
+                    long rebuildIntervalSeconds,
+                    @Value("${product.id-filter.batch-size:" + DEFAULT_BATCH_SIZE + "}") int batchSize) {
+        this(repository, enabled, expectedInsertions, falsePositiveRate, rebuildIntervalSeconds, batchSize,
+                System::currentTimeMillis);
+    }
+
+    ProductIdFilter(ProductRepository repository,
+                    boolean enabled,
+                    long expectedInsertions,
+                    double falsePositiveRate,
+                    long rebuildIntervalSeconds,
+                    int batchSize,
+                    LongSupplier clock) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.expectedInsertions = Math.max(1, expectedInsertions);
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalSeconds = Math.max(1, rebuildIntervalSeconds);
+        this.batchSize = Math.max(1, batchSize);
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            LOGGER.info("The product id filter is disabled");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-id-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return  false if no product with the given id exists, and true if it might exist.
+     *          Before the filter has been built, this method always returns true.
+     */
+    boolean mightExist(String id) {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return true;
+        }
+
+        String key = id;
+        if (ObjectId.isValid(id)) {
+            ObjectId objectId = new ObjectId(id);
+            if (objectId.getDate().getTime() >= snapshot.trustedBefore) {
+                return true;
+            }
+            key = objectId.toString();
+        }
+
+        if (snapshot.filter.mightContain(key)) {
+            return true;
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    void add(String id) {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            snapshot.filter.put(id);
+        }
+
+        //A rebuild that is in progress might have scanned past the new id already.
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(id);
+        }
+    }
+
+    /**
+     * Counts a lookup that the filter let through but that found no product.
+     */
+    void countFalsePositive() {
+        if (current != null) {
+            falsePositives.increment();
+        }
+    }
+
+    void rebuild() {
+        long trustedBefore = clock.getAsLong() - CLOCK_SKEW_MILLIS;
+
+        //The filter is sized for twice the current number of products, so that it has room to grow until the next rebuild.
+        long count = repository.count();
+        BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, count * 2), falsePositiveRate);
+
+        LOGGER.info("Rebuilding the product id filter of {} bits for {} products", filter.getBitSize(), count);
+
+        AtomicLong ids = new AtomicLong();
+        building = filter;
+        try {
+            repository.forEachId(batchSize, id -> {
+                filter.put(id);
+                ids.incrementAndGet();
+            });
+            current = new Snapshot(filter, trustedBefore, clock.getAsLong(), ids.get());
+        }
+        finally {
+            building = null;
+        }
+
+        LOGGER.info("Rebuilt the product id filter with {} ids", ids.get());
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        }
+        catch (RuntimeException ex) {
+            LOGGER.error("Rebuilding the product id filter failed, the previous filter is kept", ex);
+        }
+    }
+
+    ProductIdFilterStats stats() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return new ProductIdFilterStats(false, 0, 0, 0, 0, 0.0, rejected.sum(), falsePositives.sum());
+        }
+
+        return new ProductIdFilterStats(true, snapshot.builtAt, snapshot.ids, snapshot.filter.getBitSize(),
+                snapshot.filter.getHashCount(), snapshot.filter.estimateFalsePositiveRate(),
+                rejected.sum(), falsePositives.sum());
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter filter;
+
+        private final long trustedBefore;
+
+        private final long builtAt;
+
+        private final long ids;
+
+        private Snapshot(BloomFilter filter, long trustedBefore, long builtAt, long ids) {
+            this.filter = filter;
+            this.trustedBefore = trustedBefore;
+            this.builtAt = builtAt;
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rest.assignment.product;
+
+/**
+ * This class contains a snapshot of the state and counters of the product id filter.
+ * @author Rohan Das
+ */
+public final class ProductIdFilterStats {
+
+    private final boolean ready;
+
+    private final long builtAt;
+
+    private final long ids;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    private final double estimatedFalsePositiveRate;
+
+    private final long rejected;
+
+    private final long falsePositives;
+
+    ProductIdFilterStats(boolean ready, long builtAt, long ids, long bitSize, int hashCount,
+                         double estimatedFalsePositiveRate, long rejected, long falsePositives) {
+        this.ready = ready;
+        this.builtAt = builtAt;
+        this.ids = ids;
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.estimatedFalsePositiveRate = estimatedFalsePositiveRate;
+        this.rejected = rejected;
+        this.falsePositives = falsePositives;
+    }
+
+    /**
+     * @return  true if the filter has been built, and false if every lookup still goes to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return  The time when the filter was last built in milliseconds since the epoch.
+     */
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return  The number of ids that were scanned when the filter was last built.
+     */
+    public long getIds() {
+        return ids;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public double getEstimatedFalsePositiveRate() {
+        return estimatedFalsePositiveRate;
+    }
+
+    /**
+     * @return  The number of lookups that were answered as not found without a database query.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return  The number of lookups that the filter let through but that found no product.
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+}
@@ -0,0 +1,46 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.mongo.RequiredIndex;
+import com.rest.assignment.mongo.RequiredIndexes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This component declares the indexes that the product queries depend on.
+ * @author Rohan Das
+ */
+@Component
+final class ProductIndexes implements RequiredIndexes {
+
+    private final List<RequiredIndex> indexes;
+
+    /**
+     * @param retentionHours    The time after which the tombstones of deleted products expire.
+     *                          An existing TTL index is not changed when the retention changes.
+     */
+    @Autowired
+    ProductIndexes(@Value("${product.changes.retention-hours:" + ProductChangeFeed.DEFAULT_RETENTION_HOURS + "}")
+                   long retentionHours) {
+        this.indexes = Collections.unmodifiableList(Arrays.asList(
+                RequiredIndex.ascending(Product.class, "type_id", "type", "_id"),
+                RequiredIndex.ascending(Product.class, "priceMinorUnits_id", "priceMinorUnits", "_id"),
+                RequiredIndex.ascending(Product.class, "title", "title"),
+                RequiredIndex.text(Product.class, "title_description_text", "title", "description"),
+                RequiredIndex.ascending(Product.class, "lastModified_id", "lastModified", "_id"),
+                RequiredIndex.ascending(ProductTombstone.class, "lastModified_id", "lastModified", "_id"),
+                RequiredIndex.ttl(ProductTombstone.class, "deletedAt_ttl", "deletedAt",
+                        TimeUnit.HOURS.toSeconds(Math.max(1, retentionHours)))
+        ));
+    }
+
+    @Override
+    public List<RequiredIndex> getRequiredIndexes() {
+        return indexes;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rest.assignment.product;
+
+import com.rest.assignment.cache.SingleFlight;
+import com.rest.assignment.cache.SingleFlightStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * This component makes concurrent reads of the same product, or of the same page
+ * of products of a type, share a single repository query.
+ * @author Rohan Das
+ */
+@Component
+final class ProductLookupCoalescer {
+
+    static final int DEFAULT_MAX_TRACKED_KEYS = 1000;
+
+    private final SingleFlight<String, Optional<Product>> byId;
+
+    private final SingleFlight<List<Object>, List<Product>> byType;
+
+    @Autowired
+    ProductLookupCoalescer(@Value("${product.coalescing.max-tracked-keys:" + DEFAULT_MAX_TRACKED_KEYS + "}")
+                           int maxTrackedKeys) {
+        this.byId = new SingleFlight<>(maxTrackedKeys);
+        this.byType = new SingleFlight<>(maxTrackedKeys);
+    }
+
+    Optional<Product> findOne(String id, Supplier<Optional<Product>> loader) {
+        return byId.load(id, loader);
+    }
+
+    List<Product> findPageByType(String type, String afterId, int limit, Supplier<List<Product>> loader) {
+        return byType.load(Arrays.asList(type, afterId, limit), loader);
+    }
+
+    Map<String, SingleFlightStats> stats() {
+        Map<String, SingleFlightStats> stats = new LinkedHashMap<>();
+        stats.put("id", byId.stats());
+        stats.put("type", byType.stats());
+        return stats;
+    }
+}
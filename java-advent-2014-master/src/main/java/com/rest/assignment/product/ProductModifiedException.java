@@ -0,0 +1,23 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a product is updated with an If-Match header,
+ * and the product has been modified since the client read the given tag.
+ * @author Rohan Das
+ */
+public class ProductModifiedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long currentVersion;
+
+    public ProductModifiedException(String id, long currentVersion) {
+        super(String.format("The product with id: <%s> has been modified, its current version is %d", id,
+                currentVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -2,6 +2,8 @@ package com.rest.assignment.product;
 
 /**
  * This exception is thrown when the requested product is not found.
+ * It is thrown for every unknown id that is requested, so it neither
+ * fills in a stack trace nor formats its message until it is asked for.
  * @author Rohan Das
  */
 public class ProductNotFoundException extends RuntimeException {
@@ -11,7 +13,19 @@ public class ProductNotFoundException extends RuntimeException {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	private final String id;
+
 	public ProductNotFoundException(String id) {
-        super(String.format("No product found with id: <%s>", id));
+        super(null, null, false, false);
+        this.id = id;
     }
+
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public String getMessage() {
+		return String.format("No product found with id: <%s>", id);
+	}
 }
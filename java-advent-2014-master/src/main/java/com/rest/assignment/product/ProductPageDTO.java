@@ -0,0 +1,32 @@
+package com.rest.assignment.product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This data transfer object contains a single page of products and the
+ * continuation token that is used to request the next page.
+ * @author Rohan Das
+ */
+public final class ProductPageDTO {
+
+    private final List<ProductDTO> products;
+
+    private final String next;
+
+    ProductPageDTO(List<ProductDTO> products, String next) {
+        this.products = Collections.unmodifiableList(products);
+        this.next = next;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return  The token of the next page, or null if this is the last page.
+     */
+    public String getNext() {
+        return next;
+    }
+}
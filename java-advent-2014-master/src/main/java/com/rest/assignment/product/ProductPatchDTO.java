@@ -0,0 +1,80 @@
+package com.rest.assignment.product;
+
+import javax.validation.constraints.Size;
+
+/**
+ * This data transfer object contains the fields of a partial product update.
+ * A field that is null is not changed.
+ * @author Rohan Das
+ */
+public final class ProductPatchDTO {
+
+    @Size(max = Product.MAX_LENGTH_DESCRIPTION)
+    private String description;
+
+    @Size(min = 1, max = Product.MAX_LENGTH_TITLE)
+    private String title;
+
+    @Size(min = 1)
+    private String price;
+
+    private String type;
+
+    /**
+     * The version of the product. If it is not null, the product is only changed if it still has this version.
+     */
+    private Long version;
+
+    public ProductPatchDTO() {
+
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getPrice() {
+        return price;
+    }
+
+    public void setPrice(String price) {
+        this.price = price;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPatchDTO[description=" + this.description
+                + ", title=" + this.title
+                + ", price=" + this.price
+                + ", type=" + this.type
+                + ", version=" + this.version + "]";
+    }
+}
@@ -0,0 +1,107 @@
+package com.rest.assignment.product;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component stores the price of existing products in minor units when the
+ * application is started. Only the products that have no price in minor units are
+ * read, so after the migration has been run once, it costs a single index lookup.
+ * @author Rohan Das
+ */
+@Component
+final class ProductPriceMigration implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductPriceMigration.class);
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String ID = "_id";
+
+    private static final String PRICE = "price";
+
+    private static final String PRICE_MINOR_UNITS = "priceMinorUnits";
+
+    private final MongoOperations mongoOperations;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    @Autowired
+    ProductPriceMigration(MongoOperations mongoOperations,
+                          @Value("${product.price-migration.enabled:true}") boolean enabled,
+                          @Value("${product.price-migration.batch-size:" + DEFAULT_BATCH_SIZE + "}") int batchSize) {
+        this.mongoOperations = mongoOperations;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            LOGGER.info("The migration of product prices is disabled");
+            return;
+        }
+
+        LOGGER.info("Migrating product prices to minor units in batches of {}", batchSize);
+
+        long migrated = migrate();
+
+        LOGGER.info("Migrated the prices of {} products", migrated);
+    }
+
+    /**
+     * Sets the price in minor units of every product that does not have it. Products whose
+     * price is not a number get a null value, so they are not read again by the next run.
+     * @return  The number of migrated products.
+     */
+    long migrate() {
+        return mongoOperations.execute(Product.class, collection -> {
+            DBObject notMigrated = new BasicDBObject(PRICE_MINOR_UNITS, new BasicDBObject("$exists", false));
+            long migrated = 0;
+
+            try (DBCursor cursor = collection.find(notMigrated, new BasicDBObject(PRICE, 1)).batchSize(batchSize)) {
+                BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+                int pending = 0;
+
+                while (cursor.hasNext()) {
+                    DBObject document = cursor.next();
+
+                    //The filter skips products whose price has been written by the application in the meantime.
+                    DBObject filter = new BasicDBObject(ID, document.get(ID))
+                            .append(PRICE_MINOR_UNITS, new BasicDBObject("$exists", false));
+                    DBObject set = new BasicDBObject(PRICE_MINOR_UNITS, toMinorUnits(document.get(PRICE)));
+                    bulk.find(filter).updateOne(new BasicDBObject("$set", set));
+
+                    if (++pending == batchSize) {
+                        bulk.execute();
+                        migrated += pending;
+                        bulk = collection.initializeUnorderedBulkOperation();
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0) {
+                    bulk.execute();
+                    migrated += pending;
+                }
+            }
+
+            return migrated;
+        });
+    }
+
+    private static Long toMinorUnits(Object price) {
+        return price == null ? null : Product.toMinorUnits(price.toString());
+    }
+}
@@ -10,7 +10,13 @@ import org.springframework.data.repository.Repository;
  * objects.
  * @author Rohan Das
  */
-interface ProductRepository extends Repository<Product, String> {
+interface ProductRepository extends Repository<Product, String>, ProductRepositoryCustom {
+
+    /**
+     * Counts the products in the database.
+     * @return  The number of products.
+     */
+    long count();
 
     /**
      * Deletes a product from the database.
@@ -38,12 +44,4 @@ interface ProductRepository extends Repository<Product, String> {
      * @return      The information of the saved product.
      */
     Product save(Product saved);
-    
-    /**
-     * Finds the information of a type of product.
-     * @param id    The type of the requested product.
-     * @return      The information of the found product. If no product
-     *              is found, this method returns an empty object.
-     */
-    Optional<Product> findByType(String type);
 }
@@ -0,0 +1,168 @@
+package com.rest.assignment.product;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * This interface declares the product queries that cannot be derived from
+ * method names and are implemented on top of MongoTemplate.
+ * @author Rohan Das
+ */
+interface ProductRepositoryCustom {
+
+    /**
+     * Finds the products that have the given ids with a single query.
+     * @param ids   The ids of the requested products.
+     * @return      The found products in no particular order. Ids for which no
+     *              product is found are ignored.
+     */
+    List<Product> findByIds(Collection<String> ids);
+
+    /**
+     * Finds a page of products ordered by id. The page starts right after the
+     * given id, so the cost of the query does not depend on how deep the page is.
+     * @param afterId   The id of the last product of the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of returned products.
+     * @return          The products whose id is greater than afterId, ordered by id.
+     */
+    List<Product> findPage(String afterId, int limit);
+
+    /**
+     * Finds a page of products of the given type ordered by id. The query is an
+     * index range scan over the type and id of the products.
+     * @param type      The type of the requested products.
+     * @param afterId   The id of the last product of the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of returned products.
+     * @return          The products of the given type whose id is greater than afterId, ordered by id.
+     */
+    List<Product> findPageByType(String type, String afterId, int limit);
+
+    /**
+     * Finds a page of products whose price is within the given range, ordered by
+     * price and id. The query is an index range scan over the price and id of the
+     * products, and products whose price is not a number are never returned.
+     * @param minPrice  The minimum price in minor units (inclusive).
+     * @param maxPrice  The maximum price in minor units (inclusive).
+     * @param direction The direction in which the products are ordered.
+     * @param after     The price and id of the last product of the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of returned products.
+     * @return          The products that come after the given product, ordered by price and id.
+     */
+    List<Product> findPageByPrice(long minPrice, long maxPrice, Sort.Direction direction,
+                                  PageToken.PriceKey after, int limit);
+
+    /**
+     * Finds the products that were created or changed after the given change, ordered by the
+     * time of the change and id. The query is an index range scan over the time and id.
+     * @param after The last change that was returned to the client, or null if all products
+     *              are requested.
+     * @param until The time of the latest change that is returned (inclusive).
+     * @param limit The maximum number of returned products.
+     * @return      The changed products, ordered by the time of the change and id.
+     */
+    List<Product> findChanges(PageToken.ChangeKey after, long until, int limit);
+
+    /**
+     * Finds the tombstones of the products that were deleted after the given change, ordered
+     * by the time of the deletion and id.
+     * @param after The last change that was returned to the client.
+     * @param until The time of the latest deletion that is returned (inclusive).
+     * @param limit The maximum number of returned tombstones.
+     * @return      The tombstones, ordered by the time of the deletion and id.
+     */
+    List<ProductTombstone> findTombstones(PageToken.ChangeKey after, long until, int limit);
+
+    /**
+     * Inserts the tombstone of a deleted product, unless the product already has a tombstone.
+     * @param tombstone The inserted tombstone.
+     * @return          false if the product already has a tombstone, which is left unchanged.
+     */
+    boolean insertTombstone(ProductTombstone tombstone);
+
+    /**
+     * Removes the tombstone of a product, e.g. because the product was not deleted after all.
+     * @param id    The id of the product.
+     */
+    void removeTombstone(String id);
+
+    /**
+     * Sets the time of the last change of the products that have none, e.g. because
+     * they were created before the time was recorded.
+     * @param lastModified  The time that is set.
+     * @return              The number of updated products.
+     */
+    int setMissingLastModified(long lastModified);
+
+    /**
+     * Iterates over all products by using a single database cursor. Only one
+     * batch of products is held in memory at a time.
+     * @param batchSize The number of products that are fetched per round trip.
+     * @param action    The action that is invoked for every product.
+     */
+    void forEach(int batchSize, Consumer<Product> action);
+
+    /**
+     * Iterates over the ids of all products by using a single database cursor.
+     * Only the ids are read from the database.
+     * @param batchSize The number of ids that are fetched per round trip.
+     * @param action    The action that is invoked for every id.
+     */
+    void forEachId(int batchSize, Consumer<String> action);
+
+    /**
+     * Inserts the products with a single unordered bulk write. A product that
+     * cannot be inserted does not prevent the other products from being inserted.
+     * If the write concern is not satisfied, the products without a write error are
+     * reported as failed, because they may not survive a failover.
+     * @param products  The inserted products.
+     * @return          The inserted products and the errors of the failed inserts.
+     */
+    BulkInsertResult insertAll(List<Product> products);
+
+    /**
+     * Applies an update to every product that still has the given version with a single
+     * unordered bulk write. Products that do not exist are not created.
+     * @param updates   The updates by the id of the updated product.
+     * @param versions  The versions that the products must have by the id of the product.
+     * @return          The number of products that were found with their version.
+     */
+    int updateAll(Map<String, Update> updates, Map<String, Long> versions);
+
+    /**
+     * Removes a product and returns its information with a single atomic operation.
+     * @param id    The id of the removed product.
+     * @return      The information of the removed product. If no product
+     *              is found, this method returns an empty object.
+     */
+    Optional<Product> findAndRemove(String id);
+
+    /**
+     * Applies an update to a product and returns its new information with a
+     * single atomic operation.
+     * @param id        The id of the updated product.
+     * @param update    The update that is applied to the product.
+     * @return          The information of the updated product. If no product
+     *                  is found, this method returns an empty object.
+     */
+    Optional<Product> findAndModify(String id, Update update);
+
+    /**
+     * Applies an update to a product only if it still has the given version, and returns
+     * its new information with a single atomic operation.
+     * @param id        The id of the updated product.
+     * @param version   The version that the product must have.
+     * @param update    The update that is applied to the product. It must increase the version.
+     * @return          The information of the updated product. If no product is found,
+     *                  or the product has another version, this method returns an empty object.
+     */
+    Optional<Product> findAndModify(String id, long version, Update update);
+}
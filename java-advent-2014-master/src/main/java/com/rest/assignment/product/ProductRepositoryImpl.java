@@ -0,0 +1,304 @@
+package com.rest.assignment.product;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcernError;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This class implements the custom product queries by using MongoTemplate.
+ * @author Rohan Das
+ */
+final class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductRepositoryImpl.class);
+
+    static final String WRITE_CONCERN_FAILED = "The product may have been inserted, but the write concern failed: ";
+
+    private static final String ID = "_id";
+
+    private static final String TYPE = "type";
+
+    private static final String PRICE_MINOR_UNITS = "priceMinorUnits";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String VERSION = "version";
+
+    private final MongoOperations mongoOperations;
+
+    @Autowired
+    ProductRepositoryImpl(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public List<Product> findByIds(Collection<String> ids) {
+        List<Object> storedIds = ids.stream()
+                .map(ProductRepositoryImpl::toStoredId)
+                .collect(toList());
+
+        return mongoOperations.find(Query.query(Criteria.where(ID).in(storedIds)), Product.class);
+    }
+
+    @Override
+    public List<Product> findPage(String afterId, int limit) {
+        return findPage(new Query(), afterId, limit);
+    }
+
+    @Override
+    public List<Product> findPageByType(String type, String afterId, int limit) {
+        return findPage(Query.query(Criteria.where(TYPE).is(type)), afterId, limit);
+    }
+
+    @Override
+    public List<Product> findPageByPrice(long minPrice, long maxPrice, Sort.Direction direction,
+                                         PageToken.PriceKey after, int limit) {
+        boolean ascending = direction == Sort.Direction.ASC;
+
+        long lower = minPrice;
+        long upper = maxPrice;
+        if (after != null) {
+            //The range starts from the price of the last product so that the index is scanned from that point on.
+            if (ascending) {
+                lower = Math.max(lower, after.getPrice());
+            }
+            else {
+                upper = Math.min(upper, after.getPrice());
+            }
+        }
+
+        Query query = Query.query(Criteria.where(PRICE_MINOR_UNITS).gte(lower).lte(upper));
+
+        if (after != null) {
+            Object afterId = toStoredId(after.getId());
+            query.addCriteria(new Criteria().orOperator(
+                    ascending ? Criteria.where(PRICE_MINOR_UNITS).gt(after.getPrice())
+                            : Criteria.where(PRICE_MINOR_UNITS).lt(after.getPrice()),
+                    ascending ? Criteria.where(ID).gt(afterId) : Criteria.where(ID).lt(afterId)
+            ));
+        }
+
+        query.with(new Sort(direction, PRICE_MINOR_UNITS, ID)).limit(limit);
+
+        return mongoOperations.find(query, Product.class);
+    }
+
+    private List<Product> findPage(Query query, String afterId, int limit) {
+        query.with(new Sort(Sort.Direction.ASC, ID)).limit(limit);
+
+        if (afterId != null) {
+            query.addCriteria(Criteria.where(ID).gt(toStoredId(afterId)));
+        }
+
+        return mongoOperations.find(query, Product.class);
+    }
+
+    @Override
+    public List<Product> findChanges(PageToken.ChangeKey after, long until, int limit) {
+        return mongoOperations.find(changedAfter(after, until, limit), Product.class);
+    }
+
+    @Override
+    public List<ProductTombstone> findTombstones(PageToken.ChangeKey after, long until, int limit) {
+        return mongoOperations.find(changedAfter(after, until, limit), ProductTombstone.class);
+    }
+
+    private static Query changedAfter(PageToken.ChangeKey after, long until, int limit) {
+        Query query;
+        if (after == null) {
+            query = Query.query(Criteria.where(LAST_MODIFIED).lte(until));
+        }
+        else if (after.getId() == null) {
+            query = Query.query(Criteria.where(LAST_MODIFIED).gt(after.getLastModified()).lte(until));
+        }
+        else {
+            //The range starts from the time of the last change so that the index is scanned from that point on.
+            query = Query.query(Criteria.where(LAST_MODIFIED).gte(after.getLastModified()).lte(until));
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where(LAST_MODIFIED).gt(after.getLastModified()),
+                    Criteria.where(ID).gt(toStoredId(after.getId()))
+            ));
+        }
+
+        return query.with(new Sort(Sort.Direction.ASC, LAST_MODIFIED, ID)).limit(limit);
+    }
+
+    @Override
+    public boolean insertTombstone(ProductTombstone tombstone) {
+        try {
+            mongoOperations.insert(tombstone);
+            return true;
+        }
+        catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public void removeTombstone(String id) {
+        mongoOperations.remove(Query.query(Criteria.where(ID).is(id)), ProductTombstone.class);
+    }
+
+    @Override
+    public int setMissingLastModified(long lastModified) {
+        return mongoOperations.updateMulti(Query.query(Criteria.where(LAST_MODIFIED).exists(false)),
+                new Update().set(LAST_MODIFIED, lastModified), Product.class).getN();
+    }
+
+    @Override
+    public void forEach(int batchSize, Consumer<Product> action) {
+        MongoConverter converter = mongoOperations.getConverter();
+
+        mongoOperations.execute(Product.class, collection -> {
+            try (DBCursor cursor = collection.find().batchSize(batchSize)) {
+                while (cursor.hasNext()) {
+                    action.accept(converter.read(Product.class, cursor.next()));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachId(int batchSize, Consumer<String> action) {
+        mongoOperations.execute(Product.class, collection -> {
+            try (DBCursor cursor = collection.find(new BasicDBObject(), new BasicDBObject(ID, 1)).batchSize(batchSize)) {
+                while (cursor.hasNext()) {
+                    action.accept(cursor.next().get(ID).toString());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public BulkInsertResult insertAll(List<Product> products) {
+        MongoConverter converter = mongoOperations.getConverter();
+
+        List<DBObject> documents = new ArrayList<>(products.size());
+        for (Product product : products) {
+            DBObject document = new BasicDBObject();
+            converter.write(product, document);
+            if (document.get(ID) == null) {
+                document.put(ID, new ObjectId());
+            }
+            documents.add(document);
+        }
+
+        Map<Integer, String> failed = new HashMap<>();
+
+        mongoOperations.execute(Product.class, collection -> {
+            BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+            documents.forEach(bulk::insert);
+
+            try {
+                bulk.execute();
+            }
+            catch (BulkWriteException ex) {
+                for (BulkWriteError error : ex.getWriteErrors()) {
+                    failed.put(error.getIndex(), error.getMessage());
+                }
+                //The documents without a write error were written, but the write concern was not
+                //satisfied, so they are reported as failed like a single insert that throws.
+                WriteConcernError writeConcernError = ex.getWriteConcernError();
+                if (writeConcernError != null) {
+                    LOGGER.error("The write concern of a bulk insert failed: {}", writeConcernError.getMessage());
+                    String error = WRITE_CONCERN_FAILED + writeConcernError.getMessage();
+                    for (int index = 0; index < documents.size(); index++) {
+                        failed.putIfAbsent(index, error);
+                    }
+                }
+            }
+            return null;
+        });
+
+        Map<Integer, Product> inserted = new HashMap<>();
+        for (int index = 0; index < documents.size(); index++) {
+            if (!failed.containsKey(index)) {
+                inserted.put(index, converter.read(Product.class, documents.get(index)));
+            }
+        }
+
+        return new BulkInsertResult(inserted, failed);
+    }
+
+    @Override
+    public int updateAll(Map<String, Update> updates, Map<String, Long> versions) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        return mongoOperations.execute(Product.class, collection -> {
+            BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+            for (Map.Entry<String, Update> update : updates.entrySet()) {
+                Query query = byVersion(update.getKey(), versions.get(update.getKey()));
+                bulk.find(query.getQueryObject()).updateOne(update.getValue().getUpdateObject());
+            }
+            return bulk.execute().getMatchedCount();
+        });
+    }
+
+    @Override
+    public Optional<Product> findAndRemove(String id) {
+        return Optional.ofNullable(mongoOperations.findAndRemove(byId(id), Product.class));
+    }
+
+    @Override
+    public Optional<Product> findAndModify(String id, Update update) {
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+        return Optional.ofNullable(mongoOperations.findAndModify(byId(id), update, options, Product.class));
+    }
+
+    @Override
+    public Optional<Product> findAndModify(String id, long version, Update update) {
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+        return Optional.ofNullable(mongoOperations.findAndModify(byVersion(id, version), update, options,
+                Product.class));
+    }
+
+    private static Query byVersion(String id, long version) {
+        Criteria byId = Criteria.where(ID).is(toStoredId(id));
+        //Products that were stored before products had versions are at version zero.
+        return Query.query(version == 0
+                ? byId.orOperator(Criteria.where(VERSION).is(0L), Criteria.where(VERSION).exists(false))
+                : byId.and(VERSION).is(version));
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where(ID).is(toStoredId(id)));
+    }
+
+    /**
+     * Ids that look like object ids are stored as object ids, so range queries
+     * must compare against the same BSON type.
+     */
+    private static Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
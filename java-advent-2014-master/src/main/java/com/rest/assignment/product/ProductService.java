@@ -1,6 +1,10 @@
 package com.rest.assignment.product;
 
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * This interface declares the methods that provides CRUD operations for
@@ -16,6 +20,16 @@ interface ProductService {
      */
     ProductDTO create(ProductDTO product);
 
+    /**
+     * Creates new products in as few database round trips as possible. Every
+     * product is validated separately, and a product that is invalid or cannot be
+     * saved does not prevent the other products from being created.
+     * @param products  The information of the created products.
+     * @return          The result of every product in the order of the given products.
+     * @throws com.rest.assignment.product.TooManyProductsException if more products are given than allowed.
+     */
+    BulkCreateResultDTO createAll(List<ProductDTO> products);
+
     /**
      * Deletes a product.
      * @param id    The id of the deleted product.
@@ -25,11 +39,58 @@ interface ProductService {
     ProductDTO delete(String id);
 
     /**
-     * Finds all product.
+     * Finds all product. The products are read in one response, so this is only meant for small
+     * catalogs: {@link #findPage(String, int)} and {@link #exportAll(int, Consumer)}
+     * read catalogs of any size.
      * @return      The information of all product.
+     * @throws com.rest.assignment.product.CatalogTooLargeException if the catalog has more than
+     *         {@link ProductServiceImpl#MAX_FIND_ALL_SIZE} products.
      */
     List<ProductDTO> findAll();
 
+    /**
+     * Finds multiple products by id. The products that are cached are not read from the database,
+     * and the rest are read with a single query.
+     * @param ids   The ids of the requested products. Duplicate ids are ignored. Object ids are matched
+     *              in any case, and they are returned in lower case.
+     * @return      The found products in the order in which their ids were requested,
+     *              and the ids for which no product was found.
+     * @throws com.rest.assignment.product.TooManyIdsException if more ids are requested than allowed.
+     */
+    ProductBatchDTO findByIds(List<String> ids);
+
+    /**
+     * Finds a page of products ordered by id.
+     * @param pageToken The continuation token returned with the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of products on the page.
+     * @return          The information of the products on the page and the token of the next page.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the page token is malformed.
+     */
+    ProductPageDTO findPage(String pageToken, int limit);
+
+    /**
+     * Finds a page of the products that were created, changed, or deleted since the given token.
+     * The changes are ordered by the time at which they were made.
+     * @param token The token returned by the previous request, or null if all products are requested.
+     * @param limit The maximum number of created, changed, and deleted products on the page.
+     * @return      The information of the created and changed products, the ids of the deleted
+     *              products, and the token of the next request.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the token is malformed.
+     * @throws com.rest.assignment.product.ChangesTokenExpiredException if the deletions since the token
+     *         are no longer recorded.
+     */
+    ProductChangesDTO findChanges(String token, int limit);
+
+    /**
+     * Passes the information of every product to the given consumer without
+     * loading all products into memory.
+     * @param batchSize The number of products that are read from the database per round trip.
+     * @param consumer  The consumer that receives the information of the products.
+     * @return          The number of exported products.
+     */
+    long exportAll(int batchSize, Consumer<ProductDTO> consumer);
+
     /**
      * Finds a single product.
      * @param id    The id of the requested product.
@@ -39,18 +100,60 @@ interface ProductService {
     ProductDTO findById(String id);
 
     /**
-     * Updates the information of a product.
-     * @param product  The information of the updated product.
+     * Updates the information of a product. If the write-behind is enabled, an unconditional update
+     * is queued and written to the database later, but reads of the product return it right away.
+     * If a version is given in the If-Match header or in the information of the product, the product
+     * is only updated if it still has that version, without locking it.
+     * @param product           The information of the updated product.
+     * @param ifMatchVersion    The version of the If-Match header, or null if the header was not sent.
      * @return      The information of the updated product.
      * @throws com.rest.assignment.product.ProductNotFoundException if no product is found.
+     * @throws com.rest.assignment.product.ProductModifiedException if the version of the If-Match header
+     *         is not the current version of the product.
+     * @throws com.rest.assignment.product.ProductVersionConflictException if the version of the product
+     *         information is not the current version of the product.
+     * @throws com.rest.assignment.product.WriteBehindQueueFullException if the update cannot be queued.
      */
-    ProductDTO update(ProductDTO product);
-    
+    ProductDTO update(ProductDTO product, Long ifMatchVersion);
+
     /**
-     * Finds a product by type.
-     * @param id    The id of the requested product.
-     * @return      The information of the requested product.
+     * Updates only the given fields of a product. The versions are checked like the versions of
+     * {@link #update(ProductDTO, Long)}.
+     * @param id                The id of the updated product.
+     * @param patch             The changed fields of the product. Fields that are null are not changed.
+     * @param ifMatchVersion    The version of the If-Match header, or null if the header was not sent.
+     * @return      The information of the updated product.
      * @throws com.rest.assignment.product.ProductNotFoundException if no product is found.
+     * @throws com.rest.assignment.product.ProductModifiedException if the version of the If-Match header
+     *         is not the current version of the product.
+     * @throws com.rest.assignment.product.ProductVersionConflictException if the version of the patch
+     *         is not the current version of the product.
+     */
+    ProductDTO patch(String id, ProductPatchDTO patch, Long ifMatchVersion);
+
+    /**
+     * Finds a page of products of the given type ordered by id.
+     * @param type      The type of the requested products.
+     * @param pageToken The continuation token returned with the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of products on the page.
+     * @return          The information of the products on the page and the token of the next page.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the page token is malformed.
+     */
+    ProductPageDTO findByType(String type, String pageToken, int limit);
+
+    /**
+     * Finds a page of products whose price is within the given range, ordered by price.
+     * Products whose price is not a number are not returned.
+     * @param minPrice  The minimum price (inclusive), or null if there is no minimum price.
+     * @param maxPrice  The maximum price (inclusive), or null if there is no maximum price.
+     * @param direction The direction in which the products are ordered by price.
+     * @param pageToken The continuation token returned with the previous page, or null
+     *                  if the first page is requested.
+     * @param limit     The maximum number of products on the page.
+     * @return          The information of the products on the page and the token of the next page.
+     * @throws com.rest.assignment.product.InvalidPageTokenException if the page token is malformed.
      */
-    ProductDTO findByType(String type);
+    ProductPageDTO findByPrice(BigDecimal minPrice, BigDecimal maxPrice, Sort.Direction direction,
+                               String pageToken, int limit);
 }
@@ -1,13 +1,34 @@
 package com.rest.assignment.product;
 
+import com.rest.assignment.metrics.ServerTiming;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -20,57 +41,323 @@ final class ProductServiceImpl implements ProductService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductServiceImpl.class);
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    static final int MAX_FIND_ALL_SIZE = 10000;
+
+    static final int MAX_EXPORT_BATCH_SIZE = 5000;
+
+    static final int DEFAULT_BULK_CHUNK_SIZE = 500;
+
+    static final int MAX_BATCH_IDS = 500;
+
+    static final int MAX_BULK_SIZE = 10000;
+
+    static final long INITIAL_VERSION = 0;
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String VERSION = "version";
+
+    private static final ProductDTOValidator PRODUCT_VALIDATOR = new ProductDTOValidator();
+
     private final ProductRepository repository;
 
+    private final ProductCache cache;
+
+    private final ProductLookupCoalescer coalescer;
+
+    private final ProductIdFilter idFilter;
+
+    private final ProductWriteBehind writeBehind;
+
+    private final ProductChangeFeed changeFeed;
+
+    private final ProductEventStream events;
+
+    private final ProductCatalogVersion catalogVersion;
+
+    private final int bulkChunkSize;
+
     @Autowired
-    ProductServiceImpl(ProductRepository repository) {
+    ProductServiceImpl(ProductRepository repository,
+                       ProductCache cache,
+                       ProductLookupCoalescer coalescer,
+                       ProductIdFilter idFilter,
+                       ProductWriteBehind writeBehind,
+                       ProductChangeFeed changeFeed,
+                       ProductEventStream events,
+                       ProductCatalogVersion catalogVersion,
+                       @Value("${product.bulk.chunk-size:" + DEFAULT_BULK_CHUNK_SIZE + "}") int bulkChunkSize) {
         this.repository = repository;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.idFilter = idFilter;
+        this.writeBehind = writeBehind;
+        this.changeFeed = changeFeed;
+        this.events = events;
+        this.catalogVersion = catalogVersion;
+        this.bulkChunkSize = Math.max(1, bulkChunkSize);
     }
 
     @Override
     public ProductDTO create(ProductDTO product) {
         LOGGER.info("Creating a new product with information: {}", product);
 
-        Product persisted = Product.getBuilder()
-                .title(product.getTitle())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .type(product.getType())
-                .build();
+        Product persisted = convertToModel(product);
+        //The version is left empty, so the product is inserted and its version is initialized by Spring Data.
+        persisted.setLastModified(changeFeed.now());
 
         persisted = repository.save(persisted);
+        idFilter.add(persisted.getId());
+        cache.put(persisted);
         LOGGER.info("Created a new product with information: {}", persisted);
 
-        return convertToDTO(persisted);
+        return publish(ProductEvent.Kind.CREATED, convertToDTO(persisted));
+    }
+
+    @Override
+    public BulkCreateResultDTO createAll(List<ProductDTO> products) {
+        if (products.size() > MAX_BULK_SIZE) {
+            throw new TooManyProductsException(products.size(), MAX_BULK_SIZE);
+        }
+        LOGGER.info("Creating {} new products in chunks of {}", products.size(), bulkChunkSize);
+
+        BulkItemResultDTO[] results = new BulkItemResultDTO[products.size()];
+
+        List<Product> chunk = new ArrayList<>(bulkChunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(bulkChunkSize);
+
+        for (int index = 0; index < products.size(); index++) {
+            ProductDTO product = products.get(index);
+            String invalid = validate(product);
+            if (invalid != null) {
+                results[index] = BulkItemResultDTO.failed(index, invalid);
+                continue;
+            }
+            try {
+                chunk.add(convertToModel(product));
+                chunkIndexes.add(index);
+            }
+            catch (IllegalArgumentException | NullPointerException ex) {
+                results[index] = BulkItemResultDTO.failed(index, ex.getMessage());
+            }
+
+            if (chunk.size() == bulkChunkSize) {
+                insertChunk(chunk, chunkIndexes, results);
+                chunk = new ArrayList<>(bulkChunkSize);
+                chunkIndexes = new ArrayList<>(bulkChunkSize);
+            }
+        }
+        insertChunk(chunk, chunkIndexes, results);
+
+        BulkCreateResultDTO created = new BulkCreateResultDTO(Arrays.asList(results));
+        LOGGER.info("Created {} new products, {} products failed", created.getCreated(), created.getFailed());
+
+        return created;
+    }
+
+    /**
+     * The products of a bulk create are validated like a single created product,
+     * so an item is rejected with the field errors that are returned by the create.
+     */
+    private static String validate(ProductDTO product) {
+        Errors errors = new BeanPropertyBindingResult(product, "productDTO");
+        PRODUCT_VALIDATOR.validate(product, errors);
+        if (!errors.hasErrors()) {
+            return null;
+        }
+
+        return errors.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(joining("; "));
+    }
+
+    private void insertChunk(List<Product> chunk, List<Integer> chunkIndexes, BulkItemResultDTO[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        long lastModified = changeFeed.now();
+        //The bulk insert writes the documents directly, so it does not initialize the versions.
+        chunk.forEach(product -> {
+            product.setLastModified(lastModified);
+            product.setVersion(INITIAL_VERSION);
+        });
+
+        BulkInsertResult inserted;
+        try {
+            inserted = repository.insertAll(chunk);
+        }
+        catch (DataAccessException ex) {
+            LOGGER.error("Inserting a chunk of {} products failed", chunk.size(), ex);
+            inserted = new BulkInsertResult(Collections.emptyMap(), failAll(chunk.size(), ex.getMessage()));
+        }
+
+        for (Map.Entry<Integer, Product> entry : inserted.getInserted().entrySet()) {
+            idFilter.add(entry.getValue().getId());
+            int index = chunkIndexes.get(entry.getKey());
+            results[index] = BulkItemResultDTO.created(index,
+                    publish(ProductEvent.Kind.CREATED, convertToDTO(entry.getValue())));
+        }
+        for (Map.Entry<Integer, String> entry : inserted.getFailed().entrySet()) {
+            int index = chunkIndexes.get(entry.getKey());
+            results[index] = BulkItemResultDTO.failed(index, entry.getValue());
+        }
+    }
+
+    private static Map<Integer, String> failAll(int count, String error) {
+        Map<Integer, String> failed = new HashMap<>();
+        for (int index = 0; index < count; index++) {
+            failed.put(index, error);
+        }
+        return failed;
     }
 
     @Override
     public ProductDTO delete(String id) {
         LOGGER.info("Deleting a product with id: {}", id);
 
-        Product deleted = findProductById(id);
-        repository.delete(deleted);
+        writeBehind.flush(id);
+        //The deletion is recorded first, so if it cannot be recorded, the request fails and can be retried.
+        boolean recorded = changeFeed.recordDeletion(id);
+        Optional<Product> removed;
+        try {
+            removed = repository.findAndRemove(id);
+        }
+        catch (DataAccessException ex) {
+            cancelDeletion(id, recorded);
+            throw ex;
+        }
+        if (!removed.isPresent()) {
+            cancelDeletion(id, recorded);
+            throw new ProductNotFoundException(id);
+        }
+        Product deleted = removed.get();
+        //Ids cannot be removed from the id filter, so lookups of this id query the database until the filter is rebuilt.
+        cache.invalidate(id);
 
         LOGGER.info("Deleted product with informtation: {}", deleted);
 
-        return convertToDTO(deleted);
+        return publish(ProductEvent.Kind.DELETED, convertToDTO(deleted));
+    }
+
+    /**
+     * Increases the catalog version and publishes the change to the subscribers of the product
+     * events. The returned DTO is shared with the event, so it must not be changed after this.
+     */
+    private ProductDTO publish(ProductEvent.Kind kind, ProductDTO product) {
+        catalogVersion.productsChanged();
+        events.publish(kind, product);
+        return product;
+    }
+
+    /**
+     * Removes the recorded deletion of a product that was not deleted, if this request has recorded it. If it
+     * cannot be removed, the clients that read the changes remove the product until it is changed again, so the
+     * failure is only logged.
+     */
+    private void cancelDeletion(String id, boolean recorded) {
+        if (!recorded) {
+            return;
+        }
+        try {
+            changeFeed.cancelDeletion(id);
+        }
+        catch (DataAccessException ex) {
+            LOGGER.error("The recorded deletion of product with id: {} could not be removed", id, ex);
+        }
     }
 
     @Override
     public List<ProductDTO> findAll() {
         LOGGER.info("Finding all products.");
 
-        List<Product> products = repository.findAll();
+        //One extra product tells whether the catalog is too large without counting it.
+        List<Product> products = repository.findPage(null, MAX_FIND_ALL_SIZE + 1);
+        if (products.size() > MAX_FIND_ALL_SIZE) {
+            throw new CatalogTooLargeException(MAX_FIND_ALL_SIZE);
+        }
 
         LOGGER.info("Found {} products", products.size());
 
-        return convertToDTOs(products);
+        return convertToDTOs(writeBehind.overlay(products));
     }
 
-    private List<ProductDTO> convertToDTOs(List<Product> models) {
-        return models.stream()
-                .map(this::convertToDTO)
+    @Override
+    public ProductPageDTO findPage(String pageToken, int limit) {
+        LOGGER.info("Finding a page of at most {} products after token: {}", limit, pageToken);
+
+        int pageSize = toPageSize(limit);
+        String afterId = PageToken.decode(pageToken);
+
+        //One extra product tells whether another page exists without a second query.
+        List<Product> products = repository.findPage(afterId, pageSize + 1);
+
+        LOGGER.info("Found {} products", products.size());
+
+        return toPage(products, pageSize);
+    }
+
+    @Override
+    public long exportAll(int batchSize, Consumer<ProductDTO> consumer) {
+        LOGGER.info("Exporting all products in batches of {}", batchSize);
+
+        AtomicLong exported = new AtomicLong();
+        repository.forEach(Math.max(1, Math.min(batchSize, MAX_EXPORT_BATCH_SIZE)), product -> {
+            consumer.accept(convertToDTO(writeBehind.overlay(product)));
+            exported.incrementAndGet();
+        });
+
+        LOGGER.info("Exported {} products", exported.get());
+
+        return exported.get();
+    }
+
+    @Override
+    public ProductChangesDTO findChanges(String token, int limit) {
+        LOGGER.info("Finding at most {} changes of products after token: {}", limit, token);
+
+        ProductChangesDTO changes = changeFeed.findChanges(token, toPageSize(limit));
+
+        LOGGER.info("Found {} changed products and {} deleted products", changes.getProducts().size(),
+                changes.getDeleted().size());
+
+        return changes;
+    }
+
+    private static int toPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private ProductPageDTO toPage(List<Product> products, int pageSize) {
+        return toPage(products, pageSize, last -> PageToken.encode(last.getId()));
+    }
+
+    private ProductPageDTO toPage(List<Product> products, int pageSize, Function<Product, String> nextToken) {
+        if (products.size() <= pageSize) {
+            return new ProductPageDTO(convertToDTOs(writeBehind.overlay(products)), null);
+        }
+
+        //The token is created from the stored product, because the query matched its stored information.
+        List<Product> page = products.subList(0, pageSize);
+        String next = nextToken.apply(page.get(pageSize - 1));
+
+        return new ProductPageDTO(convertToDTOs(writeBehind.overlay(page)), next);
+    }
+
+    static List<ProductDTO> convertToDTOs(List<Product> models) {
+        ServerTiming timing = ServerTiming.current();
+        long start = System.nanoTime();
+
+        List<ProductDTO> dtos = models.stream()
+                .map(ProductServiceImpl::toDTO)
                 .collect(toList());
+
+        if (timing != null) {
+            timing.add(ServerTiming.Span.CONVERT, System.nanoTime() - start);
+        }
+        return dtos;
     }
 
     @Override
@@ -85,51 +372,354 @@ final class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public ProductDTO update(ProductDTO product) {
-        LOGGER.info("Updating product with information: {}", product);
+    public ProductBatchDTO findByIds(List<String> ids) {
+        LOGGER.info("Finding {} products by id", ids.size());
+
+        Set<String> requested = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (!id.isEmpty()) {
+                requested.add(normalizeId(id));
+            }
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new TooManyIdsException(requested.size(), MAX_BATCH_IDS);
+        }
+
+        Map<String, Product> found = new HashMap<>();
+        List<String> notCached = new ArrayList<>();
+        for (String id : requested) {
+            Product cached = writeBehind.pending(id);
+            if (cached == null) {
+                cached = cache.get(id);
+            }
+            if (cached != null) {
+                found.put(id, cached);
+            }
+            else if (idFilter.mightExist(id)) {
+                notCached.add(id);
+            }
+        }
+
+        if (!notCached.isEmpty()) {
+            Map<String, Long> generations = new HashMap<>();
+            for (String id : notCached) {
+                generations.put(id, cache.generation(id));
+            }
+            for (Product product : repository.findByIds(notCached)) {
+                found.put(product.getId(), product);
+                Long generation = generations.get(product.getId());
+                if (generation != null) {
+                    cache.putIfUnchanged(product, generation);
+                }
+            }
+        }
+
+        List<ProductDTO> products = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(convertToDTO(product));
+            }
+            else {
+                missing.add(id);
+            }
+        }
+
+        LOGGER.info("Found {} products, {} products were read from the database, {} ids are missing",
+                products.size(), notCached.size(), missing.size());
+
+        return new ProductBatchDTO(products, missing);
+    }
 
-        Product updated = findProductById(product.getId());
-        updated.update(product.getTitle(), product.getDescription(), product.getPrice(), product.getType());
-        updated = repository.save(updated);
+    /**
+     * Object ids are stored as object ids, so the database finds them in any case, but the found
+     * products and the cached products have the lower-case ids. An upper-case id is normalized so
+     * that its product is matched to it instead of being reported as missing.
+     */
+    private static String normalizeId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id).toHexString() : id;
+    }
+
+    @Override
+    public ProductDTO update(ProductDTO product, Long ifMatchVersion) {
+        LOGGER.info("Updating product with information: {} and If-Match version: {}", product, ifMatchVersion);
+
+        //A conditional update must be checked against the stored version, so it cannot be queued.
+        if (writeBehind.isEnabled() && ifMatchVersion == null && product.getVersion() == null) {
+            ProductDTO queued = enqueueUpdate(product);
+            if (queued != null) {
+                return queued;
+            }
+        }
+
+        Product validated = convertToModel(product);
+
+        writeBehind.flush(product.getId());
+        Product updated = findAndModify(product.getId(), toUpdate(validated, changeFeed.now()).inc(VERSION, 1),
+                ifMatchVersion, product.getVersion());
+        cache.putIfNewer(updated);
 
         LOGGER.info("Updated product with information: {}", updated);
 
-        return convertToDTO(updated);
+        return publish(ProductEvent.Kind.UPDATED, convertToDTO(updated));
     }
-    
+
+    /**
+     * Queues a validated update of an existing product, and returns the queued information.
+     * @return  The queued information, or null if the write-behind is closed, so the update must be written directly.
+     */
+    private ProductDTO enqueueUpdate(ProductDTO product) {
+        Product validated = convertToModel(product, product.getId());
+
+        //An update of an unknown id must fail now, because the client is not told about the bulk write.
+        //The version of the update follows the stored version, which is read again if updates were written meanwhile.
+        boolean queued;
+        do {
+            if (writeBehind.isClosed()) {
+                return null;
+            }
+            long generation = writeBehind.writeGeneration();
+            Product current = findProductById(product.getId());
+            queued = writeBehind.enqueue(validated, versionOf(current), generation);
+        }
+        while (!queued);
+        cache.invalidate(validated.getId());
+
+        LOGGER.info("Queued update of product with information: {}", validated);
+
+        return publish(ProductEvent.Kind.UPDATED, convertToDTO(validated));
+    }
+
     @Override
-    public ProductDTO findByType(String type) {
-        LOGGER.info("Finding product by type: {}", type);
+    public ProductDTO patch(String id, ProductPatchDTO patch, Long ifMatchVersion) {
+        LOGGER.info("Patching product with id: {} with information: {} and If-Match version: {}", id, patch,
+                ifMatchVersion);
 
-        Product found = findProductByType(type);
+        Product.checkPatch(patch.getTitle(), patch.getDescription(), patch.getPrice());
 
-        LOGGER.info("Found product: {}", found);
+        Update update = toUpdate(patch);
+        if (update.getUpdateObject().keySet().isEmpty()) {
+            LOGGER.info("Patch contains no changes");
+            Product found = findProductById(id);
+            checkVersion(found, ifMatchVersion, patch.getVersion());
+            return convertToDTO(found);
+        }
 
-        return convertToDTO(found);
+        writeBehind.flush(id);
+        update.set(LAST_MODIFIED, changeFeed.now()).inc(VERSION, 1);
+        Product patched = findAndModify(id, update, ifMatchVersion, patch.getVersion());
+        cache.putIfNewer(patched);
+
+        LOGGER.info("Patched product with information: {}", patched);
+
+        return publish(ProductEvent.Kind.UPDATED, convertToDTO(patched));
+    }
+
+    @Override
+    public ProductPageDTO findByType(String type, String pageToken, int limit) {
+        LOGGER.info("Finding a page of at most {} products by type: {} after token: {}", limit, type, pageToken);
+
+        int pageSize = toPageSize(limit);
+        String afterId = PageToken.decode(pageToken);
+
+        List<Product> products = coalescer.findPageByType(type, afterId, pageSize + 1,
+                () -> repository.findPageByType(type, afterId, pageSize + 1));
+
+        LOGGER.info("Found {} products", products.size());
+
+        return toPage(products, pageSize);
+    }
+
+    @Override
+    public ProductPageDTO findByPrice(BigDecimal minPrice, BigDecimal maxPrice, Sort.Direction direction,
+                                      String pageToken, int limit) {
+        LOGGER.info("Finding a page of at most {} products with price between {} and {} in {} order after token: {}",
+                limit, minPrice, maxPrice, direction, pageToken);
+
+        int pageSize = toPageSize(limit);
+        PageToken.PriceKey after = PageToken.decodePriceKey(pageToken);
+
+        List<Product> products = repository.findPageByPrice(toMinPrice(minPrice), toMaxPrice(maxPrice),
+                direction, after, pageSize + 1);
+
+        LOGGER.info("Found {} products", products.size());
+
+        return toPage(products, pageSize, last -> PageToken.encode(last.getPriceMinorUnits(), last.getId()));
+    }
+
+    /**
+     * A minimum price that does not fit in the minor units cannot match any product,
+     * so it is clamped instead of rejected.
+     */
+    private static long toMinPrice(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Product.toMinorUnits(minPrice.setScale(Product.PRICE_SCALE, RoundingMode.CEILING));
+        }
+        catch (ArithmeticException ex) {
+            return minPrice.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static long toMaxPrice(BigDecimal maxPrice) {
+        if (maxPrice == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Product.toMinorUnits(maxPrice.setScale(Product.PRICE_SCALE, RoundingMode.FLOOR));
+        }
+        catch (ArithmeticException ex) {
+            return maxPrice.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
     }
 
     private Product findProductById(String id) {
-    	Optional<Product> result = repository.findOne(id);
+        Product queued = writeBehind.pending(id);
+        if (queued != null) {
+            return queued;
+        }
+
+        Product cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!idFilter.mightExist(id)) {
+            throw new ProductNotFoundException(id);
+        }
+
+        //Concurrent misses of the same id share one query, and its result is cached once.
+        Optional<Product> result = coalescer.findOne(id, () -> {
+            //A product that is updated or deleted while it is read is not cached, so the cache is never stale.
+            long generation = cache.generation(id);
+            Optional<Product> found = repository.findOne(id);
+            if (found.isPresent()) {
+                cache.putIfUnchanged(found.get(), generation);
+            }
+            else {
+                idFilter.countFalsePositive();
+            }
+            return found;
+        });
         return result.orElseThrow(() -> new ProductNotFoundException(id));
-        
-        
+    }
+
+    /**
+     * Applies the update to the product. If the client has sent a version in the If-Match header
+     * or in the request body, the product is only updated if it still has that version.
+     * @throws ProductModifiedException         If the version of the If-Match header is not current.
+     * @throws ProductVersionConflictException  If the version of the request body is not current.
+     */
+    private Product findAndModify(String id, Update update, Long ifMatchVersion, Long version) {
+        if (ifMatchVersion == null && version == null) {
+            return repository.findAndModify(id, update).orElseThrow(() -> new ProductNotFoundException(id));
+        }
+
+        long expected = ifMatchVersion != null ? ifMatchVersion : version;
+        //If both versions are sent and differ, one of them is not current, so the update cannot succeed.
+        Optional<Product> updated = version == null || version == expected
+                ? repository.findAndModify(id, expected, update) : Optional.empty();
+        if (updated.isPresent()) {
+            return updated.get();
+        }
+
+        //Only failed updates read the product, to tell which version is not current.
+        Product current = repository.findOne(id).orElseThrow(() -> new ProductNotFoundException(id));
+        checkVersion(current, ifMatchVersion, version);
+
+        //A client has sent a version that the product had not reached yet, and reached after the update failed.
+        throw ifMatchVersion != null ? new ProductModifiedException(id, versionOf(current))
+                : new ProductVersionConflictException(id, version, versionOf(current));
+    }
+
+    private static void checkVersion(Product current, Long ifMatchVersion, Long version) {
+        long currentVersion = versionOf(current);
+        if (ifMatchVersion != null && ifMatchVersion != currentVersion) {
+            throw new ProductModifiedException(current.getId(), currentVersion);
+        }
+        if (version != null && version != currentVersion) {
+            throw new ProductVersionConflictException(current.getId(), version, currentVersion);
+        }
+    }
+
+    /**
+     * @return  The version of the product, where products that were stored before products had versions are at version zero.
+     */
+    static long versionOf(Product product) {
+        return product.getVersion() != null ? product.getVersion() : INITIAL_VERSION;
+    }
+
+    private Product convertToModel(ProductDTO dto) {
+        return convertToModel(dto, null);
+    }
+
+    private Product convertToModel(ProductDTO dto, String id) {
+        return Product.getBuilder()
+                .id(id)
+                .title(dto.getTitle())
+                .description(dto.getDescription())
+                .price(dto.getPrice())
+                .type(dto.getType())
+                .build();
+    }
+
+    /**
+     * Replaces the fields that can be changed by clients with $set, so fields
+     * written by other writers are left untouched. The caller sets the version.
+     */
+    static Update toUpdate(Product model, long lastModified) {
+        return new Update()
+                .set("title", model.getTitle())
+                .set("description", model.getDescription())
+                .set("price", model.getPrice())
+                .set("priceMinorUnits", model.getPriceMinorUnits())
+                .set("type", model.getType())
+                .set(LAST_MODIFIED, lastModified);
+    }
 
+    private static Update toUpdate(ProductPatchDTO patch) {
+        Update update = new Update();
+        setIfPresent(update, "title", patch.getTitle());
+        setIfPresent(update, "description", patch.getDescription());
+        if (patch.getPrice() != null) {
+            update.set("price", patch.getPrice());
+            update.set("priceMinorUnits", Product.toMinorUnits(patch.getPrice()));
+        }
+        setIfPresent(update, "type", patch.getType());
+        return update;
     }
-    
-    private Product findProductByType(String type) {
-        Optional<Product> result = repository.findByType(type);
-        return result.orElseThrow(() -> new ProductNotFoundException(type));
 
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    static ProductDTO convertToDTO(Product model) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return toDTO(model);
+        }
+
+        long start = System.nanoTime();
+        ProductDTO dto = toDTO(model);
+        timing.add(ServerTiming.Span.CONVERT, System.nanoTime() - start);
+        return dto;
     }
 
-    private ProductDTO convertToDTO(Product model) {
+    private static ProductDTO toDTO(Product model) {
         ProductDTO dto = new ProductDTO();
 
         dto.setId(model.getId());
         dto.setTitle(model.getTitle());
         dto.setDescription(model.getDescription());
         dto.setPrice(model.getPrice());
+        dto.setPriceMinorUnits(model.getPriceMinorUnits());
         dto.setType(model.getType());
+        dto.setVersion(versionOf(model));
 
         return dto;
     }
@@ -0,0 +1,53 @@
+package com.rest.assignment.product;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A tombstone records that a product was deleted, so that the clients that read the changes of
+ * the catalog learn about the deletion. Tombstones expire after the retention of the changes.
+ * @author Rohan Das
+ */
+@Document(collection = ProductTombstone.COLLECTION)
+final class ProductTombstone {
+
+    static final String COLLECTION = "product_tombstone";
+
+    @Id
+    private String id;
+
+    private Long lastModified;
+
+    /**
+     * The time of the deletion as a date, because only dates expire with a TTL index.
+     */
+    private Date deletedAt;
+
+    public ProductTombstone() {
+    }
+
+    ProductTombstone(String id, long deleted) {
+        this.id = id;
+        this.lastModified = deleted;
+        this.deletedAt = new Date(deleted);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductTombstone[id=" + this.id + ", lastModified=" + this.lastModified + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when the version sent with an update is not the current
+ * version of the product, because another client has changed the product since.
+ * @author Rohan Das
+ */
+public class ProductVersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long currentVersion;
+
+    public ProductVersionConflictException(String id, long version, long currentVersion) {
+        super(String.format("The product with id: <%s> was updated with version %d, but its current version is %d",
+                id, version, currentVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
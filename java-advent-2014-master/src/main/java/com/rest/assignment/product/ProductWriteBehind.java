@@ -0,0 +1,600 @@
+package com.rest.assignment.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This component queues accepted product updates and writes them to the database
+ * with bulk writes, so that a high volume of updates costs one round trip per batch
+ * instead of one per update.
+ * <p>
+ * The queue holds at most one update per product: a later update of a queued
+ * product replaces the earlier one, which is never written. The queue is flushed
+ * when it holds a full batch and every flush interval. When the queue is full,
+ * new updates wait for a flush until the offer timeout, and are rejected after that.
+ * When the application shuts down, the write-behind is closed and flushed, so later
+ * updates are not queued and must be written directly.
+ * </p>
+ * <p>
+ * Until an update has been written, it is returned by {@link #pending(String)},
+ * so that reads of the product see the queued information.
+ * </p>
+ * <p>
+ * Every accepted update gets the next version of the product, which is returned to
+ * the client before the update is written. The update sets that version when it is
+ * written, and is only written if the product still has the version that the update
+ * replaces, so a version never stands for two different contents of a product.
+ * An update that is not written, because a direct write changed the product after the update
+ * was queued, is counted as lost. The version of its product is then increased once more, so the
+ * version that was returned for the lost update is never current, and the product is published
+ * again, so the subscribers that received the lost update get the stored information.
+ * </p>
+ * @author Rohan Das
+ */
+@Component
+final class ProductWriteBehind implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductWriteBehind.class);
+
+    static final int DEFAULT_MAX_PENDING = 10000;
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+
+    static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 1000;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final String VERSION = "version";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final ProductRepository repository;
+
+    private final ProductCache cache;
+
+    private final ProductChangeFeed changeFeed;
+
+    private final ProductEventStream events;
+
+    private final ProductCatalogVersion catalogVersion;
+
+    private final boolean enabled;
+
+    private final int maxPending;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final long offerTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * The updates that wait for a flush in the order of their first update. Guarded by the lock.
+     */
+    private final LinkedHashMap<String, QueuedUpdate> queued = new LinkedHashMap<>();
+
+    /**
+     * The updates that are queued or are being written, so that reads do not need the lock.
+     */
+    private final Map<String, Product> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Bulk writes are made one at a time, so that a flush never overtakes a newer update of the same product.
+     */
+    private final Object writeLock = new Object();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * The number of written batches, which is increased before their updates stop being pending.
+     */
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder superseded = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder missing = new LongAdder();
+
+    private final LongAdder lost = new LongAdder();
+
+    private final LongAdder failedFlushes = new LongAdder();
+
+    /**
+     * Guarded by the lock.
+     */
+    private boolean closed;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    ProductWriteBehind(ProductRepository repository,
+                       ProductCache cache,
+                       ProductChangeFeed changeFeed,
+                       ProductEventStream events,
+                       ProductCatalogVersion catalogVersion,
+                       @Value("${product.write-behind.enabled:false}") boolean enabled,
+                       @Value("${product.write-behind.max-pending:" + DEFAULT_MAX_PENDING + "}") int maxPending,
+                       @Value("${product.write-behind.batch-size:" + DEFAULT_BATCH_SIZE + "}") int batchSize,
+                       @Value("${product.write-behind.flush-interval-millis:" + DEFAULT_FLUSH_INTERVAL_MILLIS + "}")
+                       long flushIntervalMillis,
+                       @Value("${product.write-behind.offer-timeout-millis:" + DEFAULT_OFFER_TIMEOUT_MILLIS + "}")
+                       long offerTimeoutMillis) {
+        this.repository = repository;
+        this.cache = cache;
+        this.changeFeed = changeFeed;
+        this.events = events;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.maxPending = Math.max(1, maxPending);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, offerTimeoutMillis));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+
+        LOGGER.info("Product updates are written behind in batches of {}, at most {} updates are queued",
+                batchSize, maxPending);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes the write-behind and writes the queued updates. A failed flush is retried until the shutdown timeout.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        //Tomcat is stopped after the beans are destroyed, so updates can still arrive.
+        lock.lock();
+        try {
+            closed = true;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        if (!enabled) {
+            return;
+        }
+
+        while (!flush() && System.nanoTime() < deadline) {
+            Thread.sleep(flushIntervalMillis);
+        }
+
+        lock.lock();
+        try {
+            if (!queued.isEmpty()) {
+                LOGGER.error("{} product updates could not be written before shutdown: {}",
+                        queued.size(), queued.values());
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return  true if the application shuts down, so updates are no longer queued.
+     */
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return  The generation of the written updates, which must be read before the stored version
+     *          of a product that is passed to {@link #enqueue(Product, long, long)} is read.
+     */
+    long writeGeneration() {
+        return writeGeneration.get();
+    }
+
+    /**
+     * Queues an update and sets its version to the next version of the product. If an update of
+     * the same product is queued, it is replaced.
+     * @param product       The new information of an existing product.
+     * @param storedVersion The version of the stored product, which is used if no update of the product is pending.
+     * @param generation    The write generation before the stored version was read.
+     * @return              false if the update was not queued, because the write-behind is closed, or because
+     *                      updates were written after the stored version was read, so it may be outdated. The
+     *                      stored version must then be read again.
+     * @throws WriteBehindQueueFullException    If the queue stays full until the offer timeout.
+     */
+    boolean enqueue(Product product, long storedVersion, long generation) {
+        String id = product.getId();
+        boolean fullBatch;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+
+            long remaining = offerTimeoutNanos;
+            while (queued.size() >= maxPending && !queued.containsKey(id)) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new WriteBehindQueueFullException(maxPending);
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+
+            QueuedUpdate replaced = queued.get(id);
+            Product written = pending.get(id);
+            long previousVersion;
+            long latestVersion;
+            if (replaced != null) {
+                //The replaced update is never written, so the update replaces the version that it would have replaced.
+                previousVersion = replaced.previousVersion;
+                latestVersion = replaced.product.getVersion();
+                superseded.increment();
+            }
+            else if (written != null) {
+                //The pending update is being written, so its version is stored before this update is written.
+                previousVersion = written.getVersion();
+                latestVersion = written.getVersion();
+            }
+            else if (writeGeneration.get() == generation) {
+                previousVersion = storedVersion;
+                latestVersion = storedVersion;
+            }
+            else {
+                return false;
+            }
+
+            product.setVersion(latestVersion + 1);
+            queued.put(id, new QueuedUpdate(product, previousVersion));
+            pending.put(id, product);
+            accepted.increment();
+            fullBatch = queued.size() >= batchSize;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new WriteBehindQueueFullException(maxPending);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (fullBatch && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            }
+            catch (RejectedExecutionException ex) {
+                //The write-behind was closed after the update was queued, so it is written by the final flush.
+                flushScheduled.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return  The queued information of the product, or null if no update of the product is waiting to be written.
+     */
+    Product pending(String id) {
+        return pending.isEmpty() ? null : pending.get(id);
+    }
+
+    /**
+     * @return  The queued information of the product, or the given product if no update of it is waiting to be written.
+     */
+    Product overlay(Product product) {
+        Product queuedProduct = pending(product.getId());
+        return queuedProduct != null ? queuedProduct : product;
+    }
+
+    /**
+     * @return  The given products, where every product whose update is waiting to be written
+     *          is replaced with its queued information. The given list is not changed.
+     */
+    List<Product> overlay(List<Product> products) {
+        if (pending.isEmpty()) {
+            return products;
+        }
+
+        List<Product> overlaid = new ArrayList<>(products.size());
+        for (Product product : products) {
+            overlaid.add(overlay(product));
+        }
+        return overlaid;
+    }
+
+    /**
+     * Writes the queued update of a product right away, so that a write that bypasses the
+     * queue is not overwritten by an earlier update when the queue is flushed.
+     * @throws DataAccessException  If the update cannot be written. It stays queued.
+     */
+    void flush(String id) {
+        if (pending(id) == null) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            QueuedUpdate update;
+            lock.lock();
+            try {
+                update = queued.remove(id);
+                notFull.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+
+            if (update != null) {
+                write(Collections.singletonList(update));
+            }
+        }
+    }
+
+    /**
+     * Writes all queued updates in batches. If a batch cannot be written, its updates
+     * are queued again and the flush stops.
+     * @return  true if all updates that were queued when the flush started have been written.
+     */
+    boolean flush() {
+        synchronized (writeLock) {
+            List<QueuedUpdate> batch = drain();
+            while (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                }
+                catch (DataAccessException ex) {
+                    LOGGER.error("Writing {} queued product updates failed, they are written by the next flush",
+                            batch.size(), ex);
+                    return false;
+                }
+                batch = drain();
+            }
+            return true;
+        }
+    }
+
+    private void flushQuietly() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        }
+        catch (RuntimeException ex) {
+            LOGGER.error("Flushing the queued product updates failed", ex);
+        }
+    }
+
+    private List<QueuedUpdate> drain() {
+        lock.lock();
+        try {
+            List<QueuedUpdate> batch = new ArrayList<>(Math.min(batchSize, queued.size()));
+            Iterator<QueuedUpdate> updates = queued.values().iterator();
+            while (batch.size() < batchSize && updates.hasNext()) {
+                batch.add(updates.next());
+                updates.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<QueuedUpdate> batch) {
+        //The updates become visible when they are written, so that is the time of their change.
+        long lastModified = changeFeed.now();
+        Map<String, Update> updates = new LinkedHashMap<>();
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (QueuedUpdate update : batch) {
+            Product product = update.product;
+            updates.put(product.getId(), ProductServiceImpl.toUpdate(product, lastModified)
+                    .set(VERSION, product.getVersion()));
+            versions.put(product.getId(), update.previousVersion);
+        }
+
+        int found;
+        try {
+            found = repository.updateAll(updates, versions);
+        }
+        catch (DataAccessException ex) {
+            failedFlushes.increment();
+            requeue(batch);
+            throw ex;
+        }
+
+        //The updates are checked while they are pending, so later writes of their products wait for this flush.
+        int notWritten = found < batch.size() ? checkNotWritten(batch) : 0;
+
+        for (QueuedUpdate update : batch) {
+            cache.invalidate(update.product.getId());
+        }
+        //A stored version that was read before the products stopped being pending may be outdated.
+        writeGeneration.incrementAndGet();
+        for (QueuedUpdate update : batch) {
+            //A newer update of the product stays pending until it has been written.
+            pending.remove(update.product.getId(), update.product);
+        }
+
+        written.add(batch.size() - notWritten);
+        LOGGER.debug("Wrote {} of {} queued product updates", batch.size() - notWritten, batch.size());
+    }
+
+    /**
+     * Reads the products of a batch in which some updates did not find their product at the replaced
+     * version. An update whose product has been deleted is counted as missing, and an update whose
+     * product does not have its version and information was lost to another write.
+     * @return  The number of updates that were not written.
+     */
+    private int checkNotWritten(List<QueuedUpdate> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        batch.forEach(update -> ids.add(update.product.getId()));
+
+        Map<String, Product> stored = new HashMap<>();
+        try {
+            repository.findByIds(ids).forEach(product -> stored.put(product.getId(), product));
+        }
+        catch (DataAccessException ex) {
+            //The batch has been written, so it is not queued again.
+            LOGGER.error("Checking which of {} written product updates were lost failed", batch.size(), ex);
+            return 0;
+        }
+
+        int notWritten = 0;
+        for (QueuedUpdate update : batch) {
+            Product product = stored.get(update.product.getId());
+            if (product == null) {
+                missing.increment();
+                notWritten++;
+                LOGGER.warn("The queued update: {} was not written, because its product was deleted", update);
+            }
+            else if (!sameInformation(product, update.product)) {
+                lost.increment();
+                notWritten++;
+                LOGGER.error("The queued update: {} was lost, because its product was changed by another write: {}",
+                        update, product);
+                republish(product.getId());
+            }
+        }
+        return notWritten;
+    }
+
+    private static boolean sameInformation(Product stored, Product written) {
+        return Objects.equals(stored.getVersion(), written.getVersion())
+                && Objects.equals(stored.getTitle(), written.getTitle())
+                && Objects.equals(stored.getDescription(), written.getDescription())
+                && Objects.equals(stored.getPrice(), written.getPrice())
+                && Objects.equals(stored.getType(), written.getType());
+    }
+
+    /**
+     * Increases the version of a product whose update was lost, because the client of the lost
+     * update was given the version that the other write stored, and publishes the stored product.
+     */
+    private void republish(String id) {
+        try {
+            repository.findAndModify(id, new Update().inc(VERSION, 1).set(LAST_MODIFIED, changeFeed.now()))
+                    .ifPresent(product -> {
+                        catalogVersion.productsChanged();
+                        events.publish(ProductEvent.Kind.UPDATED, ProductServiceImpl.convertToDTO(product));
+                    });
+        }
+        catch (DataAccessException ex) {
+            LOGGER.error("Publishing the product with id: {} after its update was lost failed", id, ex);
+        }
+    }
+
+    /**
+     * Queues failed updates again, unless they have been replaced by a newer update in the meantime.
+     * The updates are queued even if the queue is full, so that no accepted update is lost.
+     */
+    private void requeue(List<QueuedUpdate> batch) {
+        lock.lock();
+        try {
+            for (QueuedUpdate update : batch) {
+                QueuedUpdate newer = queued.putIfAbsent(update.product.getId(), update);
+                if (newer != null) {
+                    //The newer update expects the version of the failed update, which was not stored.
+                    newer.previousVersion = update.previousVersion;
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    ProductWriteBehindStats stats() {
+        int queuedCount;
+        lock.lock();
+        try {
+            queuedCount = queued.size();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return new ProductWriteBehindStats(enabled, queuedCount, maxPending, accepted.sum(), superseded.sum(),
+                rejected.sum(), written.sum(), missing.sum(), lost.sum(), failedFlushes.sum());
+    }
+
+    /**
+     * A queued update and the version that the product has before the update is written. Guarded by the lock.
+     */
+    private static final class QueuedUpdate {
+
+        private final Product product;
+
+        private long previousVersion;
+
+        private QueuedUpdate(Product product, long previousVersion) {
+            this.product = product;
+            this.previousVersion = previousVersion;
+        }
+
+        @Override
+        public String toString() {
+            return product.toString();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.rest.assignment.product;
+
+/**
+ * This class contains a snapshot of the state and counters of the write-behind queue of product updates.
+ * @author Rohan Das
+ */
+public final class ProductWriteBehindStats {
+
+    private final boolean enabled;
+
+    private final int queued;
+
+    private final int maxPending;
+
+    private final long accepted;
+
+    private final long superseded;
+
+    private final long rejected;
+
+    private final long written;
+
+    private final long missing;
+
+    private final long lost;
+
+    private final long failedFlushes;
+
+    ProductWriteBehindStats(boolean enabled, int queued, int maxPending, long accepted, long superseded,
+                            long rejected, long written, long missing, long lost, long failedFlushes) {
+        this.enabled = enabled;
+        this.queued = queued;
+        this.maxPending = maxPending;
+        this.accepted = accepted;
+        this.superseded = superseded;
+        this.rejected = rejected;
+        this.written = written;
+        this.missing = missing;
+        this.lost = lost;
+        this.failedFlushes = failedFlushes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return  The number of products whose update is waiting for the next flush.
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * @return  The number of updates that were queued.
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return  The number of queued updates that were replaced by a later update of the same product
+     *          before they were written.
+     */
+    public long getSuperseded() {
+        return superseded;
+    }
+
+    /**
+     * @return  The number of updates that were rejected because the queue was full.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return  The number of updates that were written to the database.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return  The number of queued updates that were not written, because their product had been deleted.
+     */
+    public long getMissing() {
+        return missing;
+    }
+
+    /**
+     * @return  The number of queued updates that were not written, because another write changed their
+     *          product after they were queued. Their products were published again with a new version.
+     */
+    public long getLost() {
+        return lost;
+    }
+
+    /**
+     * @return  The number of bulk writes that failed. Their updates are queued again.
+     */
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+}
@@ -0,0 +1,15 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client requests more products by id than
+ * can be fetched with a single request.
+ * @author Rohan Das
+ */
+public class TooManyIdsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyIdsException(int requested, int max) {
+        super(String.format("Requested %d ids but at most %d ids can be requested at once", requested, max));
+    }
+}
@@ -0,0 +1,16 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client tries to create more products than
+ * can be created with a single bulk request.
+ * @author Rohan Das
+ */
+public class TooManyProductsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyProductsException(int requested, int max) {
+        super(String.format("Tried to create %d products but at most %d products can be created at once",
+                requested, max));
+    }
+}
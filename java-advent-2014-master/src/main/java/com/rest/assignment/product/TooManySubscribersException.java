@@ -0,0 +1,15 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when a client subscribes to the product events while the
+ * maximum number of subscribers are subscribed.
+ * @author Rohan Das
+ */
+public class TooManySubscribersException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super(String.format("The product events already have %d subscribers", maxSubscribers));
+    }
+}
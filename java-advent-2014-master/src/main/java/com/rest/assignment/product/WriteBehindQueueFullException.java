@@ -0,0 +1,15 @@
+package com.rest.assignment.product;
+
+/**
+ * This exception is thrown when an update cannot be queued for a write-behind
+ * because the queue stayed full until the update timed out.
+ * @author Rohan Das
+ */
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public WriteBehindQueueFullException(int maxPending) {
+        super(String.format("The write-behind queue is full with %d pending product updates", maxPending));
+    }
+}
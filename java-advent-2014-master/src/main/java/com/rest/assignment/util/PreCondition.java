@@ -1,12 +1,22 @@
 package com.rest.assignment.util;
 
+import java.util.function.Supplier;
+
 /**
  * This class provides static utility methods that are used to ensure that a constructor or a method was invoked properly.
  * These methods throw an exception if the specified precondition is violated.
+ * <p>
+ * Error messages are only constructed when a precondition is violated. The overloads that take a primitive
+ * argument or a message supplier allocate nothing when the precondition holds, so they should be preferred on
+ * hot paths over the overload that takes a variable number of arguments.
+ * </p>
  *
  * @author Rohan Das
  */
 public final class PreCondition {
+
+    private PreCondition() {}
+
     /**
      * Ensures that the expression given as a method parameter is true.
      * @param expression The inspected expression.
@@ -17,7 +27,37 @@ public final class PreCondition {
      * @throws java.lang.IllegalArgumentException if the inspected exception is false.
      */
     public static void isTrue(boolean expression, String errorMessageTemplate, Object... errorMessageArguments) {
-        isTrue(expression, String.format(errorMessageTemplate, errorMessageArguments));
+        if (!expression) {
+            throw new IllegalArgumentException(String.format(errorMessageTemplate, errorMessageArguments));
+        }
+    }
+    /**
+     * Ensures that the expression given as a method parameter is true. This method allocates nothing
+     * if the expression is true.
+     * @param expression The inspected expression.
+     * @param errorMessageTemplate The template that is used to construct the message of the exception thrown if the
+     * inspected exception is false. The template must use the syntax that is supported
+     * by the {@link java.lang.String#format(String, Object...)} method.
+     * @param errorMessageArgument The argument that is used when the message of the thrown exception is constructed.
+     * @throws java.lang.IllegalArgumentException if the inspected exception is false.
+     */
+    public static void isTrue(boolean expression, String errorMessageTemplate, int errorMessageArgument) {
+        if (!expression) {
+            throw new IllegalArgumentException(String.format(errorMessageTemplate, errorMessageArgument));
+        }
+    }
+    /**
+     * Ensures that the expression given as a method parameter is true.
+     * @param expression The inspected expression.
+     * @param errorMessageSupplier The supplier of the error message that is passed forward to the exception that is
+     * thrown if the expression is false. It is only invoked if the expression is false. A lambda that captures no
+     * variables allocates nothing.
+     * @throws java.lang.IllegalArgumentException if the inspected expression is false.
+     */
+    public static void isTrue(boolean expression, Supplier<String> errorMessageSupplier) {
+        if (!expression) {
+            throw new IllegalArgumentException(errorMessageSupplier.get());
+        }
     }
     /**
      * Ensures that the expression given as a method parameter is true.
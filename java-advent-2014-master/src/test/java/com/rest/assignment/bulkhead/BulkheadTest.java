@@ -0,0 +1,129 @@
+package com.rest.assignment.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * @author Rohan Das
+ */
+public class BulkheadTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private Bulkhead bulkhead;
+
+    @After
+    public void tearDown() {
+        MDC.clear();
+        if (bulkhead != null) {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    public void submit_TaskReturnsValue_ShouldSetResult() throws InterruptedException {
+        bulkhead = new Bulkhead("test", 1, 1, TIMEOUT_MILLIS);
+
+        assertThat(await(bulkhead.submit(() -> "result"))).isEqualTo("result");
+    }
+
+    @Test
+    public void submit_TaskThrowsException_ShouldSetErrorResult() throws InterruptedException {
+        bulkhead = new Bulkhead("test", 1, 1, TIMEOUT_MILLIS);
+        IllegalStateException failure = new IllegalStateException();
+
+        assertThat(await(bulkhead.submit(() -> {
+            throw failure;
+        }))).isSameAs(failure);
+    }
+
+    @Test
+    public void submit_ShouldRunTaskWithMdcOfCurrentThread() throws InterruptedException {
+        bulkhead = new Bulkhead("test", 1, 1, TIMEOUT_MILLIS);
+        MDC.put("endpoint", "ProductController.findById");
+
+        assertThat(await(bulkhead.submit(() -> MDC.get("endpoint")))).isEqualTo("ProductController.findById");
+    }
+
+    @Test
+    public void submit_ThreadsBusyAndQueueFull_ShouldRejectTask() throws InterruptedException {
+        bulkhead = new Bulkhead("test", 1, 1, TIMEOUT_MILLIS);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        DeferredResult<Object> blocking = bulkhead.submit(() -> {
+            running.countDown();
+            return release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        });
+        assertThat(running.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        DeferredResult<Object> queued = bulkhead.submit(() -> "queued");
+
+        try {
+            bulkhead.submit(() -> "rejected");
+            throw new AssertionError("The task was not rejected");
+        }
+        catch (BulkheadFullException ex) {
+            assertThat(bulkhead.stats().getRejected()).isEqualTo(1);
+            assertThat(bulkhead.stats().getQueued()).isEqualTo(1);
+        }
+
+        release.countDown();
+        assertThat(await(blocking)).isEqualTo(true);
+        assertThat(await(queued)).isEqualTo("queued");
+    }
+
+    @Test
+    public void virtual_TasksBusyAndQueueFull_ShouldRejectTask() throws InterruptedException {
+        Assume.assumeTrue(VirtualThreads.isAvailable());
+        bulkhead = Bulkhead.virtual("test", 1, 1, TIMEOUT_MILLIS);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        DeferredResult<Object> blocking = bulkhead.submit(() -> {
+            running.countDown();
+            return release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        });
+        assertThat(running.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        DeferredResult<Object> queued = bulkhead.submit(() -> Thread.currentThread().getName());
+
+        try {
+            bulkhead.submit(() -> "rejected");
+            throw new AssertionError("The task was not rejected");
+        }
+        catch (BulkheadFullException ex) {
+            assertThat(bulkhead.stats().getActive()).isEqualTo(1);
+            assertThat(bulkhead.stats().getQueued()).isEqualTo(1);
+        }
+
+        release.countDown();
+        assertThat(await(blocking)).isEqualTo(true);
+        assertThat((String) await(queued)).startsWith("test-");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void virtual_VirtualThreadsNotAvailable_ShouldThrowException() {
+        Assume.assumeFalse(VirtualThreads.isAvailable());
+        Bulkhead.virtual("test", 1, 1, TIMEOUT_MILLIS);
+    }
+
+    private static Object await(DeferredResult<?> result) throws InterruptedException {
+        CountDownLatch set = new CountDownLatch(1);
+        AtomicReference<Object> value = new AtomicReference<>();
+        result.setResultHandler(resultValue -> {
+            value.set(resultValue);
+            set.countDown();
+        });
+
+        assertThat(set.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        return value.get();
+    }
+}
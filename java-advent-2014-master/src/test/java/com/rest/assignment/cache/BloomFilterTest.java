@@ -0,0 +1,52 @@
+package com.rest.assignment.cache;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class BloomFilterTest {
+
+    private static final int INSERTIONS = 10000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    public void mightContain_ValueAdded_ShouldReturnTrue() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int value = 0; value < INSERTIONS; value++) {
+            filter.put("added-" + value);
+        }
+
+        for (int value = 0; value < INSERTIONS; value++) {
+            assertThat(filter.mightContain("added-" + value)).isTrue();
+        }
+    }
+
+    @Test
+    public void mightContain_ValuesNotAdded_ShouldReturnTrueAtMostAboutAsOftenAsConfigured() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int value = 0; value < INSERTIONS; value++) {
+            filter.put("added-" + value);
+        }
+
+        int falsePositives = 0;
+        for (int value = 0; value < INSERTIONS; value++) {
+            if (filter.mightContain("other-" + value)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / INSERTIONS).isLessThan(FALSE_POSITIVE_RATE * 2);
+        assertThat(filter.estimateFalsePositiveRate()).isLessThan(FALSE_POSITIVE_RATE * 2);
+    }
+
+    @Test
+    public void mightContain_FilterIsEmpty_ShouldReturnFalse() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+
+        assertThat(filter.mightContain("value")).isFalse();
+        assertThat(filter.estimateFalsePositiveRate()).isEqualTo(0.0);
+    }
+}
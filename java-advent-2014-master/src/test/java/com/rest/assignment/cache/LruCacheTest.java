@@ -0,0 +1,83 @@
+package com.rest.assignment.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class LruCacheTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    @Test
+    public void get_KeyNotCached_ShouldReturnNullAndCountMiss() {
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.SECONDS);
+
+        assertThat(cache.get(KEY)).isNull();
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+        assertThat(cache.stats().getHits()).isEqualTo(0);
+    }
+
+    @Test
+    public void get_KeyCached_ShouldReturnValueAndCountHit() {
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.SECONDS);
+        cache.put(KEY, VALUE);
+
+        assertThat(cache.get(KEY)).isEqualTo(VALUE);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getHitRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void peek_KeyCached_ShouldReturnValueWithoutCountingHit() {
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.SECONDS);
+        cache.put(KEY, VALUE);
+
+        assertThat(cache.peek(KEY)).isEqualTo(VALUE);
+        assertThat(cache.peek("other")).isNull();
+        assertThat(cache.stats().getHits()).isEqualTo(0);
+        assertThat(cache.stats().getMisses()).isEqualTo(0);
+    }
+
+    @Test
+    public void put_CacheIsFull_ShouldEvictLeastRecentlyUsedEntry() {
+        LruCache<String, String> cache = new LruCache<>(2, 0, TimeUnit.SECONDS);
+        cache.put("first", VALUE);
+        cache.put("second", VALUE);
+        cache.get("first");
+
+        cache.put("third", VALUE);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_EntryOlderThanTimeToLive_ShouldReturnNullAndCountExpiration() {
+        AtomicLong now = new AtomicLong();
+        LruCache<String, String> cache = new LruCache<>(10, 5, TimeUnit.SECONDS, now::get);
+        cache.put(KEY, VALUE);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertThat(cache.get(KEY)).isNull();
+        assertThat(cache.stats().getExpirations()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidate_KeyCached_ShouldRemoveEntry() {
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.SECONDS);
+        cache.put(KEY, VALUE);
+
+        cache.invalidate(KEY);
+
+        assertThat(cache.get(KEY)).isNull();
+    }
+}
@@ -0,0 +1,193 @@
+package com.rest.assignment.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * @author Rohan Das
+ */
+public class SingleFlightTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    private static final int CALLERS = 8;
+
+    @Test
+    public void load_NoLoadInFlight_ShouldRunLoad() {
+        SingleFlight<String, String> flight = new SingleFlight<>(10);
+
+        assertThat(flight.load(KEY, () -> VALUE)).isEqualTo(VALUE);
+        assertThat(flight.stats().getLoads()).isEqualTo(1);
+        assertThat(flight.stats().getJoins()).isEqualTo(0);
+        assertThat(flight.stats().getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void load_ConcurrentCallersOfSameKey_ShouldShareSingleLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                results.add(executor.submit(() -> flight.load(KEY, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return VALUE;
+                })));
+            }
+
+            waitUntilJoined(flight, CALLERS - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(VALUE);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.stats().getJoinsByKey()).containsEntry(KEY, (long) CALLERS - 1);
+    }
+
+    @Test
+    public void load_LoadThrowsException_ShouldThrowSameExceptionToJoinedCallers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(10);
+        IllegalStateException thrown = new IllegalStateException();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flight.load(KEY, () -> {
+                await(release);
+                throw thrown;
+            }));
+            waitUntilInFlight(flight);
+
+            Future<String> follower = executor.submit(() -> flight.load(KEY, () -> VALUE));
+            waitUntilJoined(flight, 1);
+            release.countDown();
+
+            assertThrowsSame(leader, thrown);
+            assertThrowsSame(follower, thrown);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void load_MoreKeysJoinedThanTracked_ShouldCountOnlyTotalOfUntrackedKeys() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> flight.load(KEY, () -> {
+                await(release);
+                return VALUE;
+            }));
+            waitUntilInFlight(flight);
+            Future<String> follower = executor.submit(() -> flight.load(KEY, () -> VALUE));
+            waitUntilJoined(flight, 1);
+            release.countDown();
+            follower.get(5, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(flight.stats().getJoins()).isEqualTo(1);
+        assertThat(flight.stats().getJoinsByKey()).isEmpty();
+    }
+
+    @Test
+    public void load_NewKeyJoinedWhenAllKeysTracked_ShouldReplaceKeyWithFewestJoins() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(2);
+        join(flight, "rare");
+        join(flight, "frequent");
+        join(flight, "frequent");
+
+        join(flight, KEY);
+        join(flight, KEY);
+
+        assertThat(flight.stats().getJoins()).isEqualTo(5);
+        assertThat(flight.stats().getJoinsByKey())
+                .hasSize(2)
+                .containsEntry("frequent", 2L)
+                .containsEntry(KEY, 3L);
+    }
+
+    /**
+     * Makes a caller join the load of another caller.
+     */
+    private static void join(SingleFlight<String, String> flight, String key) throws Exception {
+        long joins = flight.stats().getJoins();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flight.load(key, () -> {
+                await(release);
+                return VALUE;
+            }));
+            waitUntilInFlight(flight);
+            Future<String> follower = executor.submit(() -> flight.load(key, () -> VALUE));
+            waitUntilJoined(flight, joins + 1);
+            release.countDown();
+            leader.get(5, TimeUnit.SECONDS);
+            follower.get(5, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertThrowsSame(Future<String> result, Exception expected) throws Exception {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Expected an exception");
+        }
+        catch (java.util.concurrent.ExecutionException ex) {
+            assertThat(ex.getCause()).isSameAs(expected);
+        }
+    }
+
+    private static void waitUntilInFlight(SingleFlight<?, ?> flight) throws InterruptedException {
+        while (flight.stats().getInFlight() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void waitUntilJoined(SingleFlight<?, ?> flight, long joins) throws InterruptedException {
+        while (flight.stats().getJoins() < joins) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
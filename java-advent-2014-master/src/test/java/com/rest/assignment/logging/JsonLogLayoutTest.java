@@ -0,0 +1,47 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class JsonLogLayoutTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @After
+    public void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    public void doLayout_ShouldWriteEventAsOneJsonLine() throws Exception {
+        MDC.put(LogSampling.ENDPOINT_KEY, "ProductController.findById");
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("logger"), Level.INFO,
+                "Found product: {}", new IllegalStateException("\"quoted\""), new Object[] {"id"});
+        event.setTimeStamp(0);
+
+        JsonLogLayout layout = new JsonLogLayout();
+        String line = layout.doLayout(event);
+
+        assertThat(line).endsWith(System.lineSeparator());
+        assertThat(line.trim()).doesNotContain("\n");
+
+        JsonNode json = new ObjectMapper().readTree(line);
+        assertThat(json.get("timestamp").asText()).isEqualTo("1970-01-01T00:00:00Z");
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("logger").asText()).isEqualTo("logger");
+        assertThat(json.get("message").asText()).isEqualTo("Found product: id");
+        assertThat(json.get("endpoint").asText()).isEqualTo("ProductController.findById");
+        assertThat(json.get("exception").asText()).contains("IllegalStateException: \"quoted\"");
+    }
+}
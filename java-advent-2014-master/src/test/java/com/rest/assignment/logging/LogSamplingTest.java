@@ -0,0 +1,76 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class LogSamplingTest {
+
+    private final LogSamplingTurboFilter turboFilter = new LogSamplingTurboFilter();
+
+    private final ch.qos.logback.classic.Logger logger = new LoggerContext().getLogger("test");
+
+    @After
+    public void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    public void parseRates_ShouldReturnRateOfEveryEndpoint() {
+        Map<String, Double> rates = LogSampling.parseRates(" ProductController.findById=0.01, ProductController.findAll = 0.5,");
+
+        assertThat(rates).hasSize(2);
+        assertThat(rates.get("ProductController.findById")).isEqualTo(0.01);
+        assertThat(rates.get("ProductController.findAll")).isEqualTo(0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRates_PairHasNoRate_ShouldThrowException() {
+        LogSampling.parseRates("ProductController.findById");
+    }
+
+    @Test
+    public void rateOf_EndpointHasNoRate_ShouldReturnDefaultRate() {
+        LogSampling sampling = new LogSampling(0.25, "ProductController.findById=0.01");
+
+        assertThat(sampling.rateOf("ProductController.findById")).isEqualTo(0.01);
+        assertThat(sampling.rateOf("ProductController.findAll")).isEqualTo(0.25);
+    }
+
+    @Test
+    public void sample_RateIsZeroOrOne_ShouldNeverOrAlwaysSample() {
+        for (int request = 0; request < 1000; request++) {
+            assertThat(LogSampling.sample(0.0)).isFalse();
+            assertThat(LogSampling.sample(1.0)).isTrue();
+        }
+    }
+
+    @Test
+    public void decide_RequestWasNotSampled_ShouldDenyEventsBelowWarn() {
+        MDC.put(LogSampling.SAMPLED_KEY, LogSampling.NOT_SAMPLED);
+
+        assertThat(decide(Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(Level.DEBUG)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    public void decide_RequestWasSampled_ShouldNotDenyEvents() {
+        assertThat(decide(Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decide(Level level) {
+        return turboFilter.decide(null, logger, level, "message", null, null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rest.assignment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class NonBlockingAsyncAppenderTest {
+
+    private static final int QUEUE_SIZE = 2;
+
+    private static final int THREADS = 8;
+
+    private static final int EVENTS_PER_THREAD = 100;
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final CountDownLatch firstEventTaken = new CountDownLatch(1);
+
+    private NonBlockingAsyncAppender appender;
+
+    @Before
+    public void setUp() {
+        AppenderBase<ILoggingEvent> blockedAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                firstEventTaken.countDown();
+                try {
+                    release.await();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blockedAppender.setContext(context);
+        blockedAppender.start();
+
+        appender = new NonBlockingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(QUEUE_SIZE);
+        appender.setDiscardingThreshold(0);
+        appender.addAppender(blockedAppender);
+        appender.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test(timeout = 5000)
+    public void doAppend_QueueIsFull_ShouldDropEventsWithoutBlocking() throws InterruptedException {
+        appender.doAppend(event());
+        assertThat(firstEventTaken.await(1, TimeUnit.SECONDS)).isTrue();
+
+        for (int index = 0; index < 10; index++) {
+            appender.doAppend(event());
+        }
+
+        assertThat(appender.getNumberOfElementsInQueue()).isEqualTo(QUEUE_SIZE);
+        assertThat(appender.getDropped()).isEqualTo(8);
+    }
+
+    @Test(timeout = 5000)
+    public void doAppend_ThreadsFillQueueAtSameTime_ShouldCountEveryDroppedEventWithoutBlocking() throws Exception {
+        appender.doAppend(event());
+        assertThat(firstEventTaken.await(1, TimeUnit.SECONDS)).isTrue();
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> appended = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                appended.add(threads.submit(() -> {
+                    start.await();
+                    for (int index = 0; index < EVENTS_PER_THREAD; index++) {
+                        appender.doAppend(event());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> thread : appended) {
+                thread.get();
+            }
+        }
+        finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(appender.getNumberOfElementsInQueue()).isEqualTo(QUEUE_SIZE);
+        assertThat(appender.getDropped()).isEqualTo(THREADS * EVENTS_PER_THREAD - QUEUE_SIZE);
+    }
+
+    private LoggingEvent event() {
+        return new LoggingEvent("test", context.getLogger("test"), Level.INFO, "message", null, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.rest.assignment.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * @author Rohan Das
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void getValueAtPercentile_NoValues_ShouldReturnZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getValueAtPercentile(99.0)).isEqualTo(0);
+        assertThat(histogram.getTotalCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void getValueAtPercentile_SmallValues_ShouldReturnExactValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.getValueAtPercentile(50.0)).isEqualTo(50);
+        assertThat(histogram.getValueAtPercentile(99.0)).isEqualTo(99);
+        assertThat(histogram.getValueAtPercentile(100.0)).isEqualTo(100);
+        assertThat(histogram.getMax()).isEqualTo(100);
+    }
+
+    @Test
+    public void getValueAtPercentile_LargeValues_ShouldReturnValuesWithinTwoPercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat((double) histogram.getValueAtPercentile(50.0)).isEqualTo(5000000, offset(100000.0));
+        assertThat((double) histogram.getValueAtPercentile(90.0)).isEqualTo(9000000, offset(180000.0));
+        assertThat((double) histogram.getValueAtPercentile(99.9)).isEqualTo(9990000, offset(199800.0));
+        assertThat(histogram.getValueAtPercentile(100.0)).isEqualTo(10000000);
+    }
+
+    @Test
+    public void record_ValueIsNegativeOrTooLarge_ShouldClampValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.getValueAtPercentile(50.0)).isEqualTo(0);
+        assertThat(histogram.getMax()).isEqualTo(LatencyHistogram.MAX_TRACKABLE_VALUE);
+    }
+
+    @Test
+    public void indexOf_EveryPowerOfTwo_ShouldReturnBucketThatContainsValue() {
+        for (int bit = 0; bit < 44; bit++) {
+            long value = 1L << bit;
+            int index = LatencyHistogram.indexOf(value);
+
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value).isTrue();
+        }
+    }
+
+    @Test
+    public void add_ShouldAddValuesOfOtherHistogram() {
+        LatencyHistogram first = new LatencyHistogram();
+        first.record(10);
+        LatencyHistogram second = new LatencyHistogram();
+        second.record(20);
+        second.record(30);
+
+        first.add(second);
+
+        assertThat(first.getTotalCount()).isEqualTo(3);
+        assertThat(first.getValueAtPercentile(50.0)).isEqualTo(20);
+        assertThat(first.getMax()).isEqualTo(30);
+    }
+}
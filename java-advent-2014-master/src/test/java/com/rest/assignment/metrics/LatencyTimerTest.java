@@ -0,0 +1,69 @@
+package com.rest.assignment.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * @author Rohan Das
+ */
+public class LatencyTimerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void snapshot_ShouldReturnCountsAndPercentilesInMillis() {
+        LatencyTimer timer = new LatencyTimer(60, TimeUnit.SECONDS, now::get);
+        for (int call = 1; call <= 100; call++) {
+            timer.record(call * MILLI, call % 10 == 0);
+        }
+        now.set(10 * SECOND);
+
+        LatencyTimerSnapshot snapshot = timer.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getErrors()).isEqualTo(10);
+        assertThat(snapshot.getWindowCount()).isEqualTo(100);
+        assertThat(snapshot.getRate()).isEqualTo(10.0, offset(0.001));
+        assertThat(snapshot.getMean()).isEqualTo(50.5, offset(0.001));
+        assertThat(snapshot.getP50()).isEqualTo(50.0, offset(1.0));
+        assertThat(snapshot.getP99()).isEqualTo(99.0, offset(2.0));
+        assertThat(snapshot.getMax()).isEqualTo(100.0);
+    }
+
+    @Test
+    public void snapshot_WindowHasPassed_ShouldIncludePreviousWindow() {
+        LatencyTimer timer = new LatencyTimer(60, TimeUnit.SECONDS, now::get);
+        timer.record(100 * MILLI, false);
+        now.set(70 * SECOND);
+        timer.record(MILLI, false);
+
+        LatencyTimerSnapshot snapshot = timer.snapshot();
+
+        assertThat(snapshot.getWindowCount()).isEqualTo(2);
+        assertThat(snapshot.getMax()).isEqualTo(100.0, offset(2.0));
+    }
+
+    @Test
+    public void snapshot_TwoWindowsHavePassed_ShouldOnlyKeepCumulativeCounts() {
+        LatencyTimer timer = new LatencyTimer(60, TimeUnit.SECONDS, now::get);
+        timer.record(100 * MILLI, true);
+        now.set(130 * SECOND);
+
+        LatencyTimerSnapshot snapshot = timer.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1);
+        assertThat(snapshot.getErrors()).isEqualTo(1);
+        assertThat(snapshot.getWindowCount()).isEqualTo(0);
+        assertThat(snapshot.getP99()).isEqualTo(0.0);
+        assertThat(snapshot.getRate()).isEqualTo(0.0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.rest.assignment.metrics;
+
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class PrometheusFormatTest {
+
+    @Test
+    public void write_ShouldWriteSummaryAndErrorCounterOfEveryGroup() {
+        Map<String, LatencyTimerSnapshot> timers = new TreeMap<>();
+        timers.put("ProductController.findById",
+                new LatencyTimerSnapshot(4, 1, 8000000, 4, 1.0, 1000000, 2000000, 3000000, 4000000, 5000000));
+        Map<TimerGroup, Map<String, LatencyTimerSnapshot>> snapshot = new EnumMap<>(TimerGroup.class);
+        snapshot.put(TimerGroup.REQUESTS, timers);
+
+        String text = PrometheusFormat.write(snapshot);
+
+        assertThat(text).isEqualTo(
+                "# HELP http_server_requests_seconds The latency of the HTTP requests by controller method.\n" +
+                "# TYPE http_server_requests_seconds summary\n" +
+                "http_server_requests_seconds{handler=\"ProductController.findById\",quantile=\"0.5\"} 0.001\n" +
+                "http_server_requests_seconds{handler=\"ProductController.findById\",quantile=\"0.9\"} 0.002\n" +
+                "http_server_requests_seconds{handler=\"ProductController.findById\",quantile=\"0.99\"} 0.003\n" +
+                "http_server_requests_seconds{handler=\"ProductController.findById\",quantile=\"0.999\"} 0.004\n" +
+                "http_server_requests_seconds_sum{handler=\"ProductController.findById\"} 0.008\n" +
+                "http_server_requests_seconds_count{handler=\"ProductController.findById\"} 4\n" +
+                "# HELP http_server_requests_errors_total The number of failed calls.\n" +
+                "# TYPE http_server_requests_errors_total counter\n" +
+                "http_server_requests_errors_total{handler=\"ProductController.findById\"} 1\n");
+    }
+}
@@ -0,0 +1,83 @@
+package com.rest.assignment.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class ServerTimingResponseWrapperTest {
+
+    private static final int BUFFER_SIZE = 8;
+
+    private static final String HEADER_VALUE = "total;dur=1.0";
+
+    private MockHttpServletResponse response;
+
+    private AtomicInteger headersWritten;
+
+    private ServerTimingResponseWrapper wrapper;
+
+    @Before
+    public void setUp() {
+        response = new MockHttpServletResponse();
+        headersWritten = new AtomicInteger();
+        wrapper = new ServerTimingResponseWrapper(response, BUFFER_SIZE, () -> {
+            headersWritten.incrementAndGet();
+            response.setHeader(ServerTimingFilter.HEADER, HEADER_VALUE);
+        });
+    }
+
+    @Test
+    public void finish_BodyFitsIntoBuffer_ShouldWriteHeaderBeforeBody() throws IOException {
+        wrapper.getOutputStream().write("body".getBytes("UTF-8"));
+        wrapper.getOutputStream().flush();
+
+        assertThat(headersWritten.get()).isEqualTo(0);
+        assertThat(response.isCommitted()).isFalse();
+
+        wrapper.finish();
+
+        assertThat(response.getHeader(ServerTimingFilter.HEADER)).isEqualTo(HEADER_VALUE);
+        assertThat(response.getContentAsString()).isEqualTo("body");
+    }
+
+    @Test
+    public void write_BodyDoesNotFitIntoBuffer_ShouldWriteHeaderAndBody() throws IOException {
+        wrapper.getOutputStream().write("long body".getBytes("UTF-8"));
+
+        assertThat(headersWritten.get()).isEqualTo(1);
+        assertThat(response.getContentAsString()).isEqualTo("long body");
+
+        wrapper.finish();
+
+        assertThat(headersWritten.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void flushBuffer_ShouldWriteHeaderAndHeldBackBody() throws IOException {
+        wrapper.getWriter().write("body");
+        wrapper.flushBuffer();
+
+        assertThat(headersWritten.get()).isEqualTo(1);
+        assertThat(response.getContentAsString()).isEqualTo("body");
+        assertThat(response.isCommitted()).isTrue();
+    }
+
+    @Test
+    public void sendError_ShouldDiscardHeldBackBodyAndWriteHeader() throws IOException {
+        wrapper.getOutputStream().write("body".getBytes("UTF-8"));
+        wrapper.sendError(500);
+        wrapper.finish();
+
+        assertThat(headersWritten.get()).isEqualTo(1);
+        assertThat(response.getStatus()).isEqualTo(500);
+        assertThat(response.getContentAsString()).isEmpty();
+    }
+}
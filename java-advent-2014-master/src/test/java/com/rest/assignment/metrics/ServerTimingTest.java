@@ -0,0 +1,46 @@
+package com.rest.assignment.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class ServerTimingTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void toHeaderValue_NoSpans_ShouldReturnTotalTime() {
+        ServerTiming timing = new ServerTiming(0);
+
+        assertThat(timing.toHeaderValue(1500000)).isEqualTo("total;dur=1.5");
+    }
+
+    @Test
+    public void toHeaderValue_HandlerWasTimed_ShouldReturnControllerTimeAndSpans() {
+        ServerTiming timing = new ServerTiming(0);
+        timing.startHandler(MILLI);
+        timing.add(ServerTiming.Span.SERVICE, 5 * MILLI);
+        timing.add(ServerTiming.Span.DB, 3 * MILLI);
+        timing.add(ServerTiming.Span.DB, MILLI);
+        timing.add(ServerTiming.Span.SERIALIZE, 2 * MILLI);
+        timing.endHandler(11 * MILLI);
+
+        assertThat(timing.toHeaderValue(12 * MILLI)).isEqualTo(
+                "total;dur=12.0, controller;dur=3.0, handler;dur=10.0, service;dur=5.0, db;dur=4.0, serialize;dur=2.0");
+    }
+
+    @Test
+    public void endHandler_CalledTwice_ShouldTimeHandlerOnce() {
+        ServerTiming timing = new ServerTiming(0);
+        timing.startHandler(0);
+        timing.endHandler(MILLI);
+        timing.endHandler(2 * MILLI);
+
+        assertThat(timing.getNanos(ServerTiming.Span.HANDLER)).isEqualTo(MILLI);
+    }
+}
@@ -0,0 +1,186 @@
+package com.rest.assignment.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Rohan Das
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class IndexVerifierTest {
+
+    private static final String COLLECTION = "indexed";
+
+    private static final RequiredIndex TYPE_INDEX = RequiredIndex.ascending(Indexed.class, "type_id", "type", "_id");
+
+    private static final RequiredIndex TTL_INDEX = RequiredIndex.ttl(Indexed.class, "deletedAt_ttl", "deletedAt", 60);
+
+    private static final RequiredIndex TEXT_INDEX = RequiredIndex.text(Indexed.class, "title_text", "title", "description");
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private DBCollection collection;
+
+    private final List<DBObject> existingIndexes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        when(mongoOperations.getCollectionName(Indexed.class)).thenReturn(COLLECTION);
+        when(mongoOperations.getCollection(COLLECTION)).thenReturn(collection);
+        when(collection.getIndexInfo()).thenReturn(existingIndexes);
+    }
+
+    @Test
+    public void verify_IndexWithSameKeysExists_ShouldNotReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "other")
+                .append("key", new BasicDBObject("type", 1.0).append("_id", 1.0)));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true).verify();
+
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    public void verify_IndexWithKeysInOtherOrderExists_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "other")
+                .append("key", new BasicDBObject("_id", 1).append("type", 1)));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true).verify();
+
+        assertThat(missing).containsExactly(TYPE_INDEX);
+    }
+
+    @Test
+    public void verify_IndexWithSameNameAndOtherKeysExists_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "type_id")
+                .append("key", new BasicDBObject("type", 1)));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true).verify();
+
+        assertThat(missing).containsExactly(TYPE_INDEX);
+    }
+
+    @Test
+    public void verify_TtlIndexWithOtherExpirationExists_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "deletedAt_ttl")
+                .append("key", new BasicDBObject("deletedAt", 1))
+                .append("expireAfterSeconds", 3600));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.CREATE, true, TTL_INDEX).verify();
+
+        assertThat(missing).containsExactly(TTL_INDEX);
+        verify(collection, never()).createIndex(any(DBObject.class), any(DBObject.class));
+    }
+
+    @Test
+    public void verify_TtlIndexWithSameExpirationExists_ShouldNotReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "deletedAt_ttl")
+                .append("key", new BasicDBObject("deletedAt", 1))
+                .append("expireAfterSeconds", 60.0));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true, TTL_INDEX).verify();
+
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    public void verify_IndexWithSameKeysExpiresDocuments_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "other")
+                .append("key", new BasicDBObject("type", 1).append("_id", 1))
+                .append("expireAfterSeconds", 60));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true).verify();
+
+        assertThat(missing).containsExactly(TYPE_INDEX);
+    }
+
+    @Test
+    public void verify_SparseIndexWithSameKeysExists_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "type_id")
+                .append("key", new BasicDBObject("type", 1).append("_id", 1))
+                .append("sparse", true));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true).verify();
+
+        assertThat(missing).containsExactly(TYPE_INDEX);
+    }
+
+    @Test
+    public void verify_TextIndexWithSameFieldsExists_ShouldNotReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "title_text")
+                .append("key", new BasicDBObject("_fts", "text").append("_ftsx", 1))
+                .append("weights", new BasicDBObject("description", 1).append("title", 1)));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true, TEXT_INDEX).verify();
+
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    public void verify_TextIndexWithOtherFieldsExists_ShouldReportIndex() {
+        existingIndexes.add(new BasicDBObject("name", "title_text")
+                .append("key", new BasicDBObject("_fts", "text").append("_ftsx", 1))
+                .append("weights", new BasicDBObject("title", 1)));
+
+        List<RequiredIndex> missing = verifier(IndexVerifier.Mode.VERIFY, true, TEXT_INDEX).verify();
+
+        assertThat(missing).containsExactly(TEXT_INDEX);
+    }
+
+    @Test
+    public void verify_VerifyModeAndIndexMissing_ShouldNotCreateIndex() {
+        verifier(IndexVerifier.Mode.VERIFY, false).afterPropertiesSet();
+
+        verify(collection, never()).createIndex(any(DBObject.class), any(DBObject.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void afterPropertiesSet_FailFastAndIndexMissing_ShouldThrowException() {
+        verifier(IndexVerifier.Mode.VERIFY, true).afterPropertiesSet();
+    }
+
+    @Test
+    public void afterPropertiesSet_CreateModeAndIndexMissing_ShouldCreateIndex() {
+        when(collection.getIndexInfo()).thenReturn(
+                Collections.emptyList(),
+                Arrays.asList(new BasicDBObject("name", "type_id").append("key", TYPE_INDEX.getKeys()))
+        );
+
+        verifier(IndexVerifier.Mode.CREATE, true).afterPropertiesSet();
+
+        verify(collection, times(1)).createIndex(TYPE_INDEX.getKeys(), new BasicDBObject("name", "type_id"));
+    }
+
+    private IndexVerifier verifier(IndexVerifier.Mode mode, boolean failFast) {
+        return verifier(mode, failFast, TYPE_INDEX);
+    }
+
+    private IndexVerifier verifier(IndexVerifier.Mode mode, boolean failFast, RequiredIndex index) {
+        RequiredIndexes declaration = () -> Arrays.asList(index);
+        return new IndexVerifier(mongoOperations, Arrays.asList(declaration), mode, failFast);
+    }
+
+    private static final class Indexed {
+    }
+}
@@ -14,6 +14,8 @@ class ProductBuilder {
     private String title = "NOT_IMPORTANT";
     private String price;
     private String type;
+    private Long lastModified;
+    private Long version;
 
     ProductBuilder() {
 
@@ -44,6 +46,16 @@ class ProductBuilder {
         return this;
     }
 
+    ProductBuilder lastModified(long lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    ProductBuilder version(long version) {
+        this.version = version;
+        return this;
+    }
+
     Product build() {
         Product product = Product.getBuilder()
                 .title(title)
@@ -53,6 +65,8 @@ class ProductBuilder {
                 .build();
 
         ReflectionTestUtils.setField(product, "id", id);
+        product.setLastModified(lastModified);
+        product.setVersion(version);
 
         return product;
     }
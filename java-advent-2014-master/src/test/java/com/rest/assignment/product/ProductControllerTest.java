@@ -1,5 +1,7 @@
 package com.rest.assignment.product;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -7,14 +9,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
 
+import com.rest.assignment.bulkhead.Bulkhead;
 import com.rest.assignment.error.RestErrorHandler;
 import com.rest.assignment.product.ProductController;
 import com.rest.assignment.product.ProductDTO;
@@ -22,24 +30,34 @@ import com.rest.assignment.product.ProductNotFoundException;
 import com.rest.assignment.product.ProductService;
 
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static com.rest.assignment.product.ProductDTOAssert.assertThatProductDTO;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -58,22 +76,57 @@ public class ProductControllerTest {
     private static final String TITLE = "title";
     private static final String PRICE = "price";
     private static final String TYPE = "type";
+    private static final String NEXT = "next";
 
     private static final int MAX_LENGTH_DESCRIPTION = 500;
     private static final int MAX_LENGTH_TITLE = 100;
 
+    private static final int BULKHEAD_THREADS = 2;
+    private static final int BULKHEAD_QUEUE_SIZE = 10;
+    private static final long BULKHEAD_TIMEOUT_MILLIS = 5000;
+
     @Mock
     private ProductService service;
 
+    private ProductBulkheads bulkheads;
+
+    private ProductCatalogVersion catalogVersion;
+
     private MockMvc mockMvc;
 
     @Before
     public void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(service))
+        bulkheads = new ProductBulkheads(
+                new Bulkhead("read", BULKHEAD_THREADS, BULKHEAD_QUEUE_SIZE, BULKHEAD_TIMEOUT_MILLIS),
+                new Bulkhead("write", BULKHEAD_THREADS, BULKHEAD_QUEUE_SIZE, BULKHEAD_TIMEOUT_MILLIS),
+                new Bulkhead("bulk", BULKHEAD_THREADS, BULKHEAD_QUEUE_SIZE, BULKHEAD_TIMEOUT_MILLIS));
+        catalogVersion = new ProductCatalogVersion();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(service, bulkheads, catalogVersion,
+                new ObjectMapper()))
                 .setHandlerExceptionResolvers(withExceptionControllerAdvice())
                 .build();
     }
 
+    @After
+    public void tearDown() {
+        bulkheads.destroy();
+    }
+
+    /**
+     * Performs a request, and dispatches it again with its result if the controller
+     * processes it asynchronously, like the servlet container does.
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (!result.getRequest().isAsyncStarted()) {
+            return actions;
+        }
+
+        result.getAsyncResult();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
     
     private ExceptionHandlerExceptionResolver withExceptionControllerAdvice() {
         final ExceptionHandlerExceptionResolver exceptionResolver = new ExceptionHandlerExceptionResolver() {
@@ -89,6 +142,7 @@ public class ProductControllerTest {
                 return super.getExceptionHandlerMethod(handlerMethod, exception);
             }
         };
+        exceptionResolver.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
         exceptionResolver.afterPropertiesSet();
         return exceptionResolver;
     }
@@ -100,7 +154,7 @@ public class ProductControllerTest {
                 .price(PRICE)
                 .build();
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         );
@@ -129,7 +183,7 @@ public class ProductControllerTest {
             return saved;
         });
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         )
@@ -149,7 +203,7 @@ public class ProductControllerTest {
             return saved;
         });
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         )
@@ -171,7 +225,7 @@ public class ProductControllerTest {
                 .price(PRICE)
                 .build();
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         );
@@ -204,7 +258,7 @@ public class ProductControllerTest {
             return saved;
         });
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         )
@@ -231,7 +285,7 @@ public class ProductControllerTest {
             return saved;
         });
 
-        mockMvc.perform(post("/api/product")
+        perform(post("/api/product")
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(newProduct))
         )
@@ -243,11 +297,80 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.type", is(type)));
     }
 
+    @Test
+    public void findAll_ShouldReturnTagOfCatalog() throws Exception {
+        perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersion.getCatalogTag()));
+    }
+
+    @Test
+    public void findAll_TagOfCatalogNotModified_ShouldReturnResponseStatusNotModifiedWithoutFindingProducts()
+            throws Exception {
+        String tag = catalogVersion.getCatalogTag();
+
+        perform(get("/api/product").header("If-None-Match", "\"other\", " + tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", tag))
+                .andExpect(content().string(""));
+
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    public void findAll_TagOfCatalogModified_ShouldReturnProducts() throws Exception {
+        String tag = catalogVersion.getCatalogTag();
+        catalogVersion.productsChanged();
+
+        perform(get("/api/product").header("If-None-Match", tag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersion.getCatalogTag()));
+
+        verify(service, times(1)).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void createAll_ShouldReturnResultOfEveryProductAsJson() throws Exception {
+        List<ProductDTO> newProducts = Arrays.asList(
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build(),
+                new ProductDTOBuilder().title("").price(PRICE).build()
+        );
+
+        ProductDTO created = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.createAll(isA(List.class))).thenReturn(new BulkCreateResultDTO(Arrays.asList(
+                BulkItemResultDTO.created(0, created),
+                BulkItemResultDTO.failed(1, "Title cannot be empty")
+        )));
+
+        perform(post("/api/product/bulk")
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .content(WebTestUtil.convertObjectToJsonBytes(newProducts))
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].product.id", is(ID)))
+                .andExpect(jsonPath("$.items[1].index", is(1)))
+                .andExpect(jsonPath("$.items[1].error", is("Title cannot be empty")));
+
+        ArgumentCaptor<List> createdArgument = ArgumentCaptor.forClass(List.class);
+        verify(service, times(1)).createAll(createdArgument.capture());
+        assertThat(createdArgument.getValue()).hasSize(2);
+    }
+
     @Test
     public void delete_ProductNotFound_ShouldReturnResponseStatusNotFound() throws Exception {
         when(service.delete(ID)).thenThrow(new ProductNotFoundException(ID));
 
-        mockMvc.perform(delete("/api/product/deleteproduct/{id}", ID))
+        perform(delete("/api/product/deleteproduct/{id}", ID))
                 .andExpect(status().isNotFound());
     }
 
@@ -259,7 +382,7 @@ public class ProductControllerTest {
 
         when(service.delete(ID)).thenReturn(deleted);
 
-        mockMvc.perform(delete("/api/product/deleteproduct/{id}", ID))
+        perform(delete("/api/product/deleteproduct/{id}", ID))
                 .andExpect(status().isOk());
     }
 
@@ -275,7 +398,7 @@ public class ProductControllerTest {
 
         when(service.delete(ID)).thenReturn(deleted);
 
-        mockMvc.perform(delete("/api/product/deleteproduct/{id}", ID))
+        perform(delete("/api/product/deleteproduct/{id}", ID))
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$.id", is(ID)))
                 .andExpect(jsonPath("$.title", is(TITLE)))
@@ -286,7 +409,7 @@ public class ProductControllerTest {
 
     @Test
     public void findAll_ShouldReturnResponseStatusOk() throws Exception {
-        mockMvc.perform(get("/api/product"))
+        perform(get("/api/product"))
                 .andExpect(status().isOk());
     }
 
@@ -302,7 +425,7 @@ public class ProductControllerTest {
 
         when(service.findAll()).thenReturn(Arrays.asList(found));
 
-        mockMvc.perform(get("/api/product"))
+        perform(get("/api/product"))
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(ID)))
@@ -312,13 +435,226 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[0].type", is(TYPE)));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void export_TwoProductsFound_ShouldReturnOneJsonDocumentPerLine() throws Exception {
+        ProductDTO first = new ProductDTOBuilder()
+                .id("1")
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+        ProductDTO second = new ProductDTOBuilder()
+                .id("2")
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.exportAll(eq(1), isA(Consumer.class))).then(invocationOnMock -> {
+            Consumer<ProductDTO> consumer = (Consumer<ProductDTO>) invocationOnMock.getArguments()[1];
+            consumer.accept(first);
+            consumer.accept(second);
+            return 2L;
+        });
+
+        ResultActions export = mockMvc.perform(get("/api/product/export").param("batchSize", "1"))
+                .andExpect(request().asyncStarted());
+        MvcResult result = export.andReturn();
+        result.getAsyncResult();
+
+        perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        //The products are written by the thread of the bulkhead to the response of the first dispatch.
+        String body = export
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":\"1\"");
+        assertThat(lines[1]).startsWith("{\"id\":\"2\"");
+    }
+
+    @Test
+    public void findPage_OneProductFound_ShouldReturnPageAsJson() throws Exception {
+        ProductDTO found = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.findPage(NEXT, 10)).thenReturn(new ProductPageDTO(Arrays.asList(found), NEXT));
+
+        perform(get("/api/product")
+                        .param("limit", "10")
+                        .param("next", NEXT)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(ID)))
+                .andExpect(jsonPath("$.products[0].title", is(TITLE)))
+                .andExpect(jsonPath("$.next", is(NEXT)));
+    }
+
+    @Test
+    public void findPage_InvalidToken_ShouldReturnResponseStatusBadRequest() throws Exception {
+        when(service.findPage(NEXT, 10)).thenThrow(new InvalidPageTokenException(NEXT));
+
+        perform(get("/api/product")
+                        .param("limit", "10")
+                        .param("next", NEXT)
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findChanges_ChangesFound_ShouldReturnChangesAsJson() throws Exception {
+        ProductDTO changed = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.findChanges(NEXT, 10)).thenReturn(
+                new ProductChangesDTO(Arrays.asList(changed), Arrays.asList("deleted"), NEXT, true));
+
+        perform(get("/api/product/changes")
+                        .param("since", NEXT)
+                        .param("limit", "10")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(ID)))
+                .andExpect(jsonPath("$.deleted[0]", is("deleted")))
+                .andExpect(jsonPath("$.next", is(NEXT)))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    public void findChanges_TokenExpired_ShouldReturnResponseStatusGone() throws Exception {
+        when(service.findChanges(NEXT, 10)).thenThrow(new ChangesTokenExpiredException(NEXT, 1));
+
+        perform(get("/api/product/changes")
+                        .param("since", NEXT)
+                        .param("limit", "10")
+        )
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void findByType_ShouldReturnPageOfProductsWithTypeAsJson() throws Exception {
+        ProductDTO found = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        when(service.findByType(TYPE, null, 50)).thenReturn(new ProductPageDTO(Arrays.asList(found), null));
+
+        perform(get("/api/product/type/{type}", TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(ID)))
+                .andExpect(jsonPath("$.products[0].type", is(TYPE)));
+
+        verify(service, times(1)).findByType(TYPE, null, 50);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    public void findByIds_ShouldReturnFoundProductsAndMissingIdsAsJson() throws Exception {
+        ProductDTO found = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.findByIds(Arrays.asList(ID, "missing")))
+                .thenReturn(new ProductBatchDTO(Arrays.asList(found), Arrays.asList("missing")));
+
+        perform(get("/api/product").param("ids", ID + ",missing"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(ID)))
+                .andExpect(jsonPath("$.missing", hasSize(1)))
+                .andExpect(jsonPath("$.missing[0]", is("missing")));
+
+        verify(service, times(1)).findByIds(Arrays.asList(ID, "missing"));
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void createAll_TooManyProducts_ShouldReturnResponseStatusRequestEntityTooLarge() throws Exception {
+        when(service.createAll(isA(List.class))).thenThrow(new TooManyProductsException(10001, 10000));
+
+        perform(post("/api/product/bulk")
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .content("[]")
+        )
+                .andExpect(status().isRequestEntityTooLarge());
+    }
+
+    @Test
+    public void findAll_CatalogTooLarge_ShouldReturnResponseStatusBadRequest() throws Exception {
+        when(service.findAll()).thenThrow(new CatalogTooLargeException(ProductServiceImpl.MAX_FIND_ALL_SIZE));
+
+        perform(get("/api/product"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByIds_TooManyIds_ShouldReturnResponseStatusBadRequest() throws Exception {
+        when(service.findByIds(Arrays.asList(ID))).thenThrow(new TooManyIdsException(501, 500));
+
+        perform(get("/api/product").param("ids", ID))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByPrice_ShouldReturnPageOfProductsInPriceRangeAsJson() throws Exception {
+        ProductDTO found = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price("1.50")
+                .build();
+        found.setPriceMinorUnits(150L);
+
+        when(service.findByPrice(new BigDecimal("1"), new BigDecimal("2.50"), Sort.Direction.DESC, NEXT, 10))
+                .thenReturn(new ProductPageDTO(Arrays.asList(found), null));
+
+        perform(get("/api/product/price")
+                .param("min", "1")
+                .param("max", "2.50")
+                .param("order", "DESC")
+                .param("limit", "10")
+                .param("next", NEXT)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(ID)))
+                .andExpect(jsonPath("$.products[0].priceMinorUnits", is(150)));
+
+        verify(service, times(1)).findByPrice(new BigDecimal("1"), new BigDecimal("2.50"), Sort.Direction.DESC, NEXT, 10);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     public void findById_ProductFound_ShouldReturnResponseStatusOk() throws Exception {
         ProductDTO found = new ProductDTOBuilder().build();
 
         when(service.findById(ID)).thenReturn(found);
 
-        mockMvc.perform(get("/api/product/{id}", ID))
+        perform(get("/api/product/{id}", ID))
                 .andExpect(status().isOk());
     }
 
@@ -334,7 +670,7 @@ public class ProductControllerTest {
 
         when(service.findById(ID)).thenReturn(found);
 
-        mockMvc.perform(get("/api/price/{id}", ID))
+        perform(get("/api/price/{id}", ID))
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$.id", is(ID)))
                 .andExpect(jsonPath("$.title", is(TITLE)))
@@ -347,8 +683,30 @@ public class ProductControllerTest {
     public void findById_ProductNotFound_ShouldReturnResponseStatusNotFound() throws Exception {
         when(service.findById(ID)).thenThrow(new ProductNotFoundException(ID));
 
-        mockMvc.perform(get("/api/product/{id}", ID))
-                .andExpect(status().isNotFound());
+        perform(get("/api/product/{id}", ID))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    public void findById_ProductFound_ShouldReturnVersionAsTag() throws Exception {
+        when(service.findById(ID)).thenReturn(new ProductDTOBuilder().id(ID).version(3).build());
+
+        perform(get("/api/product/{id}", ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    public void findById_WeakTagOfVersionNotModified_ShouldReturnResponseStatusNotModifiedWithoutBody()
+            throws Exception {
+        when(service.findById(ID)).thenReturn(new ProductDTOBuilder().id(ID).version(3).build());
+
+        perform(get("/api/product/{id}", ID).header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -360,13 +718,15 @@ public class ProductControllerTest {
                 .type(TYPE)
                 .build();
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
+
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         );
 
         ArgumentCaptor<ProductDTO> updatedArgument = ArgumentCaptor.forClass(ProductDTO.class);
-        verify(service, times(1)).update(updatedArgument.capture());
+        verify(service, times(1)).update(updatedArgument.capture(), (Long) isNull());
         verifyNoMoreInteractions(service);
 
         ProductDTO updated = updatedArgument.getValue();
@@ -384,9 +744,9 @@ public class ProductControllerTest {
                 .price(PRICE)
                 .build();
 
-        when(service.update(isA(ProductDTO.class))).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         )
@@ -401,9 +761,9 @@ public class ProductControllerTest {
                 .price(PRICE)
                 .build();
 
-        when(service.update(isA(ProductDTO.class))).then(invocationOnMock ->  (ProductDTO) invocationOnMock.getArguments()[0]);
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock ->  (ProductDTO) invocationOnMock.getArguments()[0]);
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         )
@@ -430,13 +790,15 @@ public class ProductControllerTest {
                 .type(type)
                 .build();
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
+
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         );
 
         ArgumentCaptor<ProductDTO> updatedArgument = ArgumentCaptor.forClass(ProductDTO.class);
-        verify(service, times(1)).update(updatedArgument.capture());
+        verify(service, times(1)).update(updatedArgument.capture(), (Long) isNull());
         verifyNoMoreInteractions(service);
 
         ProductDTO updated = updatedArgument.getValue();
@@ -465,7 +827,9 @@ public class ProductControllerTest {
 
         when(service.create(isA(ProductDTO.class))).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
+
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         )
@@ -487,9 +851,9 @@ public class ProductControllerTest {
                 .type(type)
                 .build();
 
-        when(service.update(isA(ProductDTO.class))).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
+        when(service.update(isA(ProductDTO.class), (Long) isNull())).then(invocationOnMock -> (ProductDTO) invocationOnMock.getArguments()[0]);
 
-        mockMvc.perform(put("/api/product/{id}", ID)
+        perform(put("/api/product/{id}", ID)
                         .contentType(APPLICATION_JSON_UTF8)
                         .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
         )
@@ -500,4 +864,107 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.price", is(price)))
                 .andExpect(jsonPath("$.type", is(type)));
     }
+
+    @Test
+    public void patch_OnlyPrice_ShouldPassOnlyPriceToService() throws Exception {
+        ProductDTO patched = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.patch(eq(ID), isA(ProductPatchDTO.class), (Long) isNull())).thenReturn(patched);
+
+        perform(patch("/api/product/{id}", ID)
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .content("{\"price\":\"" + PRICE + "\"}")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.id", is(ID)))
+                .andExpect(jsonPath("$.price", is(PRICE)));
+
+        ArgumentCaptor<ProductPatchDTO> patchArgument = ArgumentCaptor.forClass(ProductPatchDTO.class);
+        verify(service, times(1)).patch(eq(ID), patchArgument.capture(), (Long) isNull());
+        verifyNoMoreInteractions(service);
+
+        ProductPatchDTO patch = patchArgument.getValue();
+        assertThat(patch.getPrice()).isEqualTo(PRICE);
+        assertThat(patch.getTitle()).isNull();
+        assertThat(patch.getDescription()).isNull();
+        assertThat(patch.getType()).isNull();
+    }
+
+    @Test
+    public void update_IfMatchTagOfVersion_ShouldPassVersionToServiceAndReturnNewVersionAsTag() throws Exception {
+        ProductDTO updatedProduct = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.update(isA(ProductDTO.class), eq(3L))).thenReturn(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(4)
+                .build());
+
+        perform(put("/api/product/{id}", ID)
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .header("If-Match", "\"3\"")
+                        .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    public void update_IfMatchTagIsNotTagOfVersion_ShouldPassUnknownVersionToService() throws Exception {
+        ProductDTO updatedProduct = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(service.update(isA(ProductDTO.class), eq(-1L))).thenThrow(new ProductModifiedException(ID, 4));
+
+        perform(put("/api/product/{id}", ID)
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .header("If-Match", "W/\"3\"")
+                        .content(WebTestUtil.convertObjectToJsonBytes(updatedProduct))
+        )
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void patch_VersionIsNotCurrent_ShouldReturnResponseStatusConflict() throws Exception {
+        when(service.patch(eq(ID), isA(ProductPatchDTO.class), (Long) isNull()))
+                .thenThrow(new ProductVersionConflictException(ID, 3, 4));
+
+        perform(patch("/api/product/{id}", ID)
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .content("{\"price\":\"" + PRICE + "\",\"version\":3}")
+        )
+                .andExpect(status().isConflict())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void patch_TooLongTitle_ShouldReturnValidationErrorForTitle() throws Exception {
+        String tooLongTitle = StringTestUtil.createStringWithLength(MAX_LENGTH_TITLE + 1);
+
+        perform(patch("/api/product/{id}", ID)
+                        .contentType(APPLICATION_JSON_UTF8)
+                        .content("{\"title\":\"" + tooLongTitle + "\"}")
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors", hasSize(1)))
+                .andExpect(jsonPath("$.fieldErrors[0].field", is("title")))
+                .andExpect(jsonPath("$.fieldErrors[0].message", is("The length of title must be between 1 and 100 characters.")));
+
+        verifyNoMoreInteractions(service);
+    }
 }
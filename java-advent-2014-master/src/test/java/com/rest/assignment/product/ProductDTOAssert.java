@@ -100,7 +100,7 @@ class ProductDTOAssert extends AbstractAssert<ProductDTOAssert, ProductDTO> {
     public ProductDTOAssert hasType(String expectedType) {
         isNotNull();
 
-        String actualType = actual.getTitle();
+        String actualType = actual.getType();
         assertThat(actualType)
                 .overridingErrorMessage("Expected type to be <%s> but was <%s>",
                 		expectedType,
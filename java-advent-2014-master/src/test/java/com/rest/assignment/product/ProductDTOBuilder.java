@@ -12,6 +12,7 @@ class ProductDTOBuilder {
     private String title;
     private String price;
     private String type;
+    private Long version;
 
     ProductDTOBuilder() {
 
@@ -42,6 +43,11 @@ class ProductDTOBuilder {
         return this;
     }
 
+    ProductDTOBuilder version(long version) {
+        this.version = version;
+        return this;
+    }
+
     ProductDTO build() {
         ProductDTO dto = new ProductDTO();
 
@@ -50,6 +56,7 @@ class ProductDTOBuilder {
         dto.setTitle(title);
         dto.setPrice(price);
         dto.setType(type);
+        dto.setVersion(version);
 
         return dto;
     }
@@ -0,0 +1,120 @@
+package com.rest.assignment.product;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.rest.assignment.util.AllocationMeter.allocatedBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Rohan Das
+ */
+public class ProductDTOValidatorTest {
+
+    private static final String OBJECT_NAME = "productDTO";
+
+    private ProductDTOValidator validator;
+
+    private SpringValidatorAdapter beanValidator;
+
+    @Before
+    public void setUp() {
+        validator = new ProductDTOValidator();
+        beanValidator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    public void validate_ValidProduct_ShouldNotRejectAnyField() {
+        ProductDTO product = validProduct().build();
+
+        BindingResult result = validate(product);
+
+        assertThat(result.hasErrors()).isFalse();
+    }
+
+    @Test
+    public void validate_EmptyTitleAndPrice_ShouldRejectFieldsLikeBeanValidation() {
+        ProductDTO product = validProduct()
+                .title("")
+                .price("")
+                .build();
+
+        assertSameErrorsAsBeanValidation(product);
+    }
+
+    @Test
+    public void validate_NullTitleAndPrice_ShouldRejectFieldsLikeBeanValidation() {
+        ProductDTO product = validProduct()
+                .title(null)
+                .price(null)
+                .build();
+
+        assertSameErrorsAsBeanValidation(product);
+    }
+
+    @Test
+    public void validate_TooLongTitleAndDescription_ShouldRejectFieldsLikeBeanValidation() {
+        ProductDTO product = validProduct()
+                .title(StringTestUtil.createStringWithLength(Product.MAX_LENGTH_TITLE + 1))
+                .description(StringTestUtil.createStringWithLength(Product.MAX_LENGTH_DESCRIPTION + 1))
+                .build();
+
+        assertSameErrorsAsBeanValidation(product);
+    }
+
+    @Test
+    public void validate_ValidProduct_ShouldNotAllocate() {
+        ProductDTO product = validProduct().build();
+        BindingResult result = validate(product);
+
+        long allocated = allocatedBytes(100000, () -> validator.validate(product, result));
+
+        assertThat(allocated).isEqualTo(0);
+    }
+
+    private ProductDTOBuilder validProduct() {
+        return new ProductDTOBuilder()
+                .title("title")
+                .description("description")
+                .price("10.50");
+    }
+
+    private BindingResult validate(ProductDTO product) {
+        BindingResult result = new BeanPropertyBindingResult(product, OBJECT_NAME);
+        validator.validate(product, result);
+        return result;
+    }
+
+    private void assertSameErrorsAsBeanValidation(ProductDTO product) {
+        BindingResult expected = new BeanPropertyBindingResult(product, OBJECT_NAME);
+        beanValidator.validate(product, expected);
+
+        BindingResult actual = validate(product);
+
+        assertThat(actual.getErrorCount()).isEqualTo(expected.getErrorCount());
+        assertThat(describe(actual.getFieldErrors())).isEqualTo(describe(expected.getFieldErrors()));
+    }
+
+    private static Map<String, List<Object>> describe(List<FieldError> fieldErrors) {
+        Map<String, List<Object>> errors = new HashMap<>();
+        for (FieldError fieldError: fieldErrors) {
+            errors.put(fieldError.getField() + "." + fieldError.getCode(), Arrays.asList(
+                    fieldError.getRejectedValue(),
+                    Arrays.asList(fieldError.getCodes()),
+                    Arrays.asList(fieldError.getArguments()),
+                    fieldError.getDefaultMessage()
+            ));
+        }
+        return errors;
+    }
+}
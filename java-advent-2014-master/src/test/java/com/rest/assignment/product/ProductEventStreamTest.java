@@ -0,0 +1,185 @@
+package com.rest.assignment.product;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * @author Rohan Das
+ */
+public class ProductEventStreamTest {
+
+    private static final String BOOK = "book";
+    private static final String TOY = "toy";
+
+    private static final int REPLAY_SIZE = 2;
+    private static final int BUFFER_SIZE = 1;
+    private static final int MAX_SUBSCRIBERS = 2;
+    private static final long HEARTBEAT_MILLIS = 50;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * The writers are not started, so the tests run them when the events have been published.
+     */
+    private final List<Runnable> writers = new ArrayList<>();
+
+    private final ProductEventStream stream = new ProductEventStream(REPLAY_SIZE, BUFFER_SIZE, MAX_SUBSCRIBERS,
+            HEARTBEAT_MILLIS, writers::add, new ObjectMapper());
+
+    @After
+    public void tearDown() {
+        stream.destroy();
+    }
+
+    @Test
+    public void publish_SubscriberOfType_ShouldWriteOnlyEventsOfProductsOfType() throws InterruptedException {
+        MockHttpServletResponse response = subscribe(BOOK, null);
+
+        stream.publish(ProductEvent.Kind.CREATED, product("1", TOY));
+        stream.publish(ProductEvent.Kind.UPDATED, product("2", BOOK));
+
+        Thread writer = start(writers.get(0));
+        String written = awaitContent(response, "\"id\":\"2\"");
+        stream.destroy();
+        writer.join(TIMEOUT_MILLIS);
+
+        assertThat(response.getContentType()).isEqualTo(ProductEventStream.CONTENT_TYPE);
+        assertThat(written).contains("event: updated\n");
+        assertThat(written).doesNotContain("\"id\":\"1\"");
+    }
+
+    @Test
+    public void subscribe_LastEventIdKept_ShouldWriteMissedEvents() throws InterruptedException {
+        MockHttpServletResponse first = subscribe(null, null);
+        stream.publish(ProductEvent.Kind.CREATED, product("1", BOOK));
+        Thread firstWriter = start(writers.get(0));
+        String lastEventId = lastEventId(awaitContent(first, "event: created"));
+
+        stream.publish(ProductEvent.Kind.DELETED, product("1", BOOK));
+        MockHttpServletResponse second = subscribe(null, lastEventId);
+        Thread secondWriter = start(writers.get(1));
+        String written = awaitContent(second, "event: deleted");
+        stream.destroy();
+        firstWriter.join(TIMEOUT_MILLIS);
+        secondWriter.join(TIMEOUT_MILLIS);
+
+        assertThat(written).doesNotContain("event: created").doesNotContain("event: reset");
+    }
+
+    @Test
+    public void subscribe_LastEventIdUnknown_ShouldWriteResetEvent() throws InterruptedException {
+        MockHttpServletResponse response = subscribe(null, "unknown-1");
+
+        Thread writer = start(writers.get(0));
+        awaitContent(response, "event: reset");
+        stream.destroy();
+        writer.join(TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void publish_SubscriberBufferFull_ShouldDisconnectSubscriberWithoutBlocking() {
+        MockHttpServletResponse response = subscribe(null, null);
+
+        stream.publish(ProductEvent.Kind.CREATED, product("1", BOOK));
+        stream.publish(ProductEvent.Kind.CREATED, product("2", BOOK));
+
+        assertThat(stream.stats().getDisconnected()).isEqualTo(1);
+
+        //The writer of a disconnected subscriber completes the response without writing the queued events.
+        writers.get(0).run();
+
+        assertThat(stream.stats().getSubscribers()).isZero();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    public void publish_BufferOfSubscriberWithBlockedWriterFull_ShouldCompleteResponseAndFreeSubscriberSlot() {
+        MockHttpServletRequest request = asyncRequest();
+        stream.subscribe(request, new MockHttpServletResponse(), null, null);
+        subscribe(null, null);
+
+        //The writers are never run, like writers that are blocked on slow connections.
+        stream.publish(ProductEvent.Kind.CREATED, product("1", BOOK));
+        stream.publish(ProductEvent.Kind.CREATED, product("2", BOOK));
+
+        assertThat(stream.stats().getDisconnected()).isEqualTo(2);
+        assertThat(stream.stats().getSubscribers()).isZero();
+        assertThat(request.isAsyncStarted()).isFalse();
+
+        for (int subscriber = 0; subscriber < MAX_SUBSCRIBERS; subscriber++) {
+            subscribe(null, null);
+        }
+        assertThat(stream.stats().getSubscribers()).isEqualTo(MAX_SUBSCRIBERS);
+    }
+
+    @Test(expected = TooManySubscribersException.class)
+    public void subscribe_MaxSubscribersSubscribed_ShouldThrowException() {
+        for (int subscriber = 0; subscriber <= MAX_SUBSCRIBERS; subscriber++) {
+            subscribe(null, null);
+        }
+    }
+
+    private MockHttpServletResponse subscribe(String type, String lastEventId) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        stream.subscribe(asyncRequest(), response, type, lastEventId);
+
+        return response;
+    }
+
+    private static MockHttpServletRequest asyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static String lastEventId(String written) {
+        int start = written.indexOf("id: ") + "id: ".length();
+        return written.substring(start, written.indexOf('\n', start));
+    }
+
+    private static Thread start(Runnable writer) {
+        Thread thread = new Thread(writer);
+        thread.start();
+        return thread;
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            String written = contentOf(response);
+            if (written.contains(expected)) {
+                return written;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(String.format("<%s> was not written: <%s>", expected, contentOf(response)));
+    }
+
+    private static String contentOf(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static ProductDTO product(String id, String type) {
+        return new ProductDTOBuilder()
+                .id(id)
+                .title(id)
+                .price("1")
+                .type(type)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.rest.assignment.product;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * @author Rohan Das
+ */
+public class ProductExportWriterTest {
+
+    private static final String ID = "1";
+
+    private static final ObjectWriter PRODUCT_WRITER = ProductExportWriter.productWriter(new ObjectMapper());
+
+    @Test
+    public void accept_WriterCancelled_ShouldThrowExceptionWithoutWriting() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ProductExportWriter writer = new ProductExportWriter(PRODUCT_WRITER, response, 1);
+        writer.accept(new ProductDTOBuilder().id(ID).build());
+
+        writer.cancel();
+
+        try {
+            writer.accept(new ProductDTOBuilder().id(ID).build());
+            throw new AssertionError("The cancelled writer has written a product");
+        }
+        catch (CancellationException ex) {
+            assertThat(writer.getWritten()).isEqualTo(1);
+            assertThat(response.getContentAsString()).hasLineCount(1);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void cancel_WriteBlockedBySlowClient_ShouldReturnWithoutWaitingForWrite() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch clientReads = new CountDownLatch(1);
+        HttpServletResponse response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        writing.countDown();
+                        try {
+                            clientReads.await();
+                        }
+                        catch (InterruptedException ex) {
+                            throw new InterruptedIOException();
+                        }
+                    }
+                };
+            }
+        };
+        ProductExportWriter writer = new ProductExportWriter(PRODUCT_WRITER, response, 1);
+
+        ExecutorService bulkhead = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> export = bulkhead.submit(() -> {
+                writer.accept(new ProductDTOBuilder().id(ID).build());
+                writer.accept(new ProductDTOBuilder().id(ID).build());
+            });
+            writing.await();
+
+            //The write of the first product is blocked until the client reads it.
+            writer.cancel();
+            clientReads.countDown();
+
+            try {
+                export.get();
+                throw new AssertionError("The cancelled writer has written a product");
+            }
+            catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(CancellationException.class);
+                assertThat(writer.getWritten()).isEqualTo(1);
+            }
+        }
+        finally {
+            bulkhead.shutdownNow();
+        }
+    }
+
+    @Test
+    public void accept_FlushIntervalLargerThanMaxBatchSize_ShouldFlushAfterMaxBatchSize() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(Integer.MAX_VALUE);
+        ProductExportWriter writer = new ProductExportWriter(PRODUCT_WRITER, response, Integer.MAX_VALUE);
+
+        for (int index = 1; index < ProductServiceImpl.MAX_EXPORT_BATCH_SIZE; index++) {
+            writer.accept(new ProductDTOBuilder().id(ID).build());
+        }
+        assertThat(response.isCommitted()).isFalse();
+
+        writer.accept(new ProductDTOBuilder().id(ID).build());
+
+        assertThat(response.isCommitted()).isTrue();
+    }
+}
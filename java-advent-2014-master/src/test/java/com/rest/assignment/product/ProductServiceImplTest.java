@@ -3,22 +3,51 @@ package com.rest.assignment.product;
 import static com.rest.assignment.product.ProductAssert.assertThatProduct;
 import static com.rest.assignment.product.ProductDTOAssert.assertThatProductDTO;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.rest.assignment.product.ProductDTO;
@@ -32,18 +61,87 @@ public class ProductServiceImplTest {
 
     private static final String DESCRIPTION = "description";
     private static final String ID = "id";
+    private static final String OTHER_ID = "otherId";
     private static final String TITLE = "title";
     private static final String PRICE = "price";
     private static final String TYPE = "type";
 
+    private static final int BULK_CHUNK_SIZE = 2;
+
+    private static final long CACHE_MAX_SIZE = 100;
+    private static final long CACHE_TTL_SECONDS = 60;
+
+    private static final int MAX_TRACKED_KEYS = 10;
+
+    private static final long ID_FILTER_EXPECTED_INSERTIONS = 1000;
+    private static final double ID_FILTER_FALSE_POSITIVE_RATE = 0.001;
+    private static final long ID_FILTER_REBUILD_INTERVAL_SECONDS = 60;
+    private static final int ID_FILTER_BATCH_SIZE = 100;
+
+    private static final int WRITE_BEHIND_MAX_PENDING = 10;
+    private static final int WRITE_BEHIND_BATCH_SIZE = 10;
+    private static final long WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = 100;
+    private static final long WRITE_BEHIND_OFFER_TIMEOUT_MILLIS = 0;
+
+    private static final long CHANGES_SETTLE_LAG_MILLIS = 1000;
+    private static final long CHANGES_RETENTION_HOURS = 24;
+
+    private static final int EVENTS_REPLAY_SIZE = 10;
+    private static final int EVENTS_BUFFER_SIZE = 10;
+    private static final int EVENTS_MAX_SUBSCRIBERS = 1;
+    private static final long EVENTS_HEARTBEAT_MILLIS = 1000;
+
+    private static final long NOW = TimeUnit.DAYS.toMillis(365 * 40);
+
+    /**
+     * An object id that was created a day before the id filter was built.
+     */
+    private static final String OLD_OBJECT_ID = new ObjectId(new Date(NOW - TimeUnit.DAYS.toMillis(1))).toString();
+
     @Mock
     private ProductRepository repository;
 
+    @Captor
+    private ArgumentCaptor<List<Product>> chunkArgument;
+
+    private ProductCache cache;
+
+    private ProductLookupCoalescer coalescer;
+
+    private ProductIdFilter idFilter;
+
+    private ProductChangeFeed changeFeed;
+
+    private ProductEventStream events;
+
+    private ProductCatalogVersion catalogVersion;
+
     private ProductServiceImpl service;
 
     @Before
     public void setUp() {
-        this.service = new ProductServiceImpl(repository);
+        this.cache = new ProductCache(CACHE_MAX_SIZE, CACHE_TTL_SECONDS);
+        this.coalescer = new ProductLookupCoalescer(MAX_TRACKED_KEYS);
+        this.idFilter = new ProductIdFilter(repository, true, ID_FILTER_EXPECTED_INSERTIONS, ID_FILTER_FALSE_POSITIVE_RATE,
+                ID_FILTER_REBUILD_INTERVAL_SECONDS, ID_FILTER_BATCH_SIZE, () -> NOW);
+        this.changeFeed = new ProductChangeFeed(repository, CHANGES_SETTLE_LAG_MILLIS, CHANGES_RETENTION_HOURS,
+                () -> NOW);
+        this.events = new ProductEventStream(EVENTS_REPLAY_SIZE, EVENTS_BUFFER_SIZE, EVENTS_MAX_SUBSCRIBERS,
+                EVENTS_HEARTBEAT_MILLIS, Runnable::run, new ObjectMapper());
+        this.catalogVersion = new ProductCatalogVersion();
+        this.service = new ProductServiceImpl(repository, cache, coalescer, idFilter, writeBehind(false), changeFeed,
+                events, catalogVersion, BULK_CHUNK_SIZE);
+    }
+
+    private ProductWriteBehind writeBehind(boolean enabled) {
+        return new ProductWriteBehind(repository, cache, changeFeed, events, catalogVersion, enabled,
+                WRITE_BEHIND_MAX_PENDING, WRITE_BEHIND_BATCH_SIZE,
+                WRITE_BEHIND_FLUSH_INTERVAL_MILLIS, WRITE_BEHIND_OFFER_TIMEOUT_MILLIS);
+    }
+
+    private ProductServiceImpl writeBehindService(ProductWriteBehind writeBehind) {
+        return new ProductServiceImpl(repository, cache, coalescer, idFilter, writeBehind, changeFeed, events,
+                catalogVersion, BULK_CHUNK_SIZE);
     }
 
     @Test
@@ -96,6 +194,121 @@ public class ProductServiceImplTest {
                 .hasPrice(PRICE);
     }
 
+    @Test
+    public void createAll_ShouldInsertValidProductsInChunks() {
+        List<ProductDTO> newProducts = Arrays.asList(
+                new ProductDTOBuilder().title("first").price(PRICE).build(),
+                new ProductDTOBuilder().title("second").price(PRICE).build(),
+                new ProductDTOBuilder().title("third").price(PRICE).build()
+        );
+
+        when(repository.insertAll(anyListOf(Product.class)))
+                .thenAnswer(invocation -> insertedWithIds((List<?>) invocation.getArguments()[0]));
+
+        BulkCreateResultDTO result = service.createAll(newProducts);
+
+        verify(repository, times(2)).insertAll(chunkArgument.capture());
+        verifyNoMoreInteractions(repository);
+
+        List<List<Product>> chunks = chunkArgument.getAllValues();
+        assertThat(chunks.get(0)).hasSize(2);
+        assertThat(chunks.get(1)).hasSize(1);
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(0);
+        assertThatProductDTO(result.getItems().get(2).getProduct())
+                .hasId("id0")
+                .hasTitle("third");
+    }
+
+    @Test
+    public void createAll_InvalidProduct_ShouldReportErrorAndCreateOtherProducts() {
+        List<ProductDTO> newProducts = Arrays.asList(
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build(),
+                new ProductDTOBuilder().title("").price(PRICE).build(),
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build()
+        );
+
+        when(repository.insertAll(anyListOf(Product.class)))
+                .thenAnswer(invocation -> insertedWithIds((List<?>) invocation.getArguments()[0]));
+
+        BulkCreateResultDTO result = service.createAll(newProducts);
+
+        verify(repository, times(1)).insertAll(anyListOf(Product.class));
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+
+        BulkItemResultDTO failed = result.getItems().get(1);
+        assertThat(failed.getIndex()).isEqualTo(1);
+        assertThat(failed.getProduct()).isNull();
+        assertThat(failed.getError()).isEqualTo("title: may not be empty");
+
+        assertThatProductDTO(result.getItems().get(2).getProduct()).hasId("id1");
+    }
+
+    @Test
+    public void createAll_PriceIsEmpty_ShouldReportValidationErrorLikeCreate() {
+        List<ProductDTO> newProducts = Arrays.asList(
+                new ProductDTOBuilder().title(TITLE).price("").build(),
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build()
+        );
+
+        when(repository.insertAll(anyListOf(Product.class)))
+                .thenAnswer(invocation -> insertedWithIds((List<?>) invocation.getArguments()[0]));
+
+        BulkCreateResultDTO result = service.createAll(newProducts);
+
+        verify(repository, times(1)).insertAll(chunkArgument.capture());
+        assertThat(chunkArgument.getValue()).hasSize(1);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(0).getError()).isEqualTo("price: may not be empty");
+    }
+
+    @Test(expected = TooManyProductsException.class)
+    public void createAll_TooManyProducts_ShouldThrowExceptionWithoutInsertingProducts() {
+        List<ProductDTO> newProducts = new ArrayList<>();
+        for (int index = 0; index <= ProductServiceImpl.MAX_BULK_SIZE; index++) {
+            newProducts.add(new ProductDTOBuilder().title(TITLE).price(PRICE).build());
+        }
+
+        try {
+            service.createAll(newProducts);
+        }
+        finally {
+            verifyNoMoreInteractions(repository);
+        }
+    }
+
+    @Test
+    public void createAll_InsertFails_ShouldReportErrorOfFailedProduct() {
+        List<ProductDTO> newProducts = Arrays.asList(
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build(),
+                new ProductDTOBuilder().title(TITLE).price(PRICE).build()
+        );
+
+        Map<Integer, Product> inserted = new HashMap<>();
+        inserted.put(0, new ProductBuilder().id(ID).price(PRICE).build());
+        when(repository.insertAll(anyListOf(Product.class)))
+                .thenReturn(new BulkInsertResult(inserted, Collections.singletonMap(1, "duplicate key")));
+
+        BulkCreateResultDTO result = service.createAll(newProducts);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(1).getError()).isEqualTo("duplicate key");
+    }
+
+    private static BulkInsertResult insertedWithIds(List<?> chunk) {
+        Map<Integer, Product> inserted = new HashMap<>();
+        for (int index = 0; index < chunk.size(); index++) {
+            Product product = (Product) chunk.get(index);
+            ReflectionTestUtils.setField(product, "id", "id" + index);
+            inserted.put(index, product);
+        }
+        return new BulkInsertResult(inserted, Collections.emptyMap());
+    }
+
     @Test(expected = ProductNotFoundException.class)
     public void delete_ProductNotFound_ShouldThrowException() {
         when(repository.findOne(ID)).thenReturn(Optional.empty());
@@ -103,18 +316,72 @@ public class ProductServiceImplTest {
         service.findById(ID);
     }
 
+    @Test(expected = ProductNotFoundException.class)
+    public void delete_ProductNotRemoved_ShouldThrowException() {
+        when(repository.findAndRemove(ID)).thenReturn(Optional.empty());
+
+        service.delete(ID);
+    }
+
+    @Test
+    public void delete_ProductNotRemoved_ShouldRemoveTombstone() {
+        when(repository.insertTombstone(isA(ProductTombstone.class))).thenReturn(true);
+        when(repository.findAndRemove(ID)).thenReturn(Optional.empty());
+
+        try {
+            service.delete(ID);
+            throw new AssertionError("The product was deleted");
+        }
+        catch (ProductNotFoundException ex) {
+            InOrder inOrder = inOrder(repository);
+            inOrder.verify(repository).insertTombstone(isA(ProductTombstone.class));
+            inOrder.verify(repository).findAndRemove(ID);
+            inOrder.verify(repository).removeTombstone(ID);
+        }
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void delete_ProductAlreadyDeleted_ShouldKeepTombstoneOfFirstDeletion() {
+        when(repository.insertTombstone(isA(ProductTombstone.class))).thenReturn(false);
+        when(repository.findAndRemove(ID)).thenReturn(Optional.empty());
+
+        try {
+            service.delete(ID);
+        }
+        finally {
+            verify(repository, never()).removeTombstone(ID);
+        }
+    }
+
+    @Test
+    public void delete_TombstoneNotSaved_ShouldThrowExceptionWithoutRemovingProduct() {
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+        doThrow(failure).when(repository).insertTombstone(isA(ProductTombstone.class));
+
+        try {
+            service.delete(ID);
+            throw new AssertionError("The product was deleted");
+        }
+        catch (DataAccessResourceFailureException ex) {
+            verify(repository, never()).findAndRemove(ID);
+            assertThat(events.stats().getPublished()).isZero();
+        }
+    }
+
     @Test
-    public void delete_ProductFound_ShouldDeleteTheFoundProduct() {
+    public void delete_ProductFound_ShouldRemoveTheProductWithSingleOperation() {
         Product deleted = new ProductBuilder()
                 .id(ID)
                 .price(PRICE)
                 .build();
 
-        when(repository.findOne(ID)).thenReturn(Optional.of(deleted));
+        when(repository.findAndRemove(ID)).thenReturn(Optional.of(deleted));
 
         service.delete(ID);
 
-        verify(repository, times(1)).delete(deleted);
+        verify(repository, times(1)).findAndRemove(ID);
+        verify(repository, times(1)).insertTombstone(isA(ProductTombstone.class));
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
@@ -127,7 +394,7 @@ public class ProductServiceImplTest {
                 .type(TYPE)
                 .build();
 
-        when(repository.findOne(ID)).thenReturn(Optional.of(deleted));
+        when(repository.findAndRemove(ID)).thenReturn(Optional.of(deleted));
 
         ProductDTO returned = service.delete(ID);
 
@@ -138,6 +405,112 @@ public class ProductServiceImplTest {
                 .hasPrice(PRICE);
     }
 
+    @Test
+    public void delete_ProductFound_ShouldSaveTombstoneWithTimeOfDeletion() {
+        when(repository.findAndRemove(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .build()));
+
+        service.delete(ID);
+
+        ArgumentCaptor<ProductTombstone> tombstoneArgument = ArgumentCaptor.forClass(ProductTombstone.class);
+        verify(repository, times(1)).insertTombstone(tombstoneArgument.capture());
+        assertThat(tombstoneArgument.getValue().getId()).isEqualTo(ID);
+        assertThat(tombstoneArgument.getValue().getLastModified()).isEqualTo(NOW);
+    }
+
+    @Test
+    public void create_ShouldPublishEventOfCreatedProduct() {
+        when(repository.save(isA(Product.class))).thenAnswer(invocation -> (Product) invocation.getArguments()[0]);
+
+        service.create(new ProductDTOBuilder()
+                .title(TITLE)
+                .price(PRICE)
+                .build());
+
+        assertThat(events.stats().getPublished()).isEqualTo(1);
+    }
+
+    @Test
+    public void delete_ProductNotRemoved_ShouldNotPublishEvent() {
+        when(repository.findAndRemove(ID)).thenReturn(Optional.empty());
+
+        try {
+            service.delete(ID);
+        }
+        catch (ProductNotFoundException ex) {
+            assertThat(events.stats().getPublished()).isZero();
+            return;
+        }
+        throw new AssertionError("The product was deleted");
+    }
+
+    @Test
+    public void findChanges_ChangesAndDeletionsFound_ShouldReturnPageInOrderOfTime() {
+        long since = NOW - TimeUnit.MINUTES.toMillis(10);
+        Product first = new ProductBuilder()
+                .id("1")
+                .price(PRICE)
+                .lastModified(since + 1)
+                .build();
+        Product third = new ProductBuilder()
+                .id("3")
+                .price(PRICE)
+                .lastModified(since + 3)
+                .build();
+
+        when(repository.findChanges(any(PageToken.ChangeKey.class), eq(NOW - CHANGES_SETTLE_LAG_MILLIS), eq(3)))
+                .thenReturn(Arrays.asList(first, third));
+        when(repository.findTombstones(any(PageToken.ChangeKey.class), eq(NOW - CHANGES_SETTLE_LAG_MILLIS), eq(3)))
+                .thenReturn(Arrays.asList(new ProductTombstone("2", since + 2)));
+
+        ProductChangesDTO changes = service.findChanges(PageToken.encodeChanges(since), 2);
+
+        assertThat(changes.getProducts()).hasSize(1);
+        assertThatProductDTO(changes.getProducts().get(0)).hasId("1");
+        assertThat(changes.getDeleted()).containsExactly("2");
+        assertThat(changes.getHasMore()).isTrue();
+        assertThat(changes.getNext()).isEqualTo(PageToken.encodeChanges(since + 2, "2"));
+    }
+
+    @Test
+    public void findChanges_LastPage_ShouldReturnTokenOfSettledChanges() {
+        when(repository.findChanges(any(PageToken.ChangeKey.class), anyLong(), anyInt()))
+                .thenReturn(Arrays.asList(new ProductBuilder()
+                        .id(ID)
+                        .price(PRICE)
+                        .lastModified(NOW - CHANGES_SETTLE_LAG_MILLIS)
+                        .build()));
+
+        ProductChangesDTO changes = service.findChanges(null, 2);
+
+        assertThat(changes.getProducts()).hasSize(1);
+        assertThat(changes.getHasMore()).isFalse();
+        assertThat(changes.getNext()).isEqualTo(PageToken.encodeChanges(NOW - CHANGES_SETTLE_LAG_MILLIS));
+
+        //All products are returned to a client without a token, so it has no deletions to learn about.
+        verify(repository, never()).findTombstones(any(PageToken.ChangeKey.class), anyLong(), anyInt());
+    }
+
+    @Test(expected = ChangesTokenExpiredException.class)
+    public void findChanges_TokenOlderThanRetention_ShouldThrowException() {
+        long expired = NOW - TimeUnit.HOURS.toMillis(CHANGES_RETENTION_HOURS) - 1;
+
+        service.findChanges(PageToken.encodeChanges(expired, ID), 2);
+    }
+
+    @Test(expected = CatalogTooLargeException.class)
+    public void findAll_MoreProductsThanMaxSize_ShouldThrowException() {
+        List<Product> found = new ArrayList<>();
+        for (int index = 0; index <= ProductServiceImpl.MAX_FIND_ALL_SIZE; index++) {
+            found.add(new ProductBuilder().id(Integer.toString(index)).price(PRICE).build());
+        }
+        when(repository.findPage(null, ProductServiceImpl.MAX_FIND_ALL_SIZE + 1)).thenReturn(found);
+
+        service.findAll();
+    }
+
     @Test
     public void findAll_OneProductFound_ShouldReturnTheInformationOfFoundProduct() {
         Product expected = new ProductBuilder()
@@ -148,7 +521,7 @@ public class ProductServiceImplTest {
                 .type(TYPE)
                 .build();
 
-        when(repository.findAll()).thenReturn(Arrays.asList(expected));
+        when(repository.findPage(null, ProductServiceImpl.MAX_FIND_ALL_SIZE + 1)).thenReturn(Arrays.asList(expected));
 
         List<ProductDTO> products = service.findAll();
         assertThat(products).hasSize(1);
@@ -161,85 +534,250 @@ public class ProductServiceImplTest {
                 .hasPrice(PRICE);
     }
 
-    @Test(expected = ProductNotFoundException.class)
-    public void findById_ProductNotFound_ShouldThrowException() {
-        when(repository.findOne(ID)).thenReturn(Optional.empty());
+    @Test
+    public void findPage_FirstPage_ShouldRequestOneExtraProductFromTheStart() {
+        when(repository.findPage(null, 3)).thenReturn(Arrays.asList());
 
-        service.findById(ID);
+        service.findPage(null, 2);
+
+        verify(repository, times(1)).findPage(null, 3);
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
-    public void findById_ProductFound_ShouldReturnTheInformationOfFoundProduct() {
+    public void findPage_MoreProductsThanLimit_ShouldReturnPageAndTokenOfLastProduct() {
+        Product first = new ProductBuilder()
+                .id("1")
+                .price(PRICE)
+                .build();
+        Product second = new ProductBuilder()
+                .id("2")
+                .price(PRICE)
+                .build();
+
+        when(repository.findPage(null, 2)).thenReturn(Arrays.asList(first, second));
+
+        ProductPageDTO page = service.findPage(null, 1);
+
+        assertThat(page.getProducts()).hasSize(1);
+        assertThatProductDTO(page.getProducts().get(0)).hasId("1");
+        assertThat(page.getNext()).isEqualTo(PageToken.encode("1"));
+    }
+
+    @Test
+    public void findPage_LastPage_ShouldReturnPageWithoutToken() {
         Product found = new ProductBuilder()
                 .id(ID)
-                .title(TITLE)
-                .description(DESCRIPTION)
                 .price(PRICE)
-                .type(TYPE)
                 .build();
 
-        when(repository.findOne(ID)).thenReturn(Optional.of(found));
+        when(repository.findPage(ID, 3)).thenReturn(Arrays.asList(found));
 
-        ProductDTO returned = service.findById(ID);
+        ProductPageDTO page = service.findPage(PageToken.encode(ID), 2);
 
-        assertThatProductDTO(returned)
-                .hasId(ID)
-                .hasTitle(TITLE)
-                .hasDescription(DESCRIPTION)
-                .hasPrice(PRICE);
+        assertThat(page.getProducts()).hasSize(1);
+        assertThat(page.getNext()).isNull();
     }
 
-    @Test(expected = ProductNotFoundException.class)
-    public void update_UpdatedProductNotFound_ShouldThrowException() {
-        when(repository.findOne(ID)).thenReturn(Optional.empty());
+    @Test
+    public void findPage_LimitTooLarge_ShouldUseMaxPageSize() {
+        when(repository.findPage(null, ProductServiceImpl.MAX_PAGE_SIZE + 1)).thenReturn(Arrays.asList());
 
-        ProductDTO updated = new ProductDTOBuilder()
-                .id(ID)
+        service.findPage(null, Integer.MAX_VALUE);
+
+        verify(repository, times(1)).findPage(null, ProductServiceImpl.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    public void findByType_MoreProductsThanLimit_ShouldReturnPageOfProductsOfType() {
+        Product first = new ProductBuilder()
+                .id("1")
+                .price(PRICE)
+                .type(TYPE)
                 .build();
+        Product second = new ProductBuilder()
+                .id("2")
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        when(repository.findPageByType(TYPE, ID, 2)).thenReturn(Arrays.asList(first, second));
 
-        service.update(updated);
+        ProductPageDTO page = service.findByType(TYPE, PageToken.encode(ID), 1);
+
+        verify(repository, times(1)).findPageByType(TYPE, ID, 2);
+        verifyNoMoreInteractions(repository);
+
+        assertThat(page.getProducts()).hasSize(1);
+        assertThatProductDTO(page.getProducts().get(0))
+                .hasId("1")
+                .hasType(TYPE);
+        assertThat(page.getNext()).isEqualTo(PageToken.encode("1"));
     }
 
     @Test
-    public void update_UpdatedProductFound_ShouldSaveUpdatedProduct() {
-        Product existing = new ProductBuilder()
-                .id(ID)
+    public void findByIds_SomeProductsCached_ShouldReadOnlyUncachedProductsWithSingleQuery() {
+        Product cached = new ProductBuilder()
+                .id("1")
+                .price(PRICE)
+                .build();
+        Product stored = new ProductBuilder()
+                .id("2")
                 .price(PRICE)
                 .build();
+        cache.put(cached);
 
-        when(repository.findOne(ID)).thenReturn(Optional.of(existing));
-        when(repository.save(existing)).thenReturn(existing);
+        when(repository.findByIds(Arrays.asList("2", "3"))).thenReturn(Arrays.asList(stored));
 
-        ProductDTO updated = new ProductDTOBuilder()
-                .id(ID)
-                .title(TITLE)
-                .description(DESCRIPTION)
+        ProductBatchDTO found = service.findByIds(Arrays.asList("2", "1", "3", "2"));
+
+        verify(repository, times(1)).findByIds(Arrays.asList("2", "3"));
+        verifyNoMoreInteractions(repository);
+
+        assertThat(found.getProducts()).hasSize(2);
+        assertThatProductDTO(found.getProducts().get(0)).hasId("2");
+        assertThatProductDTO(found.getProducts().get(1)).hasId("1");
+        assertThat(found.getMissing()).containsExactly("3");
+        assertThat(cache.get("2")).isSameAs(stored);
+    }
+
+    @Test
+    public void findByIds_ObjectIdsInMixedCase_ShouldFindProductsOfLowerCaseIds() {
+        String cachedId = "5a1b2c3d4e5f6a7b8c9d0e1f";
+        String storedId = "6a1b2c3d4e5f6a7b8c9d0e1f";
+        cache.put(new ProductBuilder().id(cachedId).price(PRICE).build());
+        Product stored = new ProductBuilder()
+                .id(storedId)
                 .price(PRICE)
-                .type(TYPE)
                 .build();
 
-        service.update(updated);
+        when(repository.findByIds(Arrays.asList(storedId))).thenReturn(Arrays.asList(stored));
 
-        verify(repository, times(1)).save(existing);
-        assertThatProduct(existing)
-                .hasId(ID)
-                .hasTitle(TITLE)
-                .hasDescription(DESCRIPTION)
-                .hasPrice(PRICE)
-                .hasType(TYPE);
+        ProductBatchDTO found = service.findByIds(Arrays.asList("6A1B2C3D4E5F6A7B8C9D0E1F", "5a1B2c3D4e5F6a7B8c9D0e1F",
+                storedId));
+
+        verify(repository, times(1)).findByIds(Arrays.asList(storedId));
+        assertThat(found.getProducts()).hasSize(2);
+        assertThatProductDTO(found.getProducts().get(0)).hasId(storedId);
+        assertThatProductDTO(found.getProducts().get(1)).hasId(cachedId);
+        assertThat(found.getMissing()).isEmpty();
     }
 
     @Test
-    public void update_UpdatedProductFound_ShouldReturnTheInformationOfUpdatedProduct() {
-        Product existing = new ProductBuilder()
-                .id(ID)
+    public void findByIds_AllProductsCached_ShouldNotQueryRepository() {
+        cache.put(new ProductBuilder().id("1").price(PRICE).build());
+
+        ProductBatchDTO found = service.findByIds(Arrays.asList("1"));
+
+        verifyNoMoreInteractions(repository);
+        assertThat(found.getProducts()).hasSize(1);
+        assertThat(found.getMissing()).isEmpty();
+    }
+
+    @Test(expected = TooManyIdsException.class)
+    public void findByIds_TooManyIds_ShouldThrowException() {
+        List<String> ids = new ArrayList<>();
+        for (int index = 0; index <= ProductServiceImpl.MAX_BATCH_IDS; index++) {
+            ids.add(Integer.toString(index));
+        }
+
+        service.findByIds(ids);
+    }
+
+    @Test
+    public void findByPrice_MoreProductsThanLimit_ShouldReturnPageWithPriceAndIdInToken() {
+        Product first = new ProductBuilder()
+                .id("1")
+                .price("1.50")
+                .build();
+        Product second = new ProductBuilder()
+                .id("2")
+                .price("2")
+                .build();
+
+        when(repository.findPageByPrice(100L, 250L, Sort.Direction.ASC, null, 2))
+                .thenReturn(Arrays.asList(first, second));
+
+        ProductPageDTO page = service.findByPrice(new BigDecimal("1"), new BigDecimal("2.50"), Sort.Direction.ASC, null, 1);
+
+        verify(repository, times(1)).findPageByPrice(100L, 250L, Sort.Direction.ASC, null, 2);
+        verifyNoMoreInteractions(repository);
+
+        assertThat(page.getProducts()).hasSize(1);
+        assertThatProductDTO(page.getProducts().get(0)).hasId("1");
+        assertThat(page.getProducts().get(0).getPriceMinorUnits()).isEqualTo(150L);
+        assertThat(page.getNext()).isEqualTo(PageToken.encode(150L, "1"));
+    }
+
+    @Test
+    public void findByPrice_TokenAndNoRange_ShouldPassPriceAndIdOfLastProductToRepository() {
+        ArgumentCaptor<PageToken.PriceKey> afterArgument = ArgumentCaptor.forClass(PageToken.PriceKey.class);
+
+        service.findByPrice(null, null, Sort.Direction.DESC, PageToken.encode(150L, ID), 10);
+
+        verify(repository, times(1)).findPageByPrice(eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), eq(Sort.Direction.DESC),
+                afterArgument.capture(), eq(11));
+        verifyNoMoreInteractions(repository);
+
+        assertThat(afterArgument.getValue().getPrice()).isEqualTo(150L);
+        assertThat(afterArgument.getValue().getId()).isEqualTo(ID);
+    }
+
+    @Test
+    public void findByPrice_RangeHasMoreDecimalsThanMinorUnits_ShouldRoundRangeInwards() {
+        service.findByPrice(new BigDecimal("1.001"), new BigDecimal("1.999"), Sort.Direction.ASC, null, 10);
+
+        verify(repository, times(1)).findPageByPrice(101L, 199L, Sort.Direction.ASC, null, 11);
+    }
+
+    @Test(expected = InvalidPageTokenException.class)
+    public void findByPrice_TokenOfIdOrderedPage_ShouldThrowException() {
+        service.findByPrice(null, null, Sort.Direction.ASC, PageToken.encode(ID), 10);
+    }
+
+    @Test(expected = InvalidPageTokenException.class)
+    public void findPage_MalformedToken_ShouldThrowException() {
+        service.findPage("not a token!", 10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void exportAll_TwoProductsFound_ShouldPassTheInformationOfProductsToConsumer() {
+        Product first = new ProductBuilder()
+                .id("1")
+                .price(PRICE)
+                .build();
+        Product second = new ProductBuilder()
+                .id("2")
                 .price(PRICE)
                 .build();
 
-        when(repository.findOne(ID)).thenReturn(Optional.of(existing));
-        when(repository.save(existing)).thenReturn(existing);
+        doAnswer(invocation -> {
+            Consumer<Product> action = (Consumer<Product>) invocation.getArguments()[1];
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(repository).forEach(eq(100), isA(Consumer.class));
 
-        ProductDTO updated = new ProductDTOBuilder()
+        List<ProductDTO> exported = new ArrayList<>();
+        long count = service.exportAll(100, exported::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).hasSize(2);
+        assertThatProductDTO(exported.get(0)).hasId("1");
+        assertThatProductDTO(exported.get(1)).hasId("2");
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void findById_ProductNotFound_ShouldThrowException() {
+        when(repository.findOne(ID)).thenReturn(Optional.empty());
+
+        service.findById(ID);
+    }
+
+    @Test
+    public void findById_ProductFound_ShouldReturnTheInformationOfFoundProduct() {
+        Product found = new ProductBuilder()
                 .id(ID)
                 .title(TITLE)
                 .description(DESCRIPTION)
@@ -247,11 +785,704 @@ public class ProductServiceImplTest {
                 .type(TYPE)
                 .build();
 
-        ProductDTO returned = service.update(updated);
+        when(repository.findOne(ID)).thenReturn(Optional.of(found));
+
+        ProductDTO returned = service.findById(ID);
+
         assertThatProductDTO(returned)
                 .hasId(ID)
                 .hasTitle(TITLE)
                 .hasDescription(DESCRIPTION)
                 .hasPrice(PRICE);
     }
+
+    @Test
+    public void findById_ProductDeletedWhileItIsRead_ShouldNotCacheDeletedProduct() {
+        Product found = new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .build();
+
+        when(repository.findAndRemove(ID)).thenReturn(Optional.of(found));
+        when(repository.findOne(ID)).thenAnswer(invocation -> {
+            service.delete(ID);
+            return Optional.of(found);
+        }).thenReturn(Optional.empty());
+
+        assertThatProductDTO(service.findById(ID)).hasId(ID);
+
+        assertThat(cache.get(ID)).isNull();
+        try {
+            service.findById(ID);
+            throw new AssertionError("The deleted product was found");
+        }
+        catch (ProductNotFoundException ex) {
+            verify(repository, times(2)).findOne(ID);
+        }
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void findById_IdFilterDoesNotContainOldId_ShouldThrowExceptionWithoutQuery() {
+        buildIdFilter("existing");
+
+        try {
+            service.findById(OLD_OBJECT_ID);
+        }
+        finally {
+            verify(repository, times(1)).forEachId(eq(ID_FILTER_BATCH_SIZE), any());
+            verify(repository, times(1)).count();
+            verifyNoMoreInteractions(repository);
+            assertThat(idFilter.stats().getRejected()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void findById_IdCreatedAfterIdFilterWasBuilt_ShouldQueryRepository() {
+        buildIdFilter("existing");
+        String newId = new ObjectId(new Date(NOW)).toString();
+        Product found = new ProductBuilder()
+                .id(newId)
+                .price(PRICE)
+                .build();
+
+        when(repository.findOne(newId)).thenReturn(Optional.of(found));
+
+        assertThatProductDTO(service.findById(newId)).hasId(newId);
+    }
+
+    @Test
+    public void findById_IdAddedByCreate_ShouldQueryRepository() {
+        buildIdFilter("existing");
+        Product created = new ProductBuilder()
+                .id(OLD_OBJECT_ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(repository.save(isA(Product.class))).thenReturn(created);
+        service.create(new ProductDTOBuilder().title(TITLE).price(PRICE).build());
+        cache.invalidate(OLD_OBJECT_ID);
+
+        when(repository.findOne(OLD_OBJECT_ID)).thenReturn(Optional.of(created));
+
+        assertThatProductDTO(service.findById(OLD_OBJECT_ID)).hasId(OLD_OBJECT_ID);
+    }
+
+    @Test
+    public void findByIds_IdFilterDoesNotContainId_ShouldNotQueryIt() {
+        buildIdFilter("existing");
+        Product existing = new ProductBuilder()
+                .id("existing")
+                .price(PRICE)
+                .build();
+
+        when(repository.findByIds(Arrays.asList("existing"))).thenReturn(Arrays.asList(existing));
+
+        ProductBatchDTO found = service.findByIds(Arrays.asList("missing", "existing"));
+
+        verify(repository, times(1)).findByIds(Arrays.asList("existing"));
+        assertThat(found.getProducts()).hasSize(1);
+        assertThat(found.getMissing()).containsExactly("missing");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildIdFilter(String... ids) {
+        doAnswer(invocation -> {
+            Consumer<String> action = (Consumer<String>) invocation.getArguments()[1];
+            Arrays.asList(ids).forEach(action);
+            return null;
+        }).when(repository).forEachId(eq(ID_FILTER_BATCH_SIZE), isA(Consumer.class));
+
+        idFilter.rebuild();
+    }
+
+    @Test
+    public void findById_ConcurrentLookupsOfSameId_ShouldQueryRepositoryOnce() throws Exception {
+        Product found = new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .build();
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(repository.findOne(ID)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(found);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ProductDTO> first = executor.submit(() -> service.findById(ID));
+            Future<ProductDTO> second = executor.submit(() -> service.findById(ID));
+
+            while (coalescer.stats().get("id").getJoins() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThatProductDTO(first.get(5, TimeUnit.SECONDS)).hasId(ID);
+            assertThatProductDTO(second.get(5, TimeUnit.SECONDS)).hasId(ID);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        verify(repository, times(1)).findOne(ID);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void update_UpdatedProductNotFound_ShouldThrowException() {
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.empty());
+
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        service.update(updated, null);
+    }
+
+    @Test
+    public void update_UpdatedProductFound_ShouldChangeCatalogTag() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(existing));
+
+        String catalogTag = catalogVersion.getCatalogTag();
+
+        service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build(), null);
+
+        assertThat(catalogVersion.getCatalogTag()).isNotEqualTo(catalogTag);
+    }
+
+    @Test
+    public void update_UpdatesFinishOutOfOrder_ShouldKeepNewerProductCached() {
+        Product newer = new ProductBuilder()
+                .id(ID)
+                .title("newer")
+                .price(PRICE)
+                .version(2L)
+                .build();
+        Product older = new ProductBuilder()
+                .id(ID)
+                .title("older")
+                .price(PRICE)
+                .version(1L)
+                .build();
+
+        when(repository.findAndModify(eq(ID), isA(Update.class)))
+                .thenReturn(Optional.of(newer))
+                .thenReturn(Optional.of(older));
+
+        service.update(new ProductDTOBuilder().id(ID).title("newer").price(PRICE).build(), null);
+        service.update(new ProductDTOBuilder().id(ID).title("older").price(PRICE).build(), null);
+
+        assertThat(cache.get(ID)).isSameAs(newer);
+    }
+
+    @Test
+    public void update_UpdatedProductNotFound_ShouldNotChangeCatalogTag() {
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.empty());
+
+        String catalogTag = catalogVersion.getCatalogTag();
+
+        try {
+            service.update(new ProductDTOBuilder()
+                    .id(ID)
+                    .title(TITLE)
+                    .price(PRICE)
+                    .build(), null);
+        }
+        catch (ProductNotFoundException ex) {
+            assertThat(catalogVersion.getCatalogTag()).isEqualTo(catalogTag);
+            return;
+        }
+        throw new AssertionError("The product was updated");
+    }
+
+    @Test
+    public void update_VersionIsCurrent_ShouldUpdateProductOnlyIfItHasVersionAndIncreaseVersion() {
+        Product updatedProduct = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(4)
+                .build();
+
+        when(repository.findAndModify(eq(ID), eq(3L), isA(Update.class))).thenReturn(Optional.of(updatedProduct));
+
+        ProductDTO returned = service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(3)
+                .build(), 3L);
+
+        ArgumentCaptor<Update> updateArgument = ArgumentCaptor.forClass(Update.class);
+        verify(repository, times(1)).findAndModify(eq(ID), eq(3L), updateArgument.capture());
+        verifyNoMoreInteractions(repository);
+
+        DBObject inc = (DBObject) updateArgument.getValue().getUpdateObject().get("$inc");
+        assertThat(inc.get("version")).isEqualTo(1);
+        assertThat(returned.getVersion()).isEqualTo(4L);
+    }
+
+    @Test(expected = ProductModifiedException.class)
+    public void update_IfMatchVersionIsNotCurrent_ShouldThrowException() {
+        when(repository.findAndModify(eq(ID), eq(3L), isA(Update.class))).thenReturn(Optional.empty());
+        when(repository.findOne(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .version(4)
+                .build()));
+
+        service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build(), 3L);
+    }
+
+    @Test(expected = ProductVersionConflictException.class)
+    public void update_VersionIsNotCurrent_ShouldThrowException() {
+        when(repository.findAndModify(eq(ID), eq(3L), isA(Update.class))).thenReturn(Optional.empty());
+        when(repository.findOne(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .version(4)
+                .build()));
+
+        service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(3)
+                .build(), null);
+    }
+
+    @Test(expected = ProductVersionConflictException.class)
+    public void update_IfMatchVersionIsCurrentButVersionIsNot_ShouldThrowExceptionWithoutUpdatingProduct() {
+        when(repository.findOne(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .version(4)
+                .build()));
+
+        try {
+            service.update(new ProductDTOBuilder()
+                    .id(ID)
+                    .title(TITLE)
+                    .price(PRICE)
+                    .version(3)
+                    .build(), 4L);
+        }
+        finally {
+            verify(repository, never()).findAndModify(eq(ID), anyLong(), isA(Update.class));
+        }
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void update_VersionIsGivenAndProductNotFound_ShouldThrowException() {
+        when(repository.findAndModify(eq(ID), eq(3L), isA(Update.class))).thenReturn(Optional.empty());
+        when(repository.findOne(ID)).thenReturn(Optional.empty());
+
+        service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build(), 3L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void update_TitleIsEmpty_ShouldThrowExceptionWithoutUpdatingProduct() {
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title("")
+                .price(PRICE)
+                .build();
+
+        try {
+            service.update(updated, null);
+        }
+        finally {
+            verifyNoMoreInteractions(repository);
+        }
+    }
+
+    @Test
+    public void update_UpdatedProductFound_ShouldSetUpdatedFieldsWithSingleOperation() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .description(DESCRIPTION)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(existing));
+
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .description(DESCRIPTION)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        service.update(updated, null);
+
+        ArgumentCaptor<Update> updateArgument = ArgumentCaptor.forClass(Update.class);
+        verify(repository, times(1)).findAndModify(eq(ID), updateArgument.capture());
+        verifyNoMoreInteractions(repository);
+
+        DBObject set = (DBObject) updateArgument.getValue().getUpdateObject().get("$set");
+        assertThat(set.get("title")).isEqualTo(TITLE);
+        assertThat(set.get("description")).isEqualTo(DESCRIPTION);
+        assertThat(set.get("price")).isEqualTo(PRICE);
+        assertThat(set.get("type")).isEqualTo(TYPE);
+    }
+
+    @Test
+    public void update_UpdatedProductFound_ShouldReturnTheInformationOfUpdatedProduct() {
+        Product updatedProduct = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .description(DESCRIPTION)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(updatedProduct));
+
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .description(DESCRIPTION)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        ProductDTO returned = service.update(updated, null);
+        assertThatProductDTO(returned)
+                .hasId(ID)
+                .hasTitle(TITLE)
+                .hasDescription(DESCRIPTION)
+                .hasPrice(PRICE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void update_WriteBehindEnabled_ShouldQueueUpdateAndReturnItFromReads() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+        when(repository.findOne(ID)).thenReturn(Optional.of(existing));
+
+        ProductServiceImpl writeBehindService = writeBehindService(writeBehind(true));
+
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title("updated")
+                .description(DESCRIPTION)
+                .price(PRICE)
+                .type(TYPE)
+                .build();
+
+        ProductDTO returned = writeBehindService.update(updated, null);
+        assertThatProductDTO(returned)
+                .hasId(ID)
+                .hasTitle("updated")
+                .hasDescription(DESCRIPTION);
+
+        assertThatProductDTO(writeBehindService.findById(ID)).hasTitle("updated");
+        assertThatProductDTO(writeBehindService.findByIds(Arrays.asList(ID)).getProducts().get(0))
+                .hasTitle("updated");
+
+        verify(repository, times(1)).findOne(ID);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    public void update_WriteBehindEnabled_ShouldReturnNextVersionOfQueuedUpdate() {
+        when(repository.findOne(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .version(3)
+                .build()));
+
+        ProductServiceImpl writeBehindService = writeBehindService(writeBehind(true));
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        assertThat(writeBehindService.update(updated, null).getVersion()).isEqualTo(4L);
+        //Every update gets a version of its own, although only the latest queued update is written.
+        assertThat(writeBehindService.update(updated, null).getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    public void update_WriteBehindEnabledAndIfMatchVersionGiven_ShouldUpdateProductWithoutQueueingIt() {
+        Product updatedProduct = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(4)
+                .build();
+        when(repository.findAndModify(eq(ID), eq(3L), isA(Update.class))).thenReturn(Optional.of(updatedProduct));
+
+        ProductWriteBehind writeBehind = writeBehind(true);
+        ProductDTO returned = writeBehindService(writeBehind).update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build(), 3L);
+
+        assertThat(returned.getVersion()).isEqualTo(4L);
+        assertThat(writeBehind.pending(ID)).isNull();
+        verify(repository, times(1)).findAndModify(eq(ID), eq(3L), isA(Update.class));
+    }
+
+    @Test
+    public void update_WriteBehindClosed_ShouldUpdateProductWithoutQueueingIt() throws InterruptedException {
+        Product updatedProduct = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .version(4)
+                .build();
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(updatedProduct));
+
+        ProductWriteBehind writeBehind = writeBehind(true);
+        writeBehind.destroy();
+        ProductDTO returned = writeBehindService(writeBehind).update(new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build(), null);
+
+        assertThat(returned.getVersion()).isEqualTo(4L);
+        assertThat(writeBehind.stats().getAccepted()).isZero();
+        verify(repository, times(1)).findAndModify(eq(ID), isA(Update.class));
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void update_WriteBehindEnabledAndProductNotFound_ShouldThrowExceptionWithoutQueueingUpdate() {
+        when(repository.findOne(ID)).thenReturn(Optional.empty());
+
+        ProductWriteBehind writeBehind = writeBehind(true);
+        ProductDTO updated = new ProductDTOBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        try {
+            writeBehindService(writeBehind).update(updated, null);
+        }
+        finally {
+            assertThat(writeBehind.stats().getQueued()).isZero();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void patch_WriteBehindUpdateQueued_ShouldWriteQueuedUpdateBeforePatch() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+        when(repository.findOne(ID)).thenReturn(Optional.of(existing));
+        when(repository.updateAll(isA(Map.class), isA(Map.class))).thenReturn(1);
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(existing));
+
+        ProductServiceImpl writeBehindService = writeBehindService(writeBehind(true));
+        writeBehindService.update(new ProductDTOBuilder()
+                .id(ID)
+                .title("updated")
+                .price(PRICE)
+                .build(), null);
+
+        ProductPatchDTO patch = new ProductPatchDTO();
+        patch.setPrice(PRICE);
+        writeBehindService.patch(ID, patch, null);
+
+        InOrder inOrder = inOrder(repository);
+        ArgumentCaptor<Map> updatesArgument = ArgumentCaptor.forClass(Map.class);
+        inOrder.verify(repository).updateAll(updatesArgument.capture(), isA(Map.class));
+        inOrder.verify(repository).findAndModify(eq(ID), isA(Update.class));
+
+        assertThat(updatesArgument.getValue()).containsKey(ID);
+    }
+
+    @Test
+    public void patch_OnlyPriceChanged_ShouldSetOnlyPrice() {
+        Product patched = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(patched));
+
+        ProductPatchDTO patch = new ProductPatchDTO();
+        patch.setPrice(PRICE);
+
+        ProductDTO returned = service.patch(ID, patch, null);
+
+        ArgumentCaptor<Update> updateArgument = ArgumentCaptor.forClass(Update.class);
+        verify(repository, times(1)).findAndModify(eq(ID), updateArgument.capture());
+        verifyNoMoreInteractions(repository);
+
+        DBObject set = (DBObject) updateArgument.getValue().getUpdateObject().get("$set");
+        assertThat(set.keySet()).containsOnly("price", "priceMinorUnits", "lastModified");
+        assertThat(set.get("lastModified")).isEqualTo(NOW);
+        assertThat(set.get("price")).isEqualTo(PRICE);
+        assertThat(set.get("priceMinorUnits")).isNull();
+
+        assertThatProductDTO(returned)
+                .hasId(ID)
+                .hasTitle(TITLE)
+                .hasPrice(PRICE);
+    }
+
+    @Test
+    public void patch_NoChanges_ShouldReturnProductWithoutUpdatingIt() {
+        Product found = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(repository.findOne(ID)).thenReturn(Optional.of(found));
+
+        ProductDTO returned = service.patch(ID, new ProductPatchDTO(), null);
+
+        verify(repository, times(1)).findOne(ID);
+        verifyNoMoreInteractions(repository);
+
+        assertThatProductDTO(returned).hasId(ID);
+    }
+
+    @Test(expected = ProductModifiedException.class)
+    public void patch_NoChangesAndIfMatchVersionIsNotCurrent_ShouldThrowException() {
+        when(repository.findOne(ID)).thenReturn(Optional.of(new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .version(4)
+                .build()));
+
+        service.patch(ID, new ProductPatchDTO(), 3L);
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void patch_ProductNotFound_ShouldThrowException() {
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.empty());
+
+        ProductPatchDTO patch = new ProductPatchDTO();
+        patch.setTitle(TITLE);
+
+        service.patch(ID, patch, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patch_TitleIsEmpty_ShouldThrowException() {
+        ProductPatchDTO patch = new ProductPatchDTO();
+        patch.setTitle("");
+
+        service.patch(ID, patch, null);
+    }
+
+    @Test
+    public void findById_ProductFoundTwice_ShouldReadProductFromRepositoryOnce() {
+        Product found = new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .build();
+
+        when(repository.findOne(ID)).thenReturn(Optional.of(found));
+
+        service.findById(ID);
+        ProductDTO returned = service.findById(ID);
+
+        verify(repository, times(1)).findOne(ID);
+        assertThatProductDTO(returned).hasId(ID);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void create_ShouldCacheCreatedProduct() {
+        ProductDTO newProduct = new ProductDTOBuilder()
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        when(repository.save(isA(Product.class))).thenAnswer(invocation -> {
+            Product persisted = (Product) invocation.getArguments()[0];
+            ReflectionTestUtils.setField(persisted, "id", ID);
+            return persisted;
+        });
+
+        service.create(newProduct);
+        service.findById(ID);
+
+        verify(repository, times(0)).findOne(ID);
+    }
+
+    @Test
+    public void update_CachedProduct_ShouldReplaceCachedProduct() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+        Product updatedProduct = new ProductBuilder()
+                .id(ID)
+                .title("updatedTitle")
+                .price(PRICE)
+                .build();
+
+        when(repository.findOne(ID)).thenReturn(Optional.of(existing));
+        when(repository.findAndModify(eq(ID), isA(Update.class))).thenReturn(Optional.of(updatedProduct));
+
+        service.findById(ID);
+        service.update(new ProductDTOBuilder()
+                .id(ID)
+                .title("updatedTitle")
+                .price(PRICE)
+                .build(), null);
+        ProductDTO returned = service.findById(ID);
+
+        verify(repository, times(1)).findOne(ID);
+        assertThatProductDTO(returned).hasTitle("updatedTitle");
+    }
+
+    @Test(expected = ProductNotFoundException.class)
+    public void delete_CachedProduct_ShouldRemoveProductFromCache() {
+        Product existing = new ProductBuilder()
+                .id(ID)
+                .price(PRICE)
+                .build();
+
+        when(repository.findOne(ID)).thenReturn(Optional.of(existing)).thenReturn(Optional.empty());
+        when(repository.findAndRemove(ID)).thenReturn(Optional.of(existing));
+
+        service.findById(ID);
+        service.delete(ID);
+        service.findById(ID);
+    }
 }
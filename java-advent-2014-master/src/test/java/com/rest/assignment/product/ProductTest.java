@@ -1,6 +1,8 @@
 package com.rest.assignment.product;
 
 import static com.rest.assignment.product.ProductAssert.assertThatProduct;
+import static com.rest.assignment.util.AllocationMeter.allocatedBytes;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.Test;
 
@@ -198,4 +200,83 @@ public class ProductTest {
                 .hasTitle(UPDATED_TITLE)
                 .hasPrice(PRICE);
     }
+
+    @Test
+    public void checkPatch_AllFieldsAreNull_ShouldNotThrowException() {
+        Product.checkPatch(null, null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkPatch_TitleIsEmpty_ShouldThrowException() {
+        Product.checkPatch("", null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkPatch_TitleIsTooLong_ShouldThrowException() {
+        String tooLongTitle = StringTestUtil.createStringWithLength(MAX_LENGTH_TITLE + 1);
+        Product.checkPatch(tooLongTitle, null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkPatch_DescriptionIsTooLong_ShouldThrowException() {
+        String tooLongDescription = StringTestUtil.createStringWithLength(MAX_LENGTH_DESCRIPTION + 1);
+        Product.checkPatch(null, tooLongDescription, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkPatch_PriceIsEmpty_ShouldThrowException() {
+        Product.checkPatch(null, null, "");
+    }
+
+    @Test
+    public void build_PriceIsNumber_ShouldSetPriceInMinorUnits() {
+        Product built = Product.getBuilder()
+                .title(TITLE)
+                .price("10.5")
+                .build();
+
+        assertThat(built.getPriceMinorUnits()).isEqualTo(1050L);
+    }
+
+    @Test
+    public void build_PriceIsNotNumber_ShouldNotSetPriceInMinorUnits() {
+        Product built = Product.getBuilder()
+                .title(TITLE)
+                .price(PRICE)
+                .build();
+
+        assertThat(built.getPriceMinorUnits()).isNull();
+    }
+
+    @Test
+    public void update_PriceIsNumber_ShouldUpdatePriceInMinorUnits() {
+        Product updated = Product.getBuilder()
+                .title(TITLE)
+                .price("1")
+                .build();
+
+        updated.update(UPDATED_TITLE, UPDATED_DESCRIPTION, "2.99", UPDATED_TYPE);
+
+        assertThat(updated.getPriceMinorUnits()).isEqualTo(299L);
+    }
+
+    @Test
+    public void toMinorUnits_PriceHasMoreDecimalsThanMinorUnits_ShouldRoundHalfUp() {
+        assertThat(Product.toMinorUnits(" 0.125 ")).isEqualTo(13L);
+    }
+
+    @Test
+    public void toMinorUnits_PriceDoesNotFitInLong_ShouldReturnNull() {
+        assertThat(Product.toMinorUnits("1e30")).isNull();
+    }
+
+    @Test
+    public void checkPatch_FieldsAreValid_ShouldNotAllocate() {
+        String title = StringTestUtil.createStringWithLength(MAX_LENGTH_TITLE);
+        String description = StringTestUtil.createStringWithLength(MAX_LENGTH_DESCRIPTION);
+
+        long allocated = allocatedBytes(100000, () -> Product.checkPatch(title, description, PRICE));
+
+        assertThat(allocated).isEqualTo(0);
+    }
 }
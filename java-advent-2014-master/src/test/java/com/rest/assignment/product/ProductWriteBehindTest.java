@@ -0,0 +1,280 @@
+package com.rest.assignment.product;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * @author Rohan Das
+ */
+@RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings("unchecked")
+public class ProductWriteBehindTest {
+
+    private static final String FIRST_ID = "first";
+    private static final String SECOND_ID = "second";
+    private static final String THIRD_ID = "third";
+    private static final String PRICE = "10.00";
+
+    private static final int MAX_PENDING = 2;
+    private static final int BATCH_SIZE = 2;
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+    private static final long OFFER_TIMEOUT_MILLIS = 0;
+
+    private static final long NOW = 1000;
+
+    private static final long STORED_VERSION = 3;
+
+    @Mock
+    private ProductRepository repository;
+
+    private ProductCache cache;
+
+    private ProductEventStream events;
+
+    private ProductCatalogVersion catalogVersion;
+
+    private ProductWriteBehind writeBehind;
+
+    @Before
+    public void setUp() {
+        cache = new ProductCache(10, 60);
+        ProductChangeFeed changeFeed = new ProductChangeFeed(repository, 0, 1, () -> NOW);
+        events = new ProductEventStream(0, 1, 1, 0, Runnable::run, new ObjectMapper());
+        catalogVersion = new ProductCatalogVersion();
+        //The scheduler is not started, so the queue is only flushed by the tests.
+        writeBehind = new ProductWriteBehind(repository, cache, changeFeed, events, catalogVersion, true, MAX_PENDING,
+                BATCH_SIZE, FLUSH_INTERVAL_MILLIS, OFFER_TIMEOUT_MILLIS);
+        when(repository.updateAll(isA(Map.class), isA(Map.class))).thenAnswer(invocation -> ((Map) invocation.getArguments()[0]).size());
+    }
+
+    @Test
+    public void flush_SameProductQueuedTwice_ShouldWriteOnlyTheLatestUpdate() {
+        enqueue(product(FIRST_ID, "old"));
+        enqueue(product(FIRST_ID, "new"));
+
+        assertThat(writeBehind.flush()).isTrue();
+
+        ArgumentCaptor<Map> updatesArgument = ArgumentCaptor.forClass(Map.class);
+        verify(repository, times(1)).updateAll(updatesArgument.capture(), isA(Map.class));
+
+        Map<String, Update> updates = updatesArgument.getValue();
+        assertThat(updates).hasSize(1);
+        DBObject set = (DBObject) updates.get(FIRST_ID).getUpdateObject().get("$set");
+        assertThat(set.get("title")).isEqualTo("new");
+        assertThat(set.get("lastModified")).isEqualTo(NOW);
+
+        ProductWriteBehindStats stats = writeBehind.stats();
+        assertThat(stats.getAccepted()).isEqualTo(2);
+        assertThat(stats.getSuperseded()).isEqualTo(1);
+        assertThat(stats.getWritten()).isEqualTo(1);
+    }
+
+    @Test
+    public void flush_SameProductQueuedTwice_ShouldSetVersionOfLatestUpdateIfProductHasStoredVersion() {
+        assertThat(writeBehind.enqueue(product(FIRST_ID, "old"), STORED_VERSION, writeBehind.writeGeneration()))
+                .isTrue();
+        assertThat(writeBehind.enqueue(product(FIRST_ID, "new"), STORED_VERSION, writeBehind.writeGeneration()))
+                .isTrue();
+
+        assertThat(writeBehind.pending(FIRST_ID).getVersion()).isEqualTo(STORED_VERSION + 2);
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Map> updatesArgument = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map> versionsArgument = ArgumentCaptor.forClass(Map.class);
+        verify(repository, times(1)).updateAll(updatesArgument.capture(), versionsArgument.capture());
+
+        DBObject set = (DBObject) ((Update) updatesArgument.getValue().get(FIRST_ID)).getUpdateObject().get("$set");
+        assertThat(set.get("version")).isEqualTo(STORED_VERSION + 2);
+        assertThat(versionsArgument.getValue().get(FIRST_ID)).isEqualTo(STORED_VERSION);
+    }
+
+    @Test
+    public void enqueue_UpdateQueuedWhileUpdateOfSameProductIsWritten_ShouldReplaceVersionOfWrittenUpdate() {
+        ArgumentCaptor<Map> updatesArgument = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map> versionsArgument = ArgumentCaptor.forClass(Map.class);
+        Product replacing = product(FIRST_ID, "replacing");
+        when(repository.updateAll(updatesArgument.capture(), versionsArgument.capture())).thenAnswer(invocation -> {
+            if (writeBehind.pending(FIRST_ID) != replacing) {
+                //The stored version that was read is outdated, but the written update is still pending.
+                assertThat(writeBehind.enqueue(replacing, STORED_VERSION, writeBehind.writeGeneration())).isTrue();
+            }
+            return 1;
+        });
+
+        writeBehind.enqueue(product(FIRST_ID, "written"), STORED_VERSION, writeBehind.writeGeneration());
+        writeBehind.flush();
+
+        assertThat(replacing.getVersion()).isEqualTo(STORED_VERSION + 2);
+        assertThat(updatesArgument.getAllValues()).hasSize(2);
+        DBObject set = (DBObject) ((Update) updatesArgument.getAllValues().get(1).get(FIRST_ID)).getUpdateObject()
+                .get("$set");
+        assertThat(set.get("title")).isEqualTo("replacing");
+        assertThat(set.get("version")).isEqualTo(STORED_VERSION + 2);
+        assertThat(versionsArgument.getAllValues().get(1).get(FIRST_ID)).isEqualTo(STORED_VERSION + 1);
+    }
+
+    @Test
+    public void enqueue_UpdatesWrittenAfterStoredVersionWasRead_ShouldNotQueueUpdate() {
+        long generation = writeBehind.writeGeneration();
+        enqueue(product(SECOND_ID, "second"));
+        writeBehind.flush();
+
+        assertThat(writeBehind.enqueue(product(FIRST_ID, "first"), STORED_VERSION, generation)).isFalse();
+        assertThat(writeBehind.pending(FIRST_ID)).isNull();
+    }
+
+    @Test
+    public void pending_UpdateQueued_ShouldReturnQueuedProductUntilItIsWritten() {
+        enqueue(product(FIRST_ID, "new"));
+
+        assertThat(writeBehind.pending(FIRST_ID).getTitle()).isEqualTo("new");
+        assertThat(writeBehind.pending(SECOND_ID)).isNull();
+
+        writeBehind.flush();
+
+        assertThat(writeBehind.pending(FIRST_ID)).isNull();
+    }
+
+    @Test
+    public void enqueue_QueueFull_ShouldRejectUpdatesOfOtherProducts() {
+        enqueue(product(FIRST_ID, "first"));
+        enqueue(product(SECOND_ID, "second"));
+
+        //An update of a queued product replaces it, so it does not need room in the queue.
+        enqueue(product(FIRST_ID, "replaced"));
+
+        try {
+            enqueue(product(THIRD_ID, "third"));
+        }
+        catch (WriteBehindQueueFullException ex) {
+            assertThat(writeBehind.stats().getRejected()).isEqualTo(1);
+            assertThat(writeBehind.pending(THIRD_ID)).isNull();
+            return;
+        }
+        throw new AssertionError("The update of a third product was queued");
+    }
+
+    @Test
+    public void flush_WriteFails_ShouldKeepUpdatesQueued() {
+        when(repository.updateAll(isA(Map.class), isA(Map.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        enqueue(product(FIRST_ID, "new"));
+
+        assertThat(writeBehind.flush()).isFalse();
+        assertThat(writeBehind.pending(FIRST_ID).getTitle()).isEqualTo("new");
+        assertThat(writeBehind.stats().getQueued()).isEqualTo(1);
+        assertThat(writeBehind.stats().getFailedFlushes()).isEqualTo(1);
+    }
+
+    @Test
+    public void flush_ProductOfUpdateDeleted_ShouldCountMissingProduct() {
+        when(repository.updateAll(isA(Map.class), isA(Map.class))).thenReturn(1);
+
+        Product first = product(FIRST_ID, "first");
+        enqueue(first);
+        enqueue(product(SECOND_ID, "second"));
+        when(repository.findByIds(Arrays.asList(FIRST_ID, SECOND_ID))).thenReturn(Arrays.asList(first));
+        writeBehind.flush();
+
+        ProductWriteBehindStats stats = writeBehind.stats();
+        assertThat(stats.getWritten()).isEqualTo(1);
+        assertThat(stats.getMissing()).isEqualTo(1);
+        assertThat(stats.getLost()).isZero();
+        verify(repository, never()).findAndModify(isA(String.class), isA(Update.class));
+    }
+
+    @Test
+    public void flush_ProductUpdatedDirectlyAfterUpdateWasQueued_ShouldCountLostUpdateAndPublishStoredProduct() {
+        when(repository.updateAll(isA(Map.class), isA(Map.class))).thenReturn(0);
+
+        String tag = catalogVersion.getCatalogTag();
+        enqueue(product(FIRST_ID, "queued"));
+        //The direct update stored the version that was returned for the queued update.
+        Product direct = new ProductBuilder().id(FIRST_ID).title("direct").price(PRICE).version(STORED_VERSION + 1).build();
+        when(repository.findByIds(Arrays.asList(FIRST_ID))).thenReturn(Arrays.asList(direct));
+        Product republished = new ProductBuilder().id(FIRST_ID).title("direct").price(PRICE).version(STORED_VERSION + 2)
+                .build();
+        when(repository.findAndModify(eq(FIRST_ID), isA(Update.class))).thenReturn(Optional.of(republished));
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Update> updateArgument = ArgumentCaptor.forClass(Update.class);
+        verify(repository, times(1)).findAndModify(eq(FIRST_ID), updateArgument.capture());
+        DBObject inc = (DBObject) updateArgument.getValue().getUpdateObject().get("$inc");
+        assertThat(inc.get("version")).isEqualTo(1);
+
+        ProductWriteBehindStats stats = writeBehind.stats();
+        assertThat(stats.getWritten()).isZero();
+        assertThat(stats.getLost()).isEqualTo(1);
+        assertThat(stats.getMissing()).isZero();
+        assertThat(writeBehind.pending(FIRST_ID)).isNull();
+        assertThat(events.stats().getPublished()).isEqualTo(1);
+        assertThat(catalogVersion.getCatalogTag()).isNotEqualTo(tag);
+    }
+
+    @Test
+    public void flushById_UpdateNotQueued_ShouldNotWrite() {
+        enqueue(product(FIRST_ID, "first"));
+
+        writeBehind.flush(SECOND_ID);
+
+        verify(repository, never()).updateAll(isA(Map.class), isA(Map.class));
+        assertThat(writeBehind.pending(FIRST_ID)).isNotNull();
+    }
+
+    @Test
+    public void destroy_UpdatesQueued_ShouldWriteThem() throws InterruptedException {
+        enqueue(product(FIRST_ID, "first"));
+        enqueue(product(SECOND_ID, "second"));
+
+        writeBehind.destroy();
+
+        verify(repository, times(1)).updateAll(isA(Map.class), isA(Map.class));
+        assertThat(writeBehind.stats().getQueued()).isZero();
+        assertThat(writeBehind.pending(FIRST_ID)).isNull();
+    }
+
+    @Test
+    public void enqueue_WriteBehindDestroyed_ShouldNotQueueUpdate() throws InterruptedException {
+        writeBehind.destroy();
+
+        assertThat(writeBehind.isClosed()).isTrue();
+        assertThat(writeBehind.enqueue(product(FIRST_ID, "first"), STORED_VERSION, writeBehind.writeGeneration()))
+                .isFalse();
+        assertThat(writeBehind.pending(FIRST_ID)).isNull();
+        assertThat(writeBehind.stats().getQueued()).isZero();
+    }
+
+    private void enqueue(Product product) {
+        assertThat(writeBehind.enqueue(product, STORED_VERSION, writeBehind.writeGeneration())).isTrue();
+    }
+
+    private static Product product(String id, String title) {
+        return new ProductBuilder()
+                .id(id)
+                .title(title)
+                .price(PRICE)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.rest.assignment.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the number of bytes that the current thread allocates while it runs a task.
+ * @author Rohan Das
+ */
+public final class AllocationMeter {
+
+    private static final int WARMUP_ITERATIONS = 20000;
+
+    private static final int ROUNDS = 5;
+
+    private AllocationMeter() {}
+
+    /**
+     * Runs the task until it is compiled, and then measures it. The measurement is repeated a few
+     * times, because the task can allocate until the compiler has optimized it.
+     * @return  The fewest bytes that were allocated by running the task the given number of times.
+     */
+    public static long allocatedBytes(int iterations, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            task.run();
+        }
+
+        //The first call of the counter allocates, so it is called once before the measurement.
+        threads.getThreadAllocatedBytes(threadId);
+
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && fewest > 0; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                task.run();
+            }
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return fewest;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rest.assignment.util;
+
+import org.junit.Test;
+
+import static com.rest.assignment.util.AllocationMeter.allocatedBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * @author Rohan Das
+ */
+public class PreConditionTest {
+
+    private static final int ITERATIONS = 100000;
+
+    private static final int MAX_LENGTH = 500;
+
+    @Test
+    public void isTrue_ExpressionIsFalse_ShouldThrowExceptionWithFormattedMessage() {
+        try {
+            PreCondition.isTrue(false, "Cannot be longer than %d characters", MAX_LENGTH);
+            fail("Expected an exception");
+        }
+        catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Cannot be longer than 500 characters");
+        }
+    }
+
+    @Test
+    public void isTrue_ExpressionIsFalse_ShouldThrowExceptionWithSuppliedMessage() {
+        try {
+            PreCondition.isTrue(false, () -> "message");
+            fail("Expected an exception");
+        }
+        catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("message");
+        }
+    }
+
+    @Test
+    public void isTrue_ExpressionIsTrue_ShouldNotFormatMessage() {
+        PreCondition.isTrue(true, "%d is not a number", "not a number");
+    }
+
+    @Test
+    public void isTrue_ExpressionIsTrue_ShouldNotAllocate() {
+        long allocated = allocatedBytes(ITERATIONS, () -> {
+            PreCondition.isTrue(true, "Cannot be longer than %d characters", MAX_LENGTH);
+            PreCondition.isTrue(true, () -> "message");
+            PreCondition.isTrue(true, "message");
+            PreCondition.notEmpty("value", "message");
+            PreCondition.notNull("value", "message");
+        });
+
+        assertThat(allocated).isEqualTo(0);
+    }
+}